@@ -14,6 +14,7 @@ const CATEGORIES = [
 ];
 
 const SORT_OPTIONS = [
+  { value: "trending", label: "Trending" },
   { value: "lastActivityAt,DESC", label: "Recent Activity" },
   { value: "createdAt,DESC", label: "Newest First" },
   { value: "upvotes,DESC", label: "Most Upvoted" },
@@ -61,6 +62,12 @@ export default function ForumList() {
       if (searchQuery) {
         endpoint = "/forum/posts/search";
         params.keyword = searchQuery;
+        if (courseId) params.courseId = courseId;
+        if (chapterId) params.chapterId = chapterId;
+        if (selectedCategory !== "ALL") params.category = selectedCategory;
+      } else if (sortBy === "trending") {
+        endpoint = "/forum/posts/trending";
+        if (courseId) params.courseId = courseId;
       } else if (chapterId) {
         endpoint = `/forum/posts/chapter/${chapterId}`;
       } else if (courseId) {
@@ -264,9 +271,17 @@ export default function ForumList() {
                             {post.title}
                           </h3>
 
-                          <p className="text-gray-600 text-xs line-clamp-1 mb-2">
-                            {post.content}
-                          </p>
+                          {post.snippet ? (
+                            // Snippet is HTML-escaped by the server; only <mark> tags are markup
+                            <p
+                              className="text-gray-600 text-xs line-clamp-2 mb-2 [&_mark]:bg-yellow-200 [&_mark]:rounded-sm"
+                              dangerouslySetInnerHTML={{ __html: post.snippet }}
+                            />
+                          ) : (
+                            <p className="text-gray-600 text-xs line-clamp-1 mb-2">
+                              {post.content}
+                            </p>
+                          )}
 
                           {/* Tags */}
                           {post.tags && post.tags.length > 0 && (
@@ -164,13 +164,6 @@ export default function TopicList() {
                       </h3>
                     </div>
 
-                    {topic.content && (
-                      <p className="text-gray-600 mt-2 ml-8 line-clamp-3">
-                        {topic.content.substring(0, 200)}
-                        {topic.content.length > 200 ? "..." : ""}
-                      </p>
-                    )}
-
                     {topic.videoUrl && (
                       <div className="flex items-center gap-2 mt-3 ml-8 text-sm text-blue-600">
                         <svg
@@ -90,15 +90,25 @@ export default function AdminTopics() {
     }
   };
 
-  const handleEdit = (topic) => {
-    setEditingTopic(topic);
+  const handleEdit = async (topic) => {
+    // The topic list only carries previews; load the full body for the editor
+    let fullTopic = topic;
+    try {
+      const topicResponse = await api.get(`/topics/${topic.id}`);
+      fullTopic = { ...topic, ...topicResponse.data.data };
+    } catch (error) {
+      console.error('Error fetching topic:', error);
+      alert('Failed to load topic content');
+      return;
+    }
+    setEditingTopic(fullTopic);
     // Scroll to top to see the form
     window.scrollTo({ top: 0, behavior: 'smooth' });
     setFormData({
-      title: topic.title || '',
-      description: topic.description || '',
-      content: topic.content || '',
-      topicNumber: topic.topicNumber || ''
+      title: fullTopic.title || '',
+      description: fullTopic.description || '',
+      content: fullTopic.content || '',
+      topicNumber: fullTopic.topicNumber || ''
     });
     setEditorKey(prev => prev + 1); // Force re-render of editors
     setShowForm(true);
@@ -289,11 +299,6 @@ export default function AdminTopics() {
                   {topic.description && (
                     <p className="text-gray-600 text-sm mb-2">{topic.description}</p>
                   )}
-                  {topic.content && (
-                    <p className="text-gray-500 text-xs mb-3 line-clamp-2">
-                      {topic.content.substring(0, 150)}...
-                    </p>
-                  )}
                 </div>
                 <div className="flex gap-2 ml-4">
                   <button
@@ -1,20 +1,38 @@
 package com.devlcm.lcm.config;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
 
-import java.util.concurrent.TimeUnit;
+import com.devlcm.lcm.entity.Topic;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Cache configuration for the application using Caffeine cache.
  * Provides high-performance in-memory caching for frequently accessed data.
+ * <p>
+ * Each cache is built from its own policy ({@link CachePolicyProperties}), so rarely changing
+ * catalog caches can live long while churny per-user caches stay small and short-lived.
  */
+@Slf4j
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CachePolicyProperties.class)
 public class CacheConfig {
 
     // Cache names as constants for type safety
@@ -26,44 +44,140 @@ public class CacheConfig {
     public static final String TOPIC_BY_ID_CACHE = "topicById";
     public static final String QUIZZES_CACHE = "quizzes";
     public static final String QUIZ_BY_ID_CACHE = "quizById";
+    public static final String COURSE_TREE_CACHE = "courseTree";
     public static final String USER_PROGRESS_CACHE = "userProgress";
     public static final String DASHBOARD_STATS_CACHE = "dashboardStats";
     public static final String USER_STATS_CACHE = "userStats";
     public static final String COURSE_STATS_CACHE = "courseStats";
 
+    public static final List<String> CACHE_NAMES = List.of(
+            COURSES_CACHE,
+            COURSE_BY_ID_CACHE,
+            CHAPTERS_CACHE,
+            CHAPTER_BY_ID_CACHE,
+            TOPICS_CACHE,
+            TOPIC_BY_ID_CACHE,
+            QUIZZES_CACHE,
+            QUIZ_BY_ID_CACHE,
+            COURSE_TREE_CACHE,
+            USER_PROGRESS_CACHE,
+            DASHBOARD_STATS_CACHE,
+            USER_STATS_CACHE,
+            COURSE_STATS_CACHE
+    );
+
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-                COURSES_CACHE,
-                COURSE_BY_ID_CACHE,
-                CHAPTERS_CACHE,
-                CHAPTER_BY_ID_CACHE,
-                TOPICS_CACHE,
-                TOPIC_BY_ID_CACHE,
-                QUIZZES_CACHE,
-                QUIZ_BY_ID_CACHE,
-                USER_PROGRESS_CACHE,
-                DASHBOARD_STATS_CACHE,
-                USER_STATS_CACHE,
-                COURSE_STATS_CACHE
-        );
-        
-        cacheManager.setCaffeine(caffeineCacheBuilder());
+    public CacheManager cacheManager(CachePolicyProperties cachePolicies,
+                                     ObjectProvider<CacheRefresher> cacheRefreshers) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Fixed set of caches: unknown names resolve to null rather than a new default cache
+        cacheManager.setCacheNames(List.of());
+
+        for (String cacheName : CACHE_NAMES) {
+            CachePolicyProperties.Policy policy = cachePolicies.resolve(cacheName);
+            Caffeine<Object, Object> builder = caffeineCacheBuilder(policy);
+            if (isSet(policy.getRefreshAfterWrite())) {
+                builder.refreshAfterWrite(policy.getRefreshAfterWrite());
+                cacheManager.registerCustomCache(cacheName,
+                        builder.build(new RefreshingLoader(cacheName, cacheRefreshers)));
+            } else {
+                cacheManager.registerCustomCache(cacheName, builder.build());
+            }
+        }
         return cacheManager;
     }
 
     /**
-     * Configure Caffeine cache with optimal settings:
-     * - Maximum 10,000 entries per cache
-     * - Expire after write: 10 minutes
-     * - Expire after access: 5 minutes
-     * - Record cache statistics for monitoring
+     * Build a Caffeine cache from a resolved policy. Statistics are always recorded for monitoring.
      */
-    private Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-                .maximumSize(10_000)
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                .expireAfterAccess(5, TimeUnit.MINUTES)
-                .recordStats(); // Enable statistics for cache monitoring
+    private Caffeine<Object, Object> caffeineCacheBuilder(CachePolicyProperties.Policy policy) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (policy.getMaximumWeight() != null) {
+            builder.maximumWeight(policy.getMaximumWeight()).weigher(ENTRY_WEIGHER);
+        } else if (policy.getMaximumSize() != null) {
+            builder.maximumSize(policy.getMaximumSize());
+        }
+        if (isSet(policy.getExpireAfterWrite())) {
+            builder.expireAfterWrite(policy.getExpireAfterWrite());
+        }
+        if (isSet(policy.getExpireAfterAccess())) {
+            builder.expireAfterAccess(policy.getExpireAfterAccess());
+        }
+        if (Boolean.TRUE.equals(policy.getWeakValues())) {
+            builder.weakValues();
+        } else if (Boolean.TRUE.equals(policy.getSoftValues())) {
+            builder.softValues();
+        }
+        return builder;
+    }
+
+    private static boolean isSet(Duration duration) {
+        return duration != null && !duration.isZero() && !duration.isNegative();
+    }
+
+    /**
+     * Weigh list-valued entries by their element count, everything else as one. A topic
+     * additionally weighs one per KiB of content plus its retained compressed form, so a few
+     * large bodies cannot crowd out many small ones under a {@code maximum-weight}.
+     */
+    private static final Weigher<Object, Object> ENTRY_WEIGHER = (key, value) -> {
+        Object unwrapped = value instanceof Optional<?> optional ? optional.orElse(null) : value;
+        if (unwrapped instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        if (unwrapped instanceof Slice<?> slice) {
+            return Math.max(1, slice.getNumberOfElements());
+        }
+        if (unwrapped instanceof Map<?, ?> map) {
+            return Math.max(1, map.size());
+        }
+        if (unwrapped instanceof Topic topic) {
+            long bytes = (topic.getContent() != null ? topic.getContent().length() : 0)
+                    + (topic.getCompressedContent() != null ? topic.getCompressedContent().length : 0);
+            return (int) Math.min(Integer.MAX_VALUE, 1 + bytes / 1024);
+        }
+        return 1;
+    };
+
+    /**
+     * Loader behind caches with {@code refresh-after-write}. Delegates to the cache's
+     * {@link CacheRefresher}, looked up lazily so refreshers may depend on cached services.
+     * Without a refresher, a miss falls through to the {@code @Cacheable} method and a due
+     * refresh simply drops the entry.
+     */
+    private static final class RefreshingLoader implements CacheLoader<Object, Object> {
+        private final String cacheName;
+        private final ObjectProvider<CacheRefresher> cacheRefreshers;
+        private volatile Optional<CacheRefresher> refresher;
+
+        RefreshingLoader(String cacheName, ObjectProvider<CacheRefresher> cacheRefreshers) {
+            this.cacheName = cacheName;
+            this.cacheRefreshers = cacheRefreshers;
+        }
+
+        @Override
+        public Object load(Object key) {
+            Optional<CacheRefresher> delegate = refresher();
+            if (delegate.isEmpty()) {
+                return null;
+            }
+            Object value = delegate.get().load(key);
+            return value != null ? value : NullValue.INSTANCE;
+        }
+
+        private Optional<CacheRefresher> refresher() {
+            Optional<CacheRefresher> resolved = refresher;
+            if (resolved == null) {
+                resolved = cacheRefreshers.orderedStream()
+                        .filter(candidate -> cacheName.equals(candidate.cacheName()))
+                        .findFirst();
+                if (resolved.isEmpty()) {
+                    log.warn("Cache '{}' has refresh-after-write but no CacheRefresher; entries will expire instead",
+                            cacheName);
+                }
+                refresher = resolved;
+            }
+            return resolved;
+        }
     }
 }
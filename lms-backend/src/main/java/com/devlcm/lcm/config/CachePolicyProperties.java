@@ -0,0 +1,94 @@
+package com.devlcm.lcm.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Per-cache Caffeine policies, bound from {@code app.cache.*}.
+ * <p>
+ * {@code app.cache.defaults.*} applies to every cache; {@code app.cache.policies.<cacheName>.*}
+ * overrides individual settings for one cache. A zero duration switches that expiry off.
+ * <pre>
+ * app.cache.policies.courseById.expire-after-write=1h
+ * app.cache.policies.userProgress.maximum-size=2000
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class CachePolicyProperties {
+
+    private Policy defaults = Policy.builtInDefaults();
+
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    /**
+     * Effective policy for a cache: its overrides layered over the defaults.
+     * Cache names match case-insensitively and ignoring dashes, so both
+     * {@code courseById} and {@code course-by-id} work as property keys.
+     */
+    public Policy resolve(String cacheName) {
+        String wanted = normalize(cacheName);
+        for (Map.Entry<String, Policy> entry : policies.entrySet()) {
+            if (normalize(entry.getKey()).equals(wanted)) {
+                return entry.getValue().withFallback(defaults);
+            }
+        }
+        return defaults;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("-", "").toLowerCase(Locale.ROOT);
+    }
+
+    @Data
+    public static class Policy {
+        /** Maximum number of entries; ignored when {@code maximumWeight} is set. */
+        private Long maximumSize;
+        /** Maximum total weight of entries, as measured by the cache's weigher. */
+        private Long maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        /** Reload entries in the background once this old; needs a {@link CacheRefresher} for the cache. */
+        private Duration refreshAfterWrite;
+        private Boolean softValues;
+        private Boolean weakValues;
+
+        static Policy builtInDefaults() {
+            Policy policy = new Policy();
+            policy.setMaximumSize(10_000L);
+            policy.setExpireAfterWrite(Duration.ofMinutes(10));
+            policy.setExpireAfterAccess(Duration.ofMinutes(5));
+            policy.setSoftValues(false);
+            policy.setWeakValues(false);
+            return policy;
+        }
+
+        Policy withFallback(Policy fallback) {
+            Policy merged = new Policy();
+            merged.setMaximumSize(maximumSize != null ? maximumSize : fallback.getMaximumSize());
+            merged.setMaximumWeight(maximumWeight != null ? maximumWeight : fallback.getMaximumWeight());
+            merged.setExpireAfterWrite(expireAfterWrite != null ? expireAfterWrite : fallback.getExpireAfterWrite());
+            merged.setExpireAfterAccess(expireAfterAccess != null ? expireAfterAccess : fallback.getExpireAfterAccess());
+            merged.setRefreshAfterWrite(refreshAfterWrite != null ? refreshAfterWrite : fallback.getRefreshAfterWrite());
+            merged.setSoftValues(softValues != null ? softValues : fallback.getSoftValues());
+            merged.setWeakValues(weakValues != null ? weakValues : fallback.getWeakValues());
+            return merged;
+        }
+
+        /**
+         * Value reference strength as reported in cache statistics.
+         */
+        public String valueStrength() {
+            if (Boolean.TRUE.equals(weakValues)) {
+                return "weak";
+            }
+            return Boolean.TRUE.equals(softValues) ? "soft" : "strong";
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.devlcm.lcm.config;
+
+import java.util.function.Function;
+
+/**
+ * Loads fresh values for one cache, so entries can be refreshed in the background
+ * ({@code app.cache.policies.<cacheName>.refresh-after-write}) instead of expiring.
+ * Implementations must return what the corresponding {@code @Cacheable} method would, with an
+ * {@code Optional} unwrapped to its value or null, which is how Spring caches it.
+ */
+public interface CacheRefresher {
+
+    /**
+     * @return name of the cache this refresher loads values for
+     */
+    String cacheName();
+
+    /**
+     * Load the current value for a cache key.
+     * @param key the cache key, as generated for the {@code @Cacheable} method
+     * @return the value to cache; null is cached as a null value
+     */
+    Object load(Object key);
+
+    /**
+     * Refresher for {@code cacheName} backed by a plain function.
+     */
+    static CacheRefresher of(String cacheName, Function<Object, Object> loader) {
+        return new CacheRefresher() {
+            @Override
+            public String cacheName() {
+                return cacheName;
+            }
+
+            @Override
+            public Object load(Object key) {
+                return loader.apply(key);
+            }
+        };
+    }
+}
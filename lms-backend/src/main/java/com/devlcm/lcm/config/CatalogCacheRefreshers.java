@@ -0,0 +1,70 @@
+package com.devlcm.lcm.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.devlcm.lcm.dto.TopicPreviewDTO;
+import com.devlcm.lcm.entity.Chapter;
+import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.exception.ChapterNotFoundException;
+import com.devlcm.lcm.exception.CourseNotFoundException;
+import com.devlcm.lcm.repository.ChapterRepository;
+import com.devlcm.lcm.repository.CourseRepository;
+import com.devlcm.lcm.repository.QuizRepository;
+import com.devlcm.lcm.repository.TopicRepository;
+import com.devlcm.lcm.util.IdListPages;
+
+/**
+ * Background loaders for the catalog caches, so entries past {@code refresh-after-write} keep
+ * being served while one reload runs instead of expiring into a burst of identical queries.
+ * Each loader mirrors the corresponding {@code @Cacheable} service method; {@code Optional} results
+ * are unwrapped, as Spring stores them. A failed reload keeps the old value until it expires.
+ */
+@Configuration
+public class CatalogCacheRefreshers {
+
+    @Bean
+    public CacheRefresher coursesRefresher(CourseRepository courseRepository) {
+        return CacheRefresher.of(CacheConfig.COURSES_CACHE, key -> courseRepository.findAll());
+    }
+
+    @Bean
+    public CacheRefresher courseByIdRefresher(CourseRepository courseRepository) {
+        return CacheRefresher.of(CacheConfig.COURSE_BY_ID_CACHE, key -> courseRepository.findById((String) key).orElse(null));
+    }
+
+    @Bean
+    public CacheRefresher chaptersRefresher(CourseRepository courseRepository, ChapterRepository chapterRepository) {
+        return CacheRefresher.of(CacheConfig.CHAPTERS_CACHE, key -> {
+            Course course = courseRepository.findById((String) key)
+                    .orElseThrow(() -> new CourseNotFoundException("Course not found with ID: " + key));
+            return IdListPages.inOrder(course.getChapterIds(),
+                    chapterRepository.findAllById(course.getChapterIds()), Chapter::getId);
+        });
+    }
+
+    @Bean
+    public CacheRefresher chapterByIdRefresher(ChapterRepository chapterRepository) {
+        return CacheRefresher.of(CacheConfig.CHAPTER_BY_ID_CACHE, key -> chapterRepository.findById((String) key).orElse(null));
+    }
+
+    @Bean
+    public CacheRefresher topicsRefresher(ChapterRepository chapterRepository, TopicRepository topicRepository) {
+        return CacheRefresher.of(CacheConfig.TOPICS_CACHE, key -> {
+            Chapter chapter = chapterRepository.findById((String) key)
+                    .orElseThrow(() -> new ChapterNotFoundException("Chapter not found with ID: " + key));
+            return IdListPages.inOrder(chapter.getTopicIds(),
+                    topicRepository.findPreviewsByIdIn(chapter.getTopicIds()), TopicPreviewDTO::getId);
+        });
+    }
+
+    @Bean
+    public CacheRefresher topicByIdRefresher(TopicRepository topicRepository) {
+        return CacheRefresher.of(CacheConfig.TOPIC_BY_ID_CACHE, key -> topicRepository.findById((String) key).orElse(null));
+    }
+
+    @Bean
+    public CacheRefresher quizzesRefresher(QuizRepository quizRepository) {
+        return CacheRefresher.of(CacheConfig.QUIZZES_CACHE, key -> quizRepository.findByChapterId((String) key).orElse(null));
+    }
+}
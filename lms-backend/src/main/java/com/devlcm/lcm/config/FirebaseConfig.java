@@ -1,6 +1,7 @@
 package com.devlcm.lcm.config;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import org.springframework.context.annotation.Configuration;
@@ -23,9 +24,14 @@ public class FirebaseConfig {
             throw new IllegalStateException("Service account file not found in resources!");
         }
 
-        FirebaseOptions options = FirebaseOptions.builder()
-                .setCredentials(GoogleCredentials.fromStream(serviceAccount))
-                .build();
+        GoogleCredentials credentials = GoogleCredentials.fromStream(serviceAccount);
+        FirebaseOptions.Builder builder = FirebaseOptions.builder()
+                .setCredentials(credentials);
+        // Set explicitly so that token verification can read it back from the app's options
+        if (credentials instanceof ServiceAccountCredentials serviceAccountCredentials) {
+            builder.setProjectId(serviceAccountCredentials.getProjectId());
+        }
+        FirebaseOptions options = builder.build();
 
         // Avoid re-initialization
         if (FirebaseApp.getApps().isEmpty()) {
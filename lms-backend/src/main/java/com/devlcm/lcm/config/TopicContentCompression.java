@@ -0,0 +1,171 @@
+package com.devlcm.lcm.config;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.devlcm.lcm.entity.Topic;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Transparent compression of large topic bodies.
+ * <p>
+ * On save, {@code content} of at least {@code app.topics.compression.min-size} bytes (UTF-8) is
+ * stored deflated in {@value #STORED_FIELD} instead; on read it is inflated back into
+ * {@code content}. The compressed bytes are kept on the entity ({@link Topic#getCompressedContent()})
+ * so they can be sent as is to clients accepting {@code Content-Encoding: deflate}.
+ * Existing uncompressed documents stay readable and are compressed on their next save.
+ * <p>
+ * {@code topic.content.size} records body sizes before ({@code form=raw}) and after
+ * ({@code form=stored}) compression, giving the storage savings on the live corpus.
+ */
+@Component
+public class TopicContentCompression implements BeforeSaveCallback<Topic>, AfterConvertCallback<Topic> {
+
+    static final String STORED_FIELD = "contentDeflated";
+
+    private final int minSize;
+    private final int level;
+    private final DistributionSummary rawSize;
+    private final DistributionSummary storedSize;
+
+    public TopicContentCompression(MeterRegistry meterRegistry,
+                                   @Value("${app.topics.compression.min-size:4KB}") DataSize minSize,
+                                   @Value("${app.topics.compression.level:6}") int level) {
+        this.minSize = (int) minSize.toBytes();
+        this.level = level;
+        this.rawSize = contentSize(meterRegistry, "raw");
+        this.storedSize = contentSize(meterRegistry, "stored");
+    }
+
+    private static DistributionSummary contentSize(MeterRegistry meterRegistry, String form) {
+        return DistributionSummary.builder("topic.content.size")
+                .baseUnit("bytes")
+                .tag("form", form)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Topic onBeforeSave(Topic topic, Document document, String collection) {
+        topic.setCompressedContent(null);
+        if (topic.getContent() == null) {
+            return topic;
+        }
+        byte[] raw = topic.getContent().getBytes(StandardCharsets.UTF_8);
+        rawSize.record(raw.length);
+        if (raw.length >= minSize) {
+            byte[] compressed = deflate(raw, level);
+            // Incompressible bodies (e.g. inlined base64 images) are kept as text
+            if (compressed.length < raw.length) {
+                document.remove("content");
+                document.put(STORED_FIELD, new Binary(compressed));
+                topic.setCompressedContent(compressed);
+                storedSize.record(compressed.length);
+                return topic;
+            }
+        }
+        storedSize.record(raw.length);
+        return topic;
+    }
+
+    @Override
+    public Topic onAfterConvert(Topic topic, Document document, String collection) {
+        if (document.get(STORED_FIELD) instanceof Binary stored) {
+            topic.setCompressedContent(stored.getData());
+            topic.setContent(new String(inflate(stored.getData()), StandardCharsets.UTF_8));
+        }
+        return topic;
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header admits {@code deflate} (RFC 9110, section 12.5.3).
+     * An explicit {@code deflate} entry decides; otherwise {@code *} stands for every coding not
+     * listed. A qvalue of 0 marks the coding as not acceptable.
+     */
+    public static boolean acceptsDeflate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double wildcard = 0;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("deflate")) {
+                return quality(parts) > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = quality(parts);
+            }
+        }
+        return wildcard > 0;
+    }
+
+    /**
+     * The {@code q} parameter of one {@code Accept-Encoding} entry, 1 when absent and 0 when malformed.
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String[] parameter = parts[i].split("=", 2);
+            if (parameter.length == 2 && parameter[0].trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parameter[1].trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * zlib-wrapped deflate, which is what HTTP calls {@code deflate}.
+     */
+    static byte[] deflate(byte[] raw, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed topic content");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed topic content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -5,11 +5,14 @@ import org.springframework.cache.CacheManager;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.config.CachePolicyProperties;
 import com.devlcm.lcm.dto.ApiResponse;
-import com.devlcm.lcm.entity.User;
-import com.devlcm.lcm.entity.UserRole;
-import com.devlcm.lcm.service.UserService;
+import com.devlcm.lcm.security.AuthenticatedUser;
+import com.devlcm.lcm.security.UserIdentityResolver;
+import com.devlcm.lcm.security.VerifiedTokenCache;
 import com.devlcm.lcm.util.AuthUtil;
+import com.github.benmanes.caffeine.cache.Policy;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
 import lombok.RequiredArgsConstructor;
@@ -17,6 +20,7 @@ import lombok.RequiredArgsConstructor;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller for cache management and monitoring
@@ -27,8 +31,13 @@ import java.util.Collection;
 @RequiredArgsConstructor
 public class CacheController {
 
+    private static final String VERIFIED_TOKENS = "verifiedTokens";
+    private static final String USER_IDENTITIES = "userIdentities";
+
     private final CacheManager cacheManager;
-    private final UserService userService;
+    private final UserIdentityResolver userIdentityResolver;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final CachePolicyProperties cachePolicies;
     
     /**
      * Verify that the current user is an admin.
@@ -43,11 +52,11 @@ public class CacheController {
         }
         
         // Fallback to database check
-        User currentUser = userService.getUserByFirebaseUid(currentUid)
+        AuthenticatedUser currentUser = userIdentityResolver.resolve(currentUid)
             .orElseThrow(() -> new com.devlcm.lcm.exception.UserNotFoundException(
                 "Current user not found"));
         
-        if (currentUser.getRole() != UserRole.ADMIN) {
+        if (!currentUser.isAdmin()) {
             throw new com.devlcm.lcm.exception.UnauthorizedAccessException(
                 "Admin access required");
         }
@@ -66,25 +75,16 @@ public class CacheController {
             Cache cache = cacheManager.getCache(cacheName);
             if (cache != null) {
                 Object nativeCache = cache.getNativeCache();
-                if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache) {
-                    @SuppressWarnings("unchecked")
-                    com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeineCache = 
-                        (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache;
-                    
-                    CacheStats cacheStats = caffeineCache.stats();
-                    stats.put(cacheName, new CacheStatsDTO(
-                        caffeineCache.estimatedSize(),
-                        cacheStats.hitCount(),
-                        cacheStats.missCount(),
-                        cacheStats.hitRate(),
-                        cacheStats.evictionCount(),
-                        cacheStats.loadSuccessCount(),
-                        cacheStats.loadFailureCount()
-                    ));
+                if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+                    stats.put(cacheName, toStatsDTO(cacheName, caffeineCache));
                 }
             }
         }
         
+        // Verified ID tokens live outside the Spring cache manager but are reported alongside it
+        stats.put(VERIFIED_TOKENS, toStatsDTO(VERIFIED_TOKENS, verifiedTokenCache.getNativeCache()));
+        stats.put(USER_IDENTITIES, toStatsDTO(USER_IDENTITIES, userIdentityResolver.getNativeCache()));
+        
         return ResponseEntity.ok(ApiResponse.success(stats, "Cache statistics retrieved successfully"));
     }
 
@@ -94,6 +94,14 @@ public class CacheController {
     @GetMapping("/stats/{cacheName}")
     public ResponseEntity<ApiResponse<CacheStatsDTO>> getCacheStatsByName(@PathVariable String cacheName) {
         verifyAdminAccess();
+        if (VERIFIED_TOKENS.equals(cacheName)) {
+            return ResponseEntity.ok(ApiResponse.success(
+                toStatsDTO(VERIFIED_TOKENS, verifiedTokenCache.getNativeCache()), "Cache statistics retrieved successfully"));
+        }
+        if (USER_IDENTITIES.equals(cacheName)) {
+            return ResponseEntity.ok(ApiResponse.success(
+                toStatsDTO(USER_IDENTITIES, userIdentityResolver.getNativeCache()), "Cache statistics retrieved successfully"));
+        }
         Cache cache = cacheManager.getCache(cacheName);
         
         if (cache == null) {
@@ -102,22 +110,8 @@ public class CacheController {
         }
         
         Object nativeCache = cache.getNativeCache();
-        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache) {
-            @SuppressWarnings("unchecked")
-            com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeineCache = 
-                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache;
-            
-            CacheStats stats = caffeineCache.stats();
-            CacheStatsDTO dto = new CacheStatsDTO(
-                caffeineCache.estimatedSize(),
-                stats.hitCount(),
-                stats.missCount(),
-                stats.hitRate(),
-                stats.evictionCount(),
-                stats.loadSuccessCount(),
-                stats.loadFailureCount()
-            );
-            
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+            CacheStatsDTO dto = toStatsDTO(cacheName, caffeineCache);
             return ResponseEntity.ok(ApiResponse.success(dto, "Cache statistics retrieved successfully"));
         }
         
@@ -168,6 +162,39 @@ public class CacheController {
         return ResponseEntity.ok(ApiResponse.success(cacheNames, "Cache names retrieved successfully"));
     }
 
+    private CacheStatsDTO toStatsDTO(String cacheName, com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+        CacheStats stats = caffeineCache.stats();
+        return new CacheStatsDTO(
+            caffeineCache.estimatedSize(),
+            stats.hitCount(),
+            stats.missCount(),
+            stats.hitRate(),
+            stats.evictionCount(),
+            stats.loadSuccessCount(),
+            stats.loadFailureCount(),
+            toPolicyDTO(cacheName, caffeineCache.policy())
+        );
+    }
+
+    /**
+     * Describe the policy a cache is actually running with, as reported by Caffeine itself.
+     */
+    private CachePolicyDTO toPolicyDTO(String cacheName, Policy<?, ?> policy) {
+        Policy.Eviction<?, ?> eviction = policy.eviction().orElse(null);
+        String valueStrength = CacheConfig.CACHE_NAMES.contains(cacheName)
+            ? cachePolicies.resolve(cacheName).valueStrength()
+            : "strong";
+        return new CachePolicyDTO(
+            eviction != null && !eviction.isWeighted() ? eviction.getMaximum() : null,
+            eviction != null && eviction.isWeighted() ? eviction.getMaximum() : null,
+            policy.expireAfterWrite().map(e -> e.getExpiresAfter(TimeUnit.SECONDS)).orElse(null),
+            policy.expireAfterAccess().map(e -> e.getExpiresAfter(TimeUnit.SECONDS)).orElse(null),
+            policy.refreshAfterWrite().map(r -> r.getRefreshesAfter(TimeUnit.SECONDS)).orElse(null),
+            policy.expireVariably().isPresent(),
+            valueStrength
+        );
+    }
+
     /**
      * DTO for cache statistics
      */
@@ -178,6 +205,20 @@ public class CacheController {
         double hitRate,
         long evictionCount,
         long loadSuccessCount,
-        long loadFailureCount
+        long loadFailureCount,
+        CachePolicyDTO policy
+    ) {}
+
+    /**
+     * DTO for a cache's effective policy; null fields are not configured
+     */
+    public record CachePolicyDTO(
+        Long maximumSize,
+        Long maximumWeight,
+        Long expireAfterWriteSeconds,
+        Long expireAfterAccessSeconds,
+        Long refreshAfterWriteSeconds,
+        boolean perEntryExpiry,
+        String valueStrength
     ) {}
 }
@@ -12,8 +12,7 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.validation.annotation.Validated;
 
 import com.devlcm.lcm.dto.ApiResponse;
-import com.devlcm.lcm.entity.User;
-import com.devlcm.lcm.repository.UserRepository;
+import com.devlcm.lcm.security.UserIdentityResolver;
 import com.devlcm.lcm.service.CertificateService;
 import com.devlcm.lcm.util.AuthUtil;
 
@@ -33,7 +32,7 @@ import lombok.extern.slf4j.Slf4j;
 public class CertificateController {
 
     private final CertificateService certificateService;
-    private final UserRepository userRepository;
+    private final UserIdentityResolver userIdentityResolver;
 
     /**
      * Download certificate for current user's completed course.
@@ -46,9 +45,7 @@ public class CertificateController {
         String firebaseUid = AuthUtil.getCurrentFirebaseUid();
         
         // Get user MongoDB ID from Firebase UID
-        User user = userRepository.findByFirebaseUid(firebaseUid)
-            .orElseThrow(() -> new com.devlcm.lcm.exception.UserNotFoundException("User not found"));
-        String userId = user.getId();
+        String userId = userIdentityResolver.require(firebaseUid).id();
         
         byte[] certificate;
         try {
@@ -101,9 +98,7 @@ public class CertificateController {
     public ResponseEntity<ApiResponse<Boolean>> checkCourseCompletion(
             @PathVariable @NotBlank String courseId) {
         String firebaseUid = AuthUtil.getCurrentFirebaseUid();
-        User user = userRepository.findByFirebaseUid(firebaseUid)
-            .orElseThrow(() -> new com.devlcm.lcm.exception.UserNotFoundException("User not found"));
-        String userId = user.getId();
+        String userId = userIdentityResolver.require(firebaseUid).id();
         boolean isCompleted = certificateService.isCourseCompleted(userId, courseId);
         return ResponseEntity.ok(ApiResponse.success(isCompleted));
     }
@@ -109,18 +109,14 @@ public class ChapterController {
     }
 
     /**
-     * Get all topics for a chapter.
+     * Get all topics for a chapter, as previews without content.
      * @param chapterId the chapter ID
-     * @return list of topics
+     * @return list of topic previews
      */
     @GetMapping("/{chapterId}/topics")
-    public ResponseEntity<ApiResponse<List<com.devlcm.lcm.dto.TopicDTO>>> getTopicsForChapter(
+    public ResponseEntity<ApiResponse<List<com.devlcm.lcm.dto.TopicPreviewDTO>>> getTopicsForChapter(
             @PathVariable @NotBlank String chapterId) {
-        List<com.devlcm.lcm.entity.Topic> topics = topicService.getTopicsForChapter(chapterId);
-        List<com.devlcm.lcm.dto.TopicDTO> topicDTOs = topics.stream()
-            .map(allMapper::toTopicDTO)
-            .toList();
-        return ResponseEntity.ok(ApiResponse.success(topicDTOs));
+        return ResponseEntity.ok(ApiResponse.success(topicService.getTopicsForChapter(chapterId)));
     }
 
     /**
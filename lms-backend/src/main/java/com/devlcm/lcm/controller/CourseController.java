@@ -24,6 +24,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.devlcm.lcm.annotation.RateLimit;
 import com.devlcm.lcm.dto.ApiResponse;
 import com.devlcm.lcm.dto.CourseDTO;
+import com.devlcm.lcm.dto.CourseTreeDTO;
 import com.devlcm.lcm.entity.Course;
 import com.devlcm.lcm.mapper.AllMapper;
 import com.devlcm.lcm.service.CourseService;
@@ -90,6 +91,17 @@ public class CourseController {
         return ResponseEntity.ok(ApiResponse.success(course));
     }
 
+    /**
+     * Get a course with its ordered chapters, topic previews and quiz metadata in one call.
+     * 
+     * @param id the course ID
+     * @return the course tree or 404 if not found
+     */
+    @GetMapping("/{id}/tree")
+    public ResponseEntity<ApiResponse<CourseTreeDTO>> getCourseTree(@PathVariable @NotBlank String id) {
+        return ResponseEntity.ok(ApiResponse.success(courseService.getCourseTree(id)));
+    }
+
     /**
      * Get courses by subject (no pagination).
      * 
@@ -123,10 +135,10 @@ public class CourseController {
     }
 
     /**
-     * Search courses by keyword (no pagination).
+     * Search courses by keyword in title, description and subject (no pagination).
      * 
-     * @param keyword the search keyword
-     * @return list of matching courses
+     * @param keyword the search keyword; words may be partially typed
+     * @return list of matching courses, most relevant first
      */
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<CourseDTO>>> searchCourses(
@@ -141,14 +153,14 @@ public class CourseController {
     /**
      * Search courses by keyword with pagination.
      * 
-     * @param keyword  the search keyword
-     * @param pageable pagination parameters
-     * @return page of matching courses
+     * @param keyword  the search keyword; words may be partially typed
+     * @param pageable pagination parameters (results are ordered by relevance)
+     * @return page of matching courses, most relevant first
      */
     @GetMapping("/search/paginated")
     public ResponseEntity<ApiResponse<Page<CourseDTO>>> searchCoursesPaginated(
             @RequestParam("q") @jakarta.validation.constraints.NotBlank @jakarta.validation.constraints.Size(min = 2, max = 100) String keyword,
-            @PageableDefault(size = 20, sort = "title") Pageable pageable) {
+            @PageableDefault(size = 20) Pageable pageable) {
         Page<CourseDTO> courses = courseService.searchCourses(keyword, pageable)
                 .map(allMapper::toCourseDTO);
         return ResponseEntity.ok(ApiResponse.success(courses));
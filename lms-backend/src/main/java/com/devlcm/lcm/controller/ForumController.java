@@ -4,6 +4,7 @@ import com.devlcm.lcm.dto.*;
 import com.devlcm.lcm.entity.ForumAttachment;
 import com.devlcm.lcm.entity.ForumCategory;
 import com.devlcm.lcm.entity.UserRole;
+import com.devlcm.lcm.search.ForumSearchFilter;
 import com.devlcm.lcm.service.FileStorageService;
 import com.devlcm.lcm.service.ForumService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -182,6 +183,23 @@ public class ForumController {
         return ResponseEntity.ok(ApiResponse.success(posts, "Category posts retrieved successfully"));
     }
     
+    /**
+     * Get trending posts, overall or for one course
+     */
+    @GetMapping("/posts/trending")
+    @Operation(summary = "Get trending forum posts")
+    public ResponseEntity<ApiResponse<Page<ForumPostDTO>>> getTrendingPosts(
+            @RequestParam(required = false) String courseId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        String userId = (String) authentication.getPrincipal();
+        // Posts come ranked by trending score, so no sort is applied
+        Pageable pageable = PageRequest.of(page, size);
+        Page<ForumPostDTO> posts = forumService.getTrendingPosts(courseId, userId, pageable);
+        return ResponseEntity.ok(ApiResponse.success(posts, "Trending posts retrieved successfully"));
+    }
+    
     /**
      * Search posts by keyword
      */
@@ -189,14 +207,18 @@ public class ForumController {
     @Operation(summary = "Search forum posts")
     public ResponseEntity<ApiResponse<Page<ForumPostDTO>>> searchPosts(
             @RequestParam String keyword,
+            @RequestParam(required = false) String courseId,
+            @RequestParam(required = false) String chapterId,
+            @RequestParam(required = false) ForumCategory category,
+            @RequestParam(required = false) List<String> tags,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "lastActivityAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") Sort.Direction direction,
             Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        Page<ForumPostDTO> posts = forumService.searchPosts(keyword, userId, pageable);
+        // Results are ranked by relevance, so no sort is applied
+        Pageable pageable = PageRequest.of(page, size);
+        ForumSearchFilter filter = new ForumSearchFilter(courseId, chapterId, category, tags);
+        Page<ForumPostDTO> posts = forumService.searchPosts(keyword, filter, userId, pageable);
         return ResponseEntity.ok(ApiResponse.success(posts, "Search completed successfully"));
     }
     
@@ -1,8 +1,11 @@
 package com.devlcm.lcm.controller;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,13 +15,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.devlcm.lcm.config.TopicContentCompression;
 import com.devlcm.lcm.dto.ApiResponse;
 import com.devlcm.lcm.dto.TopicDTO;
 import com.devlcm.lcm.dto.TopicPreviewDTO;
 import com.devlcm.lcm.entity.Topic;
+import com.devlcm.lcm.exception.UnauthorizedAccessException;
 import com.devlcm.lcm.mapper.AllMapper;
 import com.devlcm.lcm.service.TopicService;
 
@@ -50,65 +56,28 @@ public class TopicController {
 
     /**
      * Get all topics for a chapter by chapterId (no pagination).
-     * Returns preview (without content) for unauthenticated users.
+     * Returns previews (without content); the content is served by {@code GET /{id}}.
      * @param chapterId the chapter ID
-     * @return list of topics (full or preview based on authentication)
+     * @return list of topic previews
      */
     @GetMapping("/{chapterId}/topics")
-    public ResponseEntity<ApiResponse<?>> getTopicsForChapter(
+    public ResponseEntity<ApiResponse<List<TopicPreviewDTO>>> getTopicsForChapter(
             @PathVariable @NotBlank String chapterId) {
-        List<Topic> topics = topicService.getTopicsForChapter(chapterId);
-        
-        // Check if user is authenticated
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAuthenticated = auth != null && auth.isAuthenticated() 
-            && !"anonymousUser".equals(auth.getPrincipal());
-        
-        if (isAuthenticated) {
-            // Return full content for authenticated users
-            List<TopicDTO> topicDTOs = topics.stream()
-                .map(allMapper::toTopicDTO)
-                .toList();
-            return ResponseEntity.ok(ApiResponse.success(topicDTOs));
-        } else {
-            // Return preview (no content) for unauthenticated users
-            List<TopicPreviewDTO> previewDTOs = topics.stream()
-                .map(allMapper::toTopicDTO)
-                .map(TopicPreviewDTO::new)
-                .toList();
-            return ResponseEntity.ok(ApiResponse.success(previewDTOs));
-        }
+        return ResponseEntity.ok(ApiResponse.success(topicService.getTopicsForChapter(chapterId)));
     }
 
     /**
-     * Get all topics for a chapter with pagination.
-     * Returns preview (without content) for unauthenticated users.
+     * Get all topics for a chapter with pagination, in chapter order.
+     * Returns previews (without content); the content is served by {@code GET /{id}}.
      * @param chapterId the chapter ID
      * @param pageable pagination parameters
-     * @return page of topics (full or preview based on authentication)
+     * @return page of topic previews
      */
     @GetMapping("/{chapterId}/topics/paginated")
-    public ResponseEntity<ApiResponse<?>> getTopicsForChapterPaginated(
+    public ResponseEntity<ApiResponse<org.springframework.data.domain.Page<TopicPreviewDTO>>> getTopicsForChapterPaginated(
             @PathVariable @NotBlank String chapterId,
-            @org.springframework.data.web.PageableDefault(size = 10, sort = "id") org.springframework.data.domain.Pageable pageable) {
-        
-        // Check if user is authenticated
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAuthenticated = auth != null && auth.isAuthenticated() 
-            && !"anonymousUser".equals(auth.getPrincipal());
-        
-        if (isAuthenticated) {
-            // Return full content for authenticated users
-            org.springframework.data.domain.Page<TopicDTO> topics = topicService.getTopicsForChapter(chapterId, pageable)
-                .map(allMapper::toTopicDTO);
-            return ResponseEntity.ok(ApiResponse.success(topics));
-        } else {
-            // Return preview (no content) for unauthenticated users
-            org.springframework.data.domain.Page<TopicPreviewDTO> topics = topicService.getTopicsForChapter(chapterId, pageable)
-                .map(allMapper::toTopicDTO)
-                .map(TopicPreviewDTO::new);
-            return ResponseEntity.ok(ApiResponse.success(topics));
-        }
+            @org.springframework.data.web.PageableDefault(size = 10) org.springframework.data.domain.Pageable pageable) {
+        return ResponseEntity.ok(ApiResponse.success(topicService.getTopicsForChapter(chapterId, pageable)));
     }
 
     @GetMapping("/{id}")
@@ -132,6 +101,36 @@ public class TopicController {
         }
     }
 
+    /**
+     * Get the content of a topic as HTML. Bodies stored compressed are sent as stored, with
+     * {@code Content-Encoding: deflate}, to clients that accept it.
+     * @param id the topic ID
+     * @param acceptEncoding the client's {@code Accept-Encoding} header
+     * @return the topic content
+     */
+    @GetMapping(value = "/{id}/content", produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<byte[]> getTopicContent(
+            @PathVariable @NotBlank String id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAuthenticated = auth != null && auth.isAuthenticated()
+            && !"anonymousUser".equals(auth.getPrincipal());
+        if (!isAuthenticated) {
+            throw new UnauthorizedAccessException("Sign in to read topic content");
+        }
+
+        Topic topic = topicService.getTopicById(id)
+            .orElseThrow(() -> new com.devlcm.lcm.exception.TopicNotFoundException("Topic not found with ID: " + id));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (topic.getCompressedContent() != null && TopicContentCompression.acceptsDeflate(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "deflate").body(topic.getCompressedContent());
+        }
+        String content = topic.getContent() != null ? topic.getContent() : "";
+        return response.body(content.getBytes(StandardCharsets.UTF_8));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<TopicDTO>> updateTopic(
             @PathVariable @NotBlank String id, 
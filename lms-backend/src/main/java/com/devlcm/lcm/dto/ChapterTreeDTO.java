@@ -0,0 +1,22 @@
+package com.devlcm.lcm.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A chapter within a {@link CourseTreeDTO}; {@code quiz} is null when the chapter has none.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChapterTreeDTO {
+    private ChapterDTO chapter;
+
+    private List<TopicPreviewDTO> topics = new ArrayList<>();
+
+    private QuizSummaryDTO quiz;
+}
@@ -0,0 +1,21 @@
+package com.devlcm.lcm.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Everything needed to render a course page in one response: the course and its chapters
+ * in course order, each with topic previews (no content) and quiz metadata.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseTreeDTO {
+    private CourseDTO course;
+
+    private List<ChapterTreeDTO> chapters = new ArrayList<>();
+}
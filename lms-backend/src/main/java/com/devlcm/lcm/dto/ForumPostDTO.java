@@ -47,6 +47,10 @@ public class ForumPostDTO {
     private int netVotes;  // Calculated: upvotes - downvotes
     private int replyCount;
     
+    // Search results only: excerpt of the post (or of its best matching reply), HTML-escaped,
+    // with <mark> around matched words
+    private String snippet;
+    
     // User's vote status (for displaying to current user)
     private String userVoteStatus; // "UPVOTED", "DOWNVOTED", "NONE"
     
@@ -0,0 +1,19 @@
+package com.devlcm.lcm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Quiz metadata without its questions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizSummaryDTO {
+    private String id;
+
+    private String title;
+
+    private String chapterId;
+}
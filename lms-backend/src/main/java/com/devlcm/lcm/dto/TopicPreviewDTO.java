@@ -5,7 +5,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * Preview DTO for unauthenticated users - excludes content
+ * Topic without its content, for listings and unauthenticated users.
+ * Also used as a repository projection, so only these fields are read.
  */
 @Data
 @NoArgsConstructor
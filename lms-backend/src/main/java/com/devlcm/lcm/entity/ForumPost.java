@@ -9,9 +9,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -53,12 +51,13 @@ public class ForumPost {
     private int viewCount = 0;
     private int upvotes = 0;
     private int downvotes = 0;
-    private Set<String> upvotedBy = new HashSet<>();
-    private Set<String> downvotedBy = new HashSet<>();
     
     // Reply count (denormalized for performance)
     private int replyCount = 0;
     
+    // Time-decayed activity rank, written periodically by ForumTrending (null once the post goes quiet)
+    private Double trendingScore;
+    
     // Moderation
     private boolean isPinned = false;
     private boolean isLocked = false;
@@ -70,30 +69,6 @@ public class ForumPost {
     private LocalDateTime updatedAt = LocalDateTime.now();
     private LocalDateTime lastActivityAt = LocalDateTime.now();
     
-    /**
-     * Vote on the post (upvote/downvote)
-     */
-    public void vote(String userId, VoteType voteType) {
-        // Remove previous votes
-        if (upvotedBy.remove(userId)) {
-            upvotes--;
-        }
-        if (downvotedBy.remove(userId)) {
-            downvotes--;
-        }
-        
-        // Add new vote
-        if (voteType == VoteType.UPVOTE) {
-            upvotedBy.add(userId);
-            upvotes++;
-        } else if (voteType == VoteType.DOWNVOTE) {
-            downvotedBy.add(userId);
-            downvotes++;
-        }
-        
-        this.updatedAt = LocalDateTime.now();
-    }
-    
     /**
      * Get net votes (upvotes - downvotes)
      */
@@ -101,13 +76,6 @@ public class ForumPost {
         return upvotes - downvotes;
     }
     
-    /**
-     * Increment view count
-     */
-    public void incrementViews() {
-        this.viewCount++;
-    }
-    
     /**
      * Update last activity timestamp
      */
@@ -115,22 +83,4 @@ public class ForumPost {
         this.lastActivityAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
-    
-    /**
-     * Increment reply count
-     */
-    public void incrementReplyCount() {
-        this.replyCount++;
-        updateActivity();
-    }
-    
-    /**
-     * Decrement reply count
-     */
-    public void decrementReplyCount() {
-        if (this.replyCount > 0) {
-            this.replyCount--;
-            updateActivity();
-        }
-    }
 }
@@ -8,8 +8,6 @@ import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -40,8 +38,6 @@ public class ForumReply {
     // Engagement metrics
     private int upvotes = 0;
     private int downvotes = 0;
-    private Set<String> upvotedBy = new HashSet<>();
-    private Set<String> downvotedBy = new HashSet<>();
     
     // Mark as solution (for question posts)
     private boolean isAcceptedAnswer = false;
@@ -51,30 +47,6 @@ public class ForumReply {
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt = LocalDateTime.now();
     
-    /**
-     * Vote on the reply (upvote/downvote)
-     */
-    public void vote(String userId, VoteType voteType) {
-        // Remove previous votes
-        if (upvotedBy.remove(userId)) {
-            upvotes--;
-        }
-        if (downvotedBy.remove(userId)) {
-            downvotes--;
-        }
-        
-        // Add new vote
-        if (voteType == VoteType.UPVOTE) {
-            upvotedBy.add(userId);
-            upvotes++;
-        } else if (voteType == VoteType.DOWNVOTE) {
-            downvotedBy.add(userId);
-            downvotes++;
-        }
-        
-        this.updatedAt = LocalDateTime.now();
-    }
-    
     /**
      * Get net votes (upvotes - downvotes)
      */
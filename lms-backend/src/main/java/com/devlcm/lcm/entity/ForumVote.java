@@ -0,0 +1,35 @@
+package com.devlcm.lcm.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user's vote on a forum post or reply. Kept out of the voted document so that
+ * popular posts do not carry (and rewrite) every voter's id; the post or reply only
+ * holds the up/down counters. The unique (targetId, userId) index is created by
+ * {@link com.devlcm.lcm.service.ForumVoteService}.
+ */
+@Document(collection = "forum_votes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForumVote {
+    
+    @Id
+    private String id;
+    
+    // Post or reply id
+    private String targetId;
+    private String userId;
+    
+    // UPVOTE or DOWNVOTE; removed votes are deleted
+    private VoteType type;
+    
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -2,6 +2,7 @@ package com.devlcm.lcm.entity;
 
 import java.util.UUID;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 
@@ -22,4 +23,11 @@ public class Topic {
     private String content;
 
     private String chapterId;
+
+    /**
+     * {@code content} as stored when it was large enough to be compressed (zlib/deflate), else null.
+     * Set by {@link com.devlcm.lcm.config.TopicContentCompression}; lets the body be served pre-compressed.
+     */
+    @Transient
+    private byte[] compressedContent;
 }
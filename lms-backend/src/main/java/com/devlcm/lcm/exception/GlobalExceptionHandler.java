@@ -221,9 +221,8 @@ public class GlobalExceptionHandler {
         String requestId = MDC.get("requestId");
         log.warn("Rate limit exceeded: {} [RequestId: {}]", ex.getMessage(), requestId);
 
+        // RateLimitInterceptor has already set the X-RateLimit-* and Retry-After headers
         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-            .header("X-RateLimit-Retry-After-Seconds", String.valueOf(ex.getRetryAfterSeconds()))
-            .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
             .body(ApiResponse.error(
                 "RATE_LIMIT_EXCEEDED",
                 ex.getMessage(),
@@ -0,0 +1,14 @@
+package com.devlcm.lcm.exception;
+
+/**
+ * Exception thrown when a bearer token fails verification.
+ */
+public class InvalidTokenException extends RuntimeException {
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+
+    public InvalidTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -7,12 +7,22 @@ public class RateLimitExceededException extends RuntimeException {
     
     private final long retryAfterSeconds;
     
-    public RateLimitExceededException(String message, long retryAfterSeconds) {
+    private final int limit;
+    
+    public RateLimitExceededException(String message, long retryAfterSeconds, int limit) {
         super(message);
         this.retryAfterSeconds = retryAfterSeconds;
+        this.limit = limit;
     }
     
     public long getRetryAfterSeconds() {
         return retryAfterSeconds;
     }
+    
+    /**
+     * @return the configured limit that was exceeded
+     */
+    public int getLimit() {
+        return limit;
+    }
 }
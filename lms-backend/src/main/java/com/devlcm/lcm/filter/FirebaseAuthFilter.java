@@ -1,24 +1,30 @@
 package com.devlcm.lcm.filter;
 
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseToken;
+import com.devlcm.lcm.security.TokenVerifier;
+import com.devlcm.lcm.security.UserIdentityResolver;
+import com.devlcm.lcm.security.VerifiedToken;
+import com.devlcm.lcm.security.VerifiedTokenCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 
 @Component
+@RequiredArgsConstructor
 public class FirebaseAuthFilter extends OncePerRequestFilter {
 
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenVerifier tokenVerifier;
+    private final UserIdentityResolver userIdentityResolver;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -28,26 +34,29 @@ public class FirebaseAuthFilter extends OncePerRequestFilter {
 
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
+            UsernamePasswordAuthenticationToken authentication;
 
             try {
-                FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(token);
-                String uid = decodedToken.getUid();
-
+                // Tokens are reused for up to an hour, so only verify each one once
+                String cacheKey = verifiedTokenCache.keyFor(token);
+                VerifiedToken verified = verifiedTokenCache.get(cacheKey);
+                if (verified == null) {
+                    verified = tokenVerifier.verify(token);
+                    verifiedTokenCache.put(cacheKey, verified);
+                }
 
-        // Extract custom claims for role if present
-        String role = (String) decodedToken.getClaims().getOrDefault("role", "STUDENT");
-        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role.toUpperCase());
-        UsernamePasswordAuthenticationToken authentication =
-            new UsernamePasswordAuthenticationToken(uid, null, Collections.singletonList(authority));
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+                authentication = verified.toAuthentication();
 
             } catch (Exception e) {
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return;
             }
+
+            // Resolve the internal user once here so downstream code need not hit the users collection
+            userIdentityResolver.resolve(authentication.getName()).ifPresent(authentication::setDetails);
+            SecurityContextHolder.getContext().setAuthentication(authentication);
         }
 
         filterChain.doFilter(request, response);
     }
 }
-
@@ -2,6 +2,7 @@ package com.devlcm.lcm.interceptor;
 
 import com.devlcm.lcm.annotation.RateLimit;
 import com.devlcm.lcm.exception.RateLimitExceededException;
+import com.devlcm.lcm.service.RateLimitResult;
 import com.devlcm.lcm.service.RateLimitService;
 import com.devlcm.lcm.util.AuthUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,47 +15,58 @@ import org.springframework.web.servlet.HandlerInterceptor;
 
 /**
  * Interceptor to enforce rate limiting on API endpoints.
- * Checks for @RateLimit annotation on controller methods and classes.
+ * Policies (@RateLimit on controller methods and classes) are resolved once at startup
+ * by {@link RateLimitPolicyRegistry}; see {@link RateLimitPolicy} for how buckets are keyed.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class RateLimitInterceptor implements HandlerInterceptor {
     
+    private static final String HEADER_LIMIT = "X-RateLimit-Limit";
+    private static final String HEADER_REMAINING = "X-RateLimit-Remaining";
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+    private static final String HEADER_RETRY_AFTER_SECONDS = "X-RateLimit-Retry-After-Seconds";
+    
     private final RateLimitService rateLimitService;
     
+    private final RateLimitPolicyRegistry policyRegistry;
+    
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
         if (!(handler instanceof HandlerMethod handlerMethod)) {
             return true;
         }
         
-        // Check for @RateLimit annotation on method first, then on class
-        RateLimit rateLimit = handlerMethod.getMethodAnnotation(RateLimit.class);
-        if (rateLimit == null) {
-            rateLimit = handlerMethod.getBeanType().getAnnotation(RateLimit.class);
-        }
+        RateLimitPolicy policy = policyRegistry.policyFor(handlerMethod);
         
         // If no @RateLimit annotation found, allow the request
-        if (rateLimit == null) {
+        if (policy == RateLimitPolicy.NONE) {
             return true;
         }
         
         // Determine the key for rate limiting based on scope
-        String key = getRateLimitKey(request, rateLimit.scope());
+        String key = getRateLimitKey(request, policy);
         
-        // Try to consume a token from the bucket
-        boolean allowed = rateLimitService.tryConsume(key, rateLimit.limit(), rateLimit.duration());
+        // One probe decides the request and feeds the response headers, which are only set here
+        // (the 429 handler adds none), so they always agree with each other
+        RateLimitResult result = rateLimitService.tryConsume(key, policy.limit(), policy.duration());
+        response.setHeader(HEADER_LIMIT, policy.limitHeader());
+        response.setHeader(HEADER_REMAINING, Long.toString(result.remaining()));
         
-        if (!allowed) {
-            long retryAfter = rateLimitService.getSecondsUntilReset(key, rateLimit.limit(), rateLimit.duration());
+        if (!result.allowed()) {
+            long retryAfter = result.retryAfterSeconds();
+            // Retry-After only makes sense on the 429 itself
+            response.setHeader(HEADER_RETRY_AFTER, Long.toString(retryAfter));
+            response.setHeader(HEADER_RETRY_AFTER_SECONDS, Long.toString(retryAfter));
             log.warn("Rate limit exceeded for key: {} (scope: {}). Retry after {} seconds", 
-                key, rateLimit.scope(), retryAfter);
+                key, policy.scope(), retryAfter);
             
             throw new RateLimitExceededException(
                 String.format("Rate limit exceeded. Maximum %d requests per %d seconds allowed. Try again in %d seconds.",
-                    rateLimit.limit(), rateLimit.duration(), retryAfter),
-                retryAfter
+                    policy.limit(), policy.duration(), retryAfter),
+                retryAfter,
+                policy.limit()
             );
         }
         
@@ -65,21 +77,21 @@ public class RateLimitInterceptor implements HandlerInterceptor {
      * Get the rate limiting key based on the scope.
      *
      * @param request HTTP request
-     * @param scope Rate limit scope (PER_USER or PER_IP)
+     * @param policy resolved policy holding the scope and key prefixes
      * @return Unique key for rate limiting
      */
-    private String getRateLimitKey(HttpServletRequest request, RateLimit.Scope scope) {
-        if (scope == RateLimit.Scope.PER_USER) {
+    private String getRateLimitKey(HttpServletRequest request, RateLimitPolicy policy) {
+        if (policy.scope() == RateLimit.Scope.PER_USER) {
             try {
                 String firebaseUid = AuthUtil.getCurrentFirebaseUid();
-                return "user:" + firebaseUid;
+                return policy.userPrefix() + firebaseUid;
             } catch (Exception e) {
                 // If user is not authenticated, fall back to IP-based rate limiting
                 log.debug("User not authenticated, falling back to IP-based rate limiting");
-                return "ip:" + getClientIpAddress(request);
+                return policy.ipPrefix() + getClientIpAddress(request);
             }
         } else {
-            return "ip:" + getClientIpAddress(request);
+            return policy.ipPrefix() + getClientIpAddress(request);
         }
     }
     
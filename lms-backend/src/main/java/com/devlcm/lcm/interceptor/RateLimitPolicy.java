@@ -0,0 +1,48 @@
+package com.devlcm.lcm.interceptor;
+
+import com.devlcm.lcm.annotation.RateLimit;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.method.HandlerMethod;
+
+/**
+ * Resolved, immutable rate limit settings for one handler method.
+ * Carries the precomputed bucket key prefixes, e.g. {@code CourseController|100/60|user:},
+ * so building a key on the hot path costs a single concatenation.
+ *
+ * @param limit maximum requests per window
+ * @param duration window length in seconds
+ * @param scope whether buckets are per user or per IP
+ * @param userPrefix key prefix for authenticated users
+ * @param ipPrefix key prefix for IP-based buckets
+ * @param limitHeader {@code limit} pre-rendered for the {@code X-RateLimit-Limit} header
+ */
+public record RateLimitPolicy(int limit, int duration, RateLimit.Scope scope, String userPrefix, String ipPrefix,
+                              String limitHeader) {
+
+    /**
+     * Marker for handlers without a {@code @RateLimit}.
+     */
+    public static final RateLimitPolicy NONE = new RateLimitPolicy(0, 0, null, null, null, null);
+
+    /**
+     * Resolve the policy for a handler: a method-level {@code @RateLimit} wins over a class-level one.
+     * Buckets are namespaced by the annotated element, so a class-level limit is shared by that
+     * controller's endpoints only and a method-level limit gets a bucket of its own.
+     */
+    public static RateLimitPolicy resolve(HandlerMethod handlerMethod) {
+        RateLimit rateLimit = handlerMethod.getMethodAnnotation(RateLimit.class);
+        boolean methodLevel = rateLimit != null;
+        if (rateLimit == null) {
+            rateLimit = handlerMethod.getBeanType().getAnnotation(RateLimit.class);
+        }
+        if (rateLimit == null) {
+            return NONE;
+        }
+
+        String owner = ClassUtils.getUserClass(handlerMethod.getBeanType()).getSimpleName();
+        String element = methodLevel ? owner + "#" + handlerMethod.getMethod().getName() : owner;
+        String base = element + "|" + rateLimit.limit() + "/" + rateLimit.duration() + "|";
+        return new RateLimitPolicy(rateLimit.limit(), rateLimit.duration(), rateLimit.scope(),
+            base + "user:", base + "ip:", Integer.toString(rateLimit.limit()));
+    }
+}
@@ -0,0 +1,56 @@
+package com.devlcm.lcm.interceptor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Startup-time table of {@link RateLimitPolicy} per handler method.
+ * <p>
+ * Once the context is refreshed every mapped handler method is resolved once, including an
+ * explicit {@link RateLimitPolicy#NONE} for unannotated ones, so a request costs a single
+ * identity-map lookup instead of two reflective annotation searches. Handlers that were not
+ * mapped at startup are resolved on first use.
+ */
+@Slf4j
+@Component
+public class RateLimitPolicyRegistry implements ApplicationListener<ContextRefreshedEvent> {
+
+    private volatile Map<Method, RateLimitPolicy> policies = Map.of();
+    private final Map<Method, RateLimitPolicy> lateResolved = new ConcurrentHashMap<>();
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        Map<Method, RateLimitPolicy> resolved = new IdentityHashMap<>();
+        for (RequestMappingHandlerMapping mapping : event.getApplicationContext()
+                .getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                resolved.putIfAbsent(handlerMethod.getMethod(), RateLimitPolicy.resolve(handlerMethod));
+            }
+        }
+        policies = Collections.unmodifiableMap(resolved);
+
+        long limited = resolved.values().stream().filter(p -> p != RateLimitPolicy.NONE).count();
+        log.info("Resolved rate limit policies for {} handler methods ({} rate limited)", resolved.size(), limited);
+    }
+
+    /**
+     * Policy for a handler, {@link RateLimitPolicy#NONE} if it is not rate limited.
+     */
+    public RateLimitPolicy policyFor(HandlerMethod handlerMethod) {
+        RateLimitPolicy policy = policies.get(handlerMethod.getMethod());
+        if (policy != null) {
+            return policy;
+        }
+        return lateResolved.computeIfAbsent(handlerMethod.getMethod(), m -> RateLimitPolicy.resolve(handlerMethod));
+    }
+}
@@ -5,6 +5,7 @@ import org.mapstruct.Mapping;
 
 import com.devlcm.lcm.dto.ChapterDTO;
 import com.devlcm.lcm.dto.CourseDTO;
+import com.devlcm.lcm.dto.QuizSummaryDTO;
 import com.devlcm.lcm.dto.QuizzDTO;
 import com.devlcm.lcm.dto.TopicDTO;
 import com.devlcm.lcm.dto.UserDTO;
@@ -42,10 +43,13 @@ public interface AllMapper {
     // Topic mappings
     TopicDTO toTopicDTO(Topic topic);
 
+    @Mapping(target = "compressedContent", ignore = true)
     Topic toTopicEntity(TopicDTO topicDTO);
 
     // Quiz mappings
     QuizzDTO toQuizzDTO(Quizz quizz);
 
     Quizz toQuizzEntity(QuizzDTO quizzDTO);
+
+    QuizSummaryDTO toQuizSummaryDTO(Quizz quizz);
 }
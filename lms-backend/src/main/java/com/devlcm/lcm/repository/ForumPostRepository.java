@@ -6,8 +6,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface ForumPostRepository extends MongoRepository<ForumPost, String> {
     
@@ -23,10 +26,6 @@ public interface ForumPostRepository extends MongoRepository<ForumPost, String>
     // Find by author
     Page<ForumPost> findByAuthorId(String authorId, Pageable pageable);
     
-    // Search by title or content
-    @Query("{ $or: [ { 'title': { $regex: ?0, $options: 'i' } }, { 'content': { $regex: ?0, $options: 'i' } } ] }")
-    Page<ForumPost> searchByTitleOrContent(String keyword, Pageable pageable);
-    
     // Find pinned posts
     Page<ForumPost> findByIsPinnedTrue(Pageable pageable);
     
@@ -37,17 +36,19 @@ public interface ForumPostRepository extends MongoRepository<ForumPost, String>
     @Query("{ 'category': 'QUESTION', 'replyCount': 0 }")
     Page<ForumPost> findUnansweredQuestions(Pageable pageable);
     
+    // Count a new reply, unless the post is locked (returns 0 if the post is missing or locked)
+    @Query("{ '_id': ?0, 'isLocked': false }")
+    @Update("{ $inc: { 'replyCount': 1 }, $set: { 'lastActivityAt': ?1, 'updatedAt': ?1 } }")
+    long incrementReplyCount(String postId, LocalDateTime now);
+    
+    // Uncount a deleted reply, never going below zero
+    @Query("{ '_id': ?0, 'replyCount': { $gt: 0 } }")
+    @Update("{ $inc: { 'replyCount': -1 }, $set: { 'lastActivityAt': ?1, 'updatedAt': ?1 } }")
+    long decrementReplyCount(String postId, LocalDateTime now);
+    
     // Count posts by author
     long countByAuthorId(String authorId);
     
     // Count posts by course
     long countByCourseId(String courseId);
-    
-    // Find recent posts ordered by lastActivityAt
-    @Query("{ }")
-    Page<ForumPost> findAllOrderedByActivity(Pageable pageable);
-    
-    // Find popular posts (high view count)
-    @Query("{ }")
-    Page<ForumPost> findPopularPosts(Pageable pageable);
 }
@@ -32,4 +32,7 @@ public interface ForumReplyRepository extends MongoRepository<ForumReply, String
     
     // Delete all replies for a post
     void deleteByPostId(String postId);
+    
+    // Delete a reply, returning how many were deleted (0 if a concurrent request got there first)
+    long removeById(String id);
 }
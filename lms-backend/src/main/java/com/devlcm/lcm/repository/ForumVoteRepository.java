@@ -0,0 +1,18 @@
+package com.devlcm.lcm.repository;
+
+import com.devlcm.lcm.entity.ForumVote;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ForumVoteRepository extends MongoRepository<ForumVote, String> {
+    
+    // A user's votes on a page of posts or replies (served by the unique targetId/userId index)
+    List<ForumVote> findByUserIdAndTargetIdIn(String userId, Collection<String> targetIds);
+    
+    // Delete all votes on the given posts/replies
+    void deleteByTargetIdIn(Collection<String> targetIds);
+}
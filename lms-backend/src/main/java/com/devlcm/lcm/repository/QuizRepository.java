@@ -1,9 +1,11 @@
 package com.devlcm.lcm.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.devlcm.lcm.entity.QuizzAndQuestions.Quizz;
@@ -13,5 +15,8 @@ public interface QuizRepository extends MongoRepository<Quizz, String> {
     Optional<Quizz> findByChapterId(String chapterId);
     
     List<Quizz> findByTitleContainingIgnoreCase(String keyword);
-}
 
+    // Quizzes of several chapters without their questions
+    @Query(fields = "{ 'question': 0 }")
+    List<Quizz> findSummariesByChapterIdIn(Collection<String> chapterIds);
+}
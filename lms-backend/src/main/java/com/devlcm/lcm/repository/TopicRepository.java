@@ -1,5 +1,9 @@
 package com.devlcm.lcm.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import com.devlcm.lcm.dto.TopicPreviewDTO;
 import com.devlcm.lcm.entity.Topic;
 
 
@@ -8,4 +12,6 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TopicRepository extends MongoRepository<Topic, String> {
+    // Projection: only the preview's fields (id, title, chapterId) are read, never the content
+    List<TopicPreviewDTO> findPreviewsByIdIn(Collection<String> ids);
 }
@@ -0,0 +1,209 @@
+package com.devlcm.lcm.search;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.repository.CourseRepository;
+import com.devlcm.lcm.service.CacheInvalidation;
+import com.devlcm.lcm.service.InvalidationTarget;
+import com.devlcm.lcm.util.IdListPages;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Course search over title, description and subject, served from an {@link InvertedIndex}
+ * instead of an unindexable case-insensitive regex in Mongo.
+ * <p>
+ * Built at startup and updated by {@link com.devlcm.lcm.service.CourseService} on each course
+ * write. Each write is published as a {@link CacheInvalidation} of the course id under
+ * {@value #INVALIDATION_NAME}, and {@link com.devlcm.lcm.service.CacheInvalidationBus} hands such
+ * invalidations from other nodes (or course change events) back here to re-read those courses.
+ * An optional full rebuild every {@code app.search.courses.rebuild-interval} (zero, the default,
+ * disables it) is a safety net for deployments without the bus.
+ */
+@Slf4j
+@Component
+public class CourseSearchIndex implements ApplicationRunner, InvalidationTarget {
+
+    /** Name under which indexed course ids are published to other nodes; a clear rebuilds the index. */
+    public static final String INVALIDATION_NAME = "courseSearch";
+
+    static final String TITLE = "title";
+    static final String DESCRIPTION = "description";
+    static final String SUBJECT = "subject";
+    private static final Map<String, Double> FIELD_WEIGHTS = Map.of(TITLE, 3.0, SUBJECT, 2.0, DESCRIPTION, 1.0);
+
+    private final CourseRepository courseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration rebuildInterval;
+    private volatile InvertedIndex<String> index = new InvertedIndex<>(FIELD_WEIGHTS);
+    private final Object writeLock = new Object();
+    /** Held for a whole rebuild, so that one started meanwhile waits instead of taking over pendingWrites. */
+    private final Object rebuildLock = new Object();
+    /** Writes made while a rebuild reads the collection, replayed onto the new index; null otherwise. */
+    private List<Consumer<InvertedIndex<String>>> pendingWrites;
+    private ScheduledExecutorService rebuilder;
+
+    public CourseSearchIndex(CourseRepository courseRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.search.courses.rebuild-interval:0}") Duration rebuildInterval) {
+        this.courseRepository = courseRepository;
+        this.eventPublisher = eventPublisher;
+        this.rebuildInterval = rebuildInterval;
+        Gauge.builder("search.index.documents", this, searchIndex -> searchIndex.index.size())
+            .tag("index", "courses")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+        if (!rebuildInterval.isZero() && !rebuildInterval.isNegative()) {
+            rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "course-search-rebuild");
+                thread.setDaemon(true);
+                return thread;
+            });
+            rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildInterval.toMillis(), rebuildInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    /**
+     * Index every course from scratch and swap the result in. Rebuilds requested meanwhile run one
+     * after another.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildNow();
+        }
+    }
+
+    private void rebuildNow() {
+        long startNanos = System.nanoTime();
+        synchronized (writeLock) {
+            pendingWrites = new ArrayList<>();
+        }
+        InvertedIndex<String> rebuilt = new InvertedIndex<>(FIELD_WEIGHTS);
+        try {
+            for (Course course : courseRepository.findAll()) {
+                rebuilt.put(course.getId(), fields(course));
+            }
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                pendingWrites = null;
+            }
+            if (!(e instanceof DataAccessException)) {
+                throw e;
+            }
+            log.warn("Could not rebuild course search index, keeping the current one: {}", e.getMessage());
+            return;
+        }
+        synchronized (writeLock) {
+            pendingWrites.forEach(write -> write.accept(rebuilt));
+            pendingWrites = null;
+            index = rebuilt;
+        }
+        log.debug("Rebuilt course search index with {} courses in {} ms", rebuilt.size(),
+            Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+    }
+
+    public void index(Course course) {
+        Map<String, String> fields = fields(course);
+        write(target -> target.put(course.getId(), fields));
+        publish(course.getId());
+    }
+
+    public void remove(String courseId) {
+        write(target -> target.remove(courseId));
+        publish(courseId);
+    }
+
+    private void publish(String courseId) {
+        eventPublisher.publishEvent(new CacheInvalidation().evict(INVALIDATION_NAME, courseId));
+    }
+
+    /**
+     * Re-read the courses another node changed: existing ones are re-indexed, missing ones removed.
+     */
+    @Override
+    public void apply(CacheInvalidation invalidation) {
+        if (invalidation.getClears().contains(INVALIDATION_NAME)) {
+            rebuild();
+            return;
+        }
+        Set<String> courseIds = invalidation.getEvictions().get(INVALIDATION_NAME);
+        if (courseIds == null) {
+            return;
+        }
+        Map<String, Course> courses;
+        try {
+            courses = IdListPages.byId(courseRepository.findAllById(courseIds), Course::getId);
+        } catch (DataAccessException e) {
+            log.warn("Could not re-read {} changed courses for the search index: {}", courseIds.size(), e.getMessage());
+            return;
+        }
+        for (String courseId : courseIds) {
+            Course course = courses.get(courseId);
+            if (course != null) {
+                Map<String, String> fields = fields(course);
+                write(target -> target.put(courseId, fields));
+            } else {
+                write(target -> target.remove(courseId));
+            }
+        }
+    }
+
+    private void write(Consumer<InvertedIndex<String>> write) {
+        synchronized (writeLock) {
+            write.accept(index);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        }
+    }
+
+    /**
+     * Ids of matching courses, most relevant first.
+     */
+    public List<String> search(String query) {
+        return index.search(query, id -> true).stream()
+            .map(InvertedIndex.Hit::id)
+            .toList();
+    }
+
+    private static Map<String, String> fields(Course course) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put(TITLE, course.getTitle());
+        fields.put(DESCRIPTION, course.getDescription());
+        fields.put(SUBJECT, course.getSubject());
+        return fields;
+    }
+}
@@ -0,0 +1,36 @@
+package com.devlcm.lcm.search;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import com.devlcm.lcm.entity.ForumCategory;
+
+/**
+ * Restricts forum search results; null fields match everything. A post matches {@code tags}
+ * when it carries all of them, compared case-insensitively.
+ */
+public record ForumSearchFilter(String courseId, String chapterId, ForumCategory category, List<String> tags) {
+
+    public static final ForumSearchFilter NONE = new ForumSearchFilter(null, null, null, null);
+
+    public ForumSearchFilter {
+        tags = tags == null ? List.of() : tags.stream()
+            .filter(tag -> tag != null && !tag.isBlank())
+            .map(ForumSearchFilter::normalizeTag)
+            .distinct()
+            .toList();
+    }
+
+    public boolean matches(String postCourseId, String postChapterId, ForumCategory postCategory,
+                           Collection<String> postTags) {
+        return (courseId == null || courseId.equals(postCourseId))
+            && (chapterId == null || chapterId.equals(postChapterId))
+            && (category == null || category == postCategory)
+            && (tags.isEmpty() || postTags != null && postTags.containsAll(tags));
+    }
+
+    static String normalizeTag(String tag) {
+        return tag.strip().toLowerCase(Locale.ROOT);
+    }
+}
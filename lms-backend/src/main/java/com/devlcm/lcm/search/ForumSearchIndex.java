@@ -0,0 +1,420 @@
+package com.devlcm.lcm.search;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.entity.ForumCategory;
+import com.devlcm.lcm.entity.ForumPost;
+import com.devlcm.lcm.entity.ForumReply;
+import com.devlcm.lcm.service.CacheInvalidation;
+import com.devlcm.lcm.service.InvalidationTarget;
+import com.devlcm.lcm.util.IdListPages;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Forum search over post titles, tags and bodies and over reply bodies, replacing a
+ * case-insensitive {@code $regex} scan of every post.
+ * <p>
+ * In {@code index} mode (the default) posts and replies live in an {@link InvertedIndex} built at
+ * startup and updated by {@link com.devlcm.lcm.service.ForumService} on each write. Each write is
+ * published as a {@link CacheInvalidation} of the post or reply id under {@value #POST_INVALIDATION_NAME}
+ * or {@value #REPLY_INVALIDATION_NAME}; {@link com.devlcm.lcm.service.CacheInvalidationBus} hands those
+ * from other nodes (or forum change events) back here to re-read the documents. An optional full
+ * rebuild every {@code app.search.forum.rebuild-interval} (zero, the default, disables it) is a safety
+ * net for deployments without the bus.
+ * A reply match counts {@value #REPLY_WEIGHT} of its score towards the post it belongs to.
+ * <p>
+ * In {@code text} mode nothing is held in memory and {@link #searchText} queries a Mongo
+ * {@code $text} index on the posts instead (created at startup; replies are not covered).
+ */
+@Slf4j
+@Component
+public class ForumSearchIndex implements ApplicationRunner, InvalidationTarget {
+
+    /** Names under which indexed post and reply ids are published to other nodes; a clear rebuilds the index. */
+    public static final String POST_INVALIDATION_NAME = "forumPostSearch";
+    public static final String REPLY_INVALIDATION_NAME = "forumReplySearch";
+
+    static final String TITLE = "title";
+    static final String TAGS = "tags";
+    static final String CONTENT = "content";
+    private static final Map<String, Double> FIELD_WEIGHTS = Map.of(TITLE, 3.0, TAGS, 2.0, CONTENT, 1.0);
+    static final double REPLY_WEIGHT = 0.5;
+    /** Stored fields a post or reply is indexed or filtered by; changes to other fields leave the index as is. */
+    public static final Set<String> INDEXED_POST_FIELDS = Set.of(TITLE, TAGS, CONTENT, "courseId", "chapterId", "category");
+    public static final Set<String> INDEXED_REPLY_FIELDS = Set.of(CONTENT, "postId");
+
+    /**
+     * A post match; {@code replyId} names the reply that matched better than the post itself, if any.
+     */
+    public record Match(String postId, double score, String replyId) {
+    }
+
+    /** Index key: a post ({@code replyId} null) or one of its replies. */
+    record Entry(String postId, String replyId) {
+    }
+
+    private record Facets(String courseId, String chapterId, ForumCategory category, Set<String> tags) {
+    }
+
+    /** Everything a rebuild replaces at once. */
+    private static final class State {
+        final InvertedIndex<Entry> index = new InvertedIndex<>(FIELD_WEIGHTS);
+        final Map<String, Facets> posts = new ConcurrentHashMap<>();
+        final Map<String, Set<String>> repliesByPost = new ConcurrentHashMap<>();
+        final Map<String, String> postOfReply = new ConcurrentHashMap<>();
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean textMode;
+    private final Duration rebuildInterval;
+    private volatile State state = new State();
+    private final Object writeLock = new Object();
+    /** Held for a whole rebuild, so that one started meanwhile waits instead of taking over pendingWrites. */
+    private final Object rebuildLock = new Object();
+    /** Writes made while a rebuild reads the collections, replayed onto the new state; null otherwise. */
+    private List<Consumer<State>> pendingWrites;
+    private ScheduledExecutorService rebuilder;
+
+    public ForumSearchIndex(MongoTemplate mongoTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.search.forum.mode:index}") String mode,
+                            @Value("${app.search.forum.rebuild-interval:0}") Duration rebuildInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.textMode = "text".equalsIgnoreCase(mode);
+        this.rebuildInterval = rebuildInterval;
+        Gauge.builder("search.index.documents", this, searchIndex -> searchIndex.state.index.size())
+            .tag("index", "forum")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (textMode) {
+            ensureTextIndex();
+            return;
+        }
+        rebuild();
+        if (!rebuildInterval.isZero() && !rebuildInterval.isNegative()) {
+            rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "forum-search-rebuild");
+                thread.setDaemon(true);
+                return thread;
+            });
+            rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildInterval.toMillis(), rebuildInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether {@link #search} serves queries; otherwise use {@link #searchText}.
+     */
+    public boolean isEnabled() {
+        return !textMode;
+    }
+
+    /**
+     * Index every post and reply from scratch and swap the result in. Documents are streamed
+     * with only the indexed fields, so the collections are never held in memory whole. Rebuilds
+     * requested meanwhile, e.g. by another node's clear during the startup rebuild, run one after another.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildNow();
+        }
+    }
+
+    private void rebuildNow() {
+        long startNanos = System.nanoTime();
+        synchronized (writeLock) {
+            pendingWrites = new ArrayList<>();
+        }
+        State rebuilt = new State();
+        try {
+            try (Stream<ForumPost> stream = mongoTemplate.stream(postsQuery(new Query()), ForumPost.class)) {
+                stream.forEach(post -> putPost(rebuilt, post));
+            }
+            try (Stream<ForumReply> stream = mongoTemplate.stream(repliesQuery(new Query()), ForumReply.class)) {
+                stream.forEach(reply -> putReply(rebuilt, reply));
+            }
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                pendingWrites = null;
+            }
+            if (!(e instanceof DataAccessException)) {
+                throw e;
+            }
+            log.warn("Could not rebuild forum search index, keeping the current one: {}", e.getMessage());
+            return;
+        }
+        synchronized (writeLock) {
+            pendingWrites.forEach(write -> write.accept(rebuilt));
+            pendingWrites = null;
+            state = rebuilt;
+        }
+        log.debug("Rebuilt forum search index with {} posts and replies in {} ms", rebuilt.index.size(),
+            Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+    }
+
+    public void indexPost(ForumPost post) {
+        write(target -> putPost(target, post));
+        publish(POST_INVALIDATION_NAME, post.getId());
+    }
+
+    /**
+     * Remove a post together with its replies.
+     */
+    public void removePost(String postId) {
+        write(target -> deletePost(target, postId));
+        publish(POST_INVALIDATION_NAME, postId);
+    }
+
+    public void indexReply(ForumReply reply) {
+        write(target -> putReply(target, reply));
+        publish(REPLY_INVALIDATION_NAME, reply.getId());
+    }
+
+    public void removeReply(String postId, String replyId) {
+        write(target -> deleteReply(target, postId, replyId));
+        publish(REPLY_INVALIDATION_NAME, replyId);
+    }
+
+    private void publish(String name, String id) {
+        if (!textMode) {
+            eventPublisher.publishEvent(new CacheInvalidation().evict(name, id));
+        }
+    }
+
+    /**
+     * Re-read the posts and replies another node changed: existing ones are re-indexed, missing
+     * ones removed.
+     */
+    @Override
+    public void apply(CacheInvalidation invalidation) {
+        if (textMode) {
+            return;
+        }
+        if (invalidation.getClears().contains(POST_INVALIDATION_NAME)
+            || invalidation.getClears().contains(REPLY_INVALIDATION_NAME)) {
+            rebuild();
+            return;
+        }
+        Set<String> postIds = invalidation.getEvictions().getOrDefault(POST_INVALIDATION_NAME, Set.of());
+        Set<String> replyIds = invalidation.getEvictions().getOrDefault(REPLY_INVALIDATION_NAME, Set.of());
+        try {
+            if (!postIds.isEmpty()) {
+                Map<String, ForumPost> posts = IdListPages.byId(mongoTemplate.find(
+                    postsQuery(Query.query(Criteria.where("_id").in(postIds))), ForumPost.class), ForumPost::getId);
+                for (String postId : postIds) {
+                    ForumPost post = posts.get(postId);
+                    write(target -> {
+                        if (post != null) {
+                            putPost(target, post);
+                        } else {
+                            deletePost(target, postId);
+                        }
+                    });
+                }
+            }
+            if (!replyIds.isEmpty()) {
+                Map<String, ForumReply> replies = IdListPages.byId(mongoTemplate.find(
+                    repliesQuery(Query.query(Criteria.where("_id").in(replyIds))), ForumReply.class), ForumReply::getId);
+                for (String replyId : replyIds) {
+                    ForumReply reply = replies.get(replyId);
+                    write(target -> {
+                        if (reply != null) {
+                            putReply(target, reply);
+                        } else {
+                            deleteReply(target, target.postOfReply.get(replyId), replyId);
+                        }
+                    });
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not re-read changed forum posts and replies for the search index: {}", e.getMessage());
+        }
+    }
+
+    private static Query postsQuery(Query query) {
+        query.fields().include(INDEXED_POST_FIELDS.toArray(String[]::new));
+        return query;
+    }
+
+    private static Query repliesQuery(Query query) {
+        query.fields().include(INDEXED_REPLY_FIELDS.toArray(String[]::new));
+        return query;
+    }
+
+    private void write(Consumer<State> write) {
+        if (textMode) {
+            return;
+        }
+        synchronized (writeLock) {
+            write.accept(state);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        }
+    }
+
+    private static void putPost(State target, ForumPost post) {
+        Set<String> tags = post.getTags() == null ? Set.of() : post.getTags().stream()
+            .filter(tag -> tag != null && !tag.isBlank())
+            .map(ForumSearchFilter::normalizeTag)
+            .collect(Collectors.toUnmodifiableSet());
+        target.posts.put(post.getId(), new Facets(post.getCourseId(), post.getChapterId(), post.getCategory(), tags));
+        Map<String, String> fields = new HashMap<>();
+        fields.put(TITLE, post.getTitle());
+        fields.put(TAGS, String.join(" ", tags));
+        fields.put(CONTENT, post.getContent());
+        target.index.put(new Entry(post.getId(), null), fields);
+    }
+
+    private static void putReply(State target, ForumReply reply) {
+        target.repliesByPost.computeIfAbsent(reply.getPostId(), postId -> ConcurrentHashMap.newKeySet())
+            .add(reply.getId());
+        target.postOfReply.put(reply.getId(), reply.getPostId());
+        target.index.put(new Entry(reply.getPostId(), reply.getId()), Map.of(CONTENT,
+            reply.getContent() == null ? "" : reply.getContent()));
+    }
+
+    private static void deletePost(State target, String postId) {
+        target.posts.remove(postId);
+        target.index.remove(new Entry(postId, null));
+        Set<String> replyIds = target.repliesByPost.remove(postId);
+        if (replyIds != null) {
+            replyIds.forEach(replyId -> {
+                target.postOfReply.remove(replyId);
+                target.index.remove(new Entry(postId, replyId));
+            });
+        }
+    }
+
+    private static void deleteReply(State target, String postId, String replyId) {
+        target.postOfReply.remove(replyId);
+        if (postId == null) {
+            return;
+        }
+        target.index.remove(new Entry(postId, replyId));
+        Set<String> replyIds = target.repliesByPost.get(postId);
+        if (replyIds != null) {
+            replyIds.remove(replyId);
+        }
+    }
+
+    /**
+     * Posts matching the query in their own text or in a reply, most relevant first.
+     */
+    public List<Match> search(String query, ForumSearchFilter filter) {
+        State current = state;
+        List<InvertedIndex.Hit<Entry>> hits = current.index.search(query, entry -> {
+            Facets facets = current.posts.get(entry.postId());
+            return facets != null
+                && filter.matches(facets.courseId(), facets.chapterId(), facets.category(), facets.tags());
+        });
+
+        Map<String, Double> postScores = new LinkedHashMap<>();
+        Map<String, InvertedIndex.Hit<Entry>> bestReplies = new HashMap<>();
+        for (InvertedIndex.Hit<Entry> hit : hits) {
+            String postId = hit.id().postId();
+            if (hit.id().replyId() == null) {
+                postScores.merge(postId, hit.score(), Double::sum);
+            } else {
+                postScores.putIfAbsent(postId, 0.0);
+                // Hits arrive best first, so the first reply seen for a post is its best one
+                bestReplies.putIfAbsent(postId, hit);
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(postScores.size());
+        postScores.forEach((postId, postScore) -> {
+            InvertedIndex.Hit<Entry> reply = bestReplies.get(postId);
+            double replyScore = reply == null ? 0 : REPLY_WEIGHT * reply.score();
+            matches.add(new Match(postId, postScore + replyScore,
+                replyScore > postScore ? reply.id().replyId() : null));
+        });
+        matches.sort(Comparator.comparingDouble(Match::score).reversed().thenComparing(Match::postId));
+        return matches;
+    }
+
+    /**
+     * Query the Mongo {@code $text} index, best matches first.
+     */
+    public Page<ForumPost> searchText(String query, ForumSearchFilter filter, Pageable pageable) {
+        Query textQuery = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(query)).sortByScore();
+        if (filter.courseId() != null) {
+            textQuery.addCriteria(Criteria.where("courseId").is(filter.courseId()));
+        }
+        if (filter.chapterId() != null) {
+            textQuery.addCriteria(Criteria.where("chapterId").is(filter.chapterId()));
+        }
+        if (filter.category() != null) {
+            textQuery.addCriteria(Criteria.where("category").is(filter.category()));
+        }
+        if (!filter.tags().isEmpty()) {
+            textQuery.addCriteria(Criteria.where(TAGS).all(filter.tags().stream()
+                .map(tag -> Pattern.compile("^" + Pattern.quote(tag) + "$", Pattern.CASE_INSENSITIVE))
+                .toList()));
+        }
+        long total = mongoTemplate.count(textQuery, ForumPost.class);
+        List<ForumPost> posts = mongoTemplate.find(textQuery.with(pageable), ForumPost.class);
+        return PageableExecutionUtils.getPage(posts, pageable, () -> total);
+    }
+
+    private void ensureTextIndex() {
+        try {
+            mongoTemplate.indexOps(ForumPost.class).ensureIndex(TextIndexDefinition.builder()
+                .named("forum_posts_text")
+                .onField(TITLE, 3F)
+                .onField(TAGS, 2F)
+                .onField(CONTENT)
+                .build());
+        } catch (DataAccessException e) {
+            log.warn("Could not create the forum $text index: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.devlcm.lcm.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds search result snippets: an excerpt around the first matching word, HTML-escaped, with
+ * {@code <mark>} around every word that matches a query term. Words match the way
+ * {@link InvertedIndex} matches them (same analysis, equal to or starting with a query term).
+ */
+public final class Highlighter {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}\\p{M}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    /** Characters kept before the first match so the excerpt does not start on it. */
+    static final int LEADING_CONTEXT = 40;
+    static final String ELLIPSIS = "\u2026";
+
+    private Highlighter() {
+    }
+
+    /**
+     * @param maxLength excerpt length in characters, before escaping and markup
+     * @return the excerpt, or an empty string for empty text
+     */
+    public static String snippet(String text, String query, int maxLength) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String flat = WHITESPACE.matcher(text.strip()).replaceAll(" ");
+        List<int[]> matches = matches(flat, new LinkedHashSet<>(TextAnalyzer.tokenize(query)));
+
+        int start = 0;
+        if (!matches.isEmpty() && matches.get(0)[0] > LEADING_CONTEXT) {
+            start = matches.get(0)[0] - LEADING_CONTEXT;
+            int space = flat.indexOf(' ', start);
+            start = space >= 0 && space < matches.get(0)[0] ? space + 1 : start;
+        }
+        int end = Math.min(flat.length(), start + maxLength);
+        if (end < flat.length()) {
+            int space = flat.lastIndexOf(' ', end);
+            end = space > start ? space : end;
+        }
+
+        StringBuilder snippet = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            snippet.append(ELLIPSIS);
+        }
+        int position = start;
+        for (int[] match : matches) {
+            if (match[1] <= start) {
+                continue;
+            }
+            if (match[0] >= end) {
+                break;
+            }
+            escape(flat, position, match[0], snippet);
+            snippet.append("<mark>");
+            escape(flat, match[0], Math.min(match[1], end), snippet);
+            snippet.append("</mark>");
+            position = Math.min(match[1], end);
+        }
+        escape(flat, position, end, snippet);
+        if (end < flat.length()) {
+            snippet.append(ELLIPSIS);
+        }
+        return snippet.toString();
+    }
+
+    /**
+     * Start and end offsets of the words in {@code text} that match a query term.
+     */
+    private static List<int[]> matches(String text, Set<String> queryTerms) {
+        List<int[]> matches = new ArrayList<>();
+        if (queryTerms.isEmpty()) {
+            return matches;
+        }
+        Matcher word = WORD.matcher(text);
+        while (word.find()) {
+            for (String token : TextAnalyzer.tokenize(word.group())) {
+                if (queryTerms.stream().anyMatch(token::startsWith)) {
+                    matches.add(new int[] { word.start(), word.end() });
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.devlcm.lcm.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory inverted index over documents made of named text fields, ranked with BM25.
+ * <p>
+ * A field's terms count {@code fieldWeight} times (title matches can outweigh body matches).
+ * Each query term matches index terms equal to it or, at {@value #PREFIX_MATCH_WEIGHT} of the
+ * score, starting with it, so partially typed words find results. Documents can be added,
+ * replaced and removed one at a time; the index is safe for concurrent readers and writers.
+ *
+ * @param <K> document id type
+ */
+public class InvertedIndex<K> {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    static final double PREFIX_MATCH_WEIGHT = 0.5;
+    /** Bound on index terms a single query prefix expands to. */
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    public record Hit<K>(K id, double score) {
+    }
+
+    private final Map<String, Double> fieldWeights;
+    private final NavigableMap<String, Map<K, Double>> postings = new TreeMap<>();
+    private final Map<K, Set<String>> documentTerms = new HashMap<>();
+    private final Map<K, Double> documentLengths = new HashMap<>();
+    private double totalLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param fieldWeights weight per field name; fields not listed weigh 1
+     */
+    public InvertedIndex(Map<String, Double> fieldWeights) {
+        this.fieldWeights = Map.copyOf(fieldWeights);
+    }
+
+    /**
+     * Add a document, or replace the indexed version of it.
+     */
+    public void put(K id, Map<String, String> fields) {
+        Map<String, Double> frequencies = new HashMap<>();
+        double length = 0;
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            double weight = fieldWeights.getOrDefault(field.getKey(), 1.0);
+            List<String> tokens = TextAnalyzer.tokenize(field.getValue());
+            for (String token : tokens) {
+                frequencies.merge(token, weight, Double::sum);
+            }
+            length += weight * tokens.size();
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, frequency));
+            documentTerms.put(id, frequencies.keySet());
+            documentLengths.put(id, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(K id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(K id) {
+        Set<String> terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<K, Double> documents = postings.get(term);
+            documents.remove(id);
+            if (documents.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= documentLengths.remove(id);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents matching any query term, best first.
+     *
+     * @param filter documents to consider; others are skipped before scoring
+     */
+    public List<Hit<K>> search(String query, Predicate<? super K> filter) {
+        Set<String> queryTerms = new LinkedHashSet<>(TextAnalyzer.tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        Map<K, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documentTerms.size();
+            double averageLength = documentCount > 0 ? totalLength / documentCount : 0;
+            for (String queryTerm : queryTerms) {
+                // Best match per document for this query term: the exact term or one of its expansions
+                Map<K, Double> termScores = new HashMap<>();
+                int expansions = 0;
+                for (Map.Entry<String, Map<K, Double>> posting
+                        : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+                    boolean exact = posting.getKey().equals(queryTerm);
+                    if (!exact && ++expansions > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    double idf = idf(documentCount, posting.getValue().size());
+                    double matchWeight = exact ? 1.0 : PREFIX_MATCH_WEIGHT;
+                    for (Map.Entry<K, Double> document : posting.getValue().entrySet()) {
+                        if (!filter.test(document.getKey())) {
+                            continue;
+                        }
+                        double score = matchWeight * idf * saturate(document.getValue(),
+                            documentLengths.get(document.getKey()), averageLength);
+                        termScores.merge(document.getKey(), score, Math::max);
+                    }
+                }
+                termScores.forEach((id, score) -> scores.merge(id, score, Double::sum));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit<K>> hits = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> hits.add(new Hit<>(id, score)));
+        // Ties are broken by id so equal scores page consistently
+        hits.sort(Comparator.<Hit<K>>comparingDouble(Hit::score).reversed()
+            .thenComparing(hit -> String.valueOf(hit.id())));
+        return hits;
+    }
+
+    private static double idf(int documentCount, int documentFrequency) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double saturate(double frequency, double length, double averageLength) {
+        double normalization = averageLength > 0 ? 1 - B + B * length / averageLength : 1;
+        return frequency * (K1 + 1) / (frequency + K1 * normalization);
+    }
+}
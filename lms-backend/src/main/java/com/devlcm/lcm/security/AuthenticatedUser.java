@@ -0,0 +1,38 @@
+package com.devlcm.lcm.security;
+
+import com.devlcm.lcm.entity.User;
+import com.devlcm.lcm.entity.UserRole;
+
+/**
+ * Slim view of the signed-in user, resolved from the Firebase UID once per request
+ * and attached to the authentication as its details.
+ *
+ * @param id MongoDB user id
+ * @param firebaseUid Firebase UID the identity was resolved from
+ * @param username display username
+ * @param role role stored in the database
+ * @param email email address, may be null
+ * @param enrolledCourseCount number of courses the user is enrolled in
+ */
+public record AuthenticatedUser(
+        String id,
+        String firebaseUid,
+        String username,
+        UserRole role,
+        String email,
+        int enrolledCourseCount) {
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getFirebaseUid(),
+                user.getUsername(),
+                user.getRole(),
+                user.getEmail(),
+                user.getEnrolledCourseIds() == null ? 0 : user.getEnrolledCourseIds().size());
+    }
+
+    public boolean isAdmin() {
+        return role == UserRole.ADMIN;
+    }
+}
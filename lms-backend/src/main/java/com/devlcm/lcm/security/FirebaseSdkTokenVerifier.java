@@ -0,0 +1,30 @@
+package com.devlcm.lcm.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.exception.InvalidTokenException;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+
+/**
+ * Token verifier that delegates to the Firebase Admin SDK.
+ * Enable with {@code app.auth.verifier=firebase}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.auth.verifier", havingValue = "firebase")
+public class FirebaseSdkTokenVerifier implements TokenVerifier {
+
+    @Override
+    public VerifiedToken verify(String token) {
+        try {
+            FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(token);
+            Object exp = decodedToken.getClaims().get("exp");
+            long expiresAt = exp instanceof Number n ? n.longValue() : 0L;
+            return VerifiedToken.of(decodedToken.getUid(), decodedToken.getClaims().get("role"), expiresAt);
+        } catch (FirebaseAuthException e) {
+            throw new InvalidTokenException("ID token verification failed: " + e.getMessage(), e);
+        }
+    }
+}
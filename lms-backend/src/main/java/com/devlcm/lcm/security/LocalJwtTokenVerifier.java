@@ -0,0 +1,239 @@
+package com.devlcm.lcm.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Base64;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.exception.InvalidTokenException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.firebase.FirebaseApp;
+
+/**
+ * Default token verifier: checks the RS256 signature of a Firebase ID token against the
+ * locally cached keys in {@link SigningKeyStore} and validates the standard claims, following
+ * the rules Firebase documents for verifying ID tokens with a third-party JWT library.
+ * <p>
+ * Claims are read with a streaming parser that only picks out the fields we need, and each
+ * thread reuses its own {@link Signature} instance, so verification does not allocate a
+ * claims map or look up a security provider per request.
+ * <p>
+ * The project id comes from {@code app.auth.project-id}, or else from the options the Firebase
+ * app was built with; startup fails if neither has one.
+ */
+@Component
+@DependsOn("firebaseConfig")
+@ConditionalOnProperty(name = "app.auth.verifier", havingValue = "local", matchIfMissing = true)
+public class LocalJwtTokenVerifier implements TokenVerifier {
+
+    private static final String ISSUER_PREFIX = "https://securetoken.google.com/";
+    private static final long ALLOWED_CLOCK_SKEW_SECONDS = 60;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final ThreadLocal<Signature> RS256 = ThreadLocal.withInitial(() -> {
+        try {
+            return Signature.getInstance("SHA256withRSA");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA256withRSA not available", e);
+        }
+    });
+
+    private final SigningKeyStore signingKeyStore;
+    private final String projectId;
+    private final String expectedIssuer;
+
+    public LocalJwtTokenVerifier(SigningKeyStore signingKeyStore,
+                                 @Value("${app.auth.project-id:}") String projectId) {
+        this.signingKeyStore = signingKeyStore;
+        this.projectId = projectId != null && !projectId.isBlank() ? projectId : firebaseProjectId();
+        this.expectedIssuer = ISSUER_PREFIX + this.projectId;
+    }
+
+    @Override
+    public VerifiedToken verify(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot <= firstDot + 1 || token.indexOf('.', secondDot + 1) >= 0) {
+            throw new InvalidTokenException("Malformed ID token");
+        }
+
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        byte[] headerJson;
+        byte[] payloadJson;
+        byte[] signature;
+        try {
+            headerJson = decoder.decode(token.substring(0, firstDot));
+            payloadJson = decoder.decode(token.substring(firstDot + 1, secondDot));
+            signature = decoder.decode(token.substring(secondDot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Malformed ID token", e);
+        }
+
+        Header header = readHeader(headerJson);
+        if (!"RS256".equals(header.alg())) {
+            throw new InvalidTokenException("Unexpected signing algorithm: " + header.alg());
+        }
+        PublicKey key = header.kid() == null ? null : signingKeyStore.getKey(header.kid());
+        if (key == null) {
+            throw new InvalidTokenException("ID token signed with an unknown key");
+        }
+        if (!verifySignature(key, token, secondDot, signature)) {
+            throw new InvalidTokenException("Invalid ID token signature");
+        }
+
+        Claims claims = readClaims(payloadJson);
+        validate(claims);
+        return VerifiedToken.of(claims.sub, claims.role, claims.exp);
+    }
+
+    private boolean verifySignature(PublicKey key, String token, int signedLength, byte[] signature) {
+        Signature verifier = RS256.get();
+        try {
+            verifier.initVerify(key);
+            // The signing input is the ASCII "header.payload" prefix of the token
+            verifier.update(token.substring(0, signedLength).getBytes(StandardCharsets.US_ASCII));
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException e) {
+            throw new InvalidTokenException("ID token signature check failed", e);
+        }
+    }
+
+    private void validate(Claims claims) {
+        long now = System.currentTimeMillis() / 1000;
+
+        if (claims.exp <= now) {
+            throw new InvalidTokenException("ID token has expired");
+        }
+        // Firebase ID tokens always carry both; a token without them is not one
+        if (!claims.hasIat || claims.iat <= 0) {
+            throw new InvalidTokenException("ID token has no valid issued-at time");
+        }
+        if (!claims.hasAuthTime || claims.authTime <= 0) {
+            throw new InvalidTokenException("ID token has no valid auth_time");
+        }
+        if (claims.iat > now + ALLOWED_CLOCK_SKEW_SECONDS) {
+            throw new InvalidTokenException("ID token issued in the future");
+        }
+        if (claims.authTime > now + ALLOWED_CLOCK_SKEW_SECONDS) {
+            throw new InvalidTokenException("ID token has an invalid auth_time");
+        }
+        if (!claims.audienceMatched && !projectId.equals(claims.aud)) {
+            throw new InvalidTokenException("ID token has an unexpected audience");
+        }
+        if (!expectedIssuer.equals(claims.iss)) {
+            throw new InvalidTokenException("ID token has an unexpected issuer");
+        }
+        if (claims.sub == null || claims.sub.isEmpty() || claims.sub.length() > 128) {
+            throw new InvalidTokenException("ID token has an invalid subject");
+        }
+    }
+
+    /**
+     * Project id set in the options of the default Firebase app, see {@link com.devlcm.lcm.config.FirebaseConfig}.
+     */
+    private static String firebaseProjectId() {
+        String id = FirebaseApp.getApps().isEmpty() ? null : FirebaseApp.getInstance().getOptions().getProjectId();
+        if (id == null || id.isBlank()) {
+            throw new IllegalStateException("Firebase project id is not configured (app.auth.project-id)");
+        }
+        return id;
+    }
+
+    private static Header readHeader(byte[] json) {
+        String alg = null;
+        String kid = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            expectObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("alg".equals(field) && value == JsonToken.VALUE_STRING) {
+                    alg = parser.getText();
+                } else if ("kid".equals(field) && value == JsonToken.VALUE_STRING) {
+                    kid = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new InvalidTokenException("Malformed ID token header", e);
+        }
+        return new Header(alg, kid);
+    }
+
+    private Claims readClaims(byte[] json) {
+        Claims claims = new Claims();
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            expectObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "sub" -> claims.sub = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "iss" -> claims.iss = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "role" -> claims.role = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "exp" -> claims.exp = value.isNumeric() ? parser.getLongValue() : 0L;
+                    case "iat" -> {
+                        claims.hasIat = value.isNumeric();
+                        claims.iat = claims.hasIat ? parser.getLongValue() : 0L;
+                    }
+                    case "auth_time" -> {
+                        claims.hasAuthTime = value.isNumeric();
+                        claims.authTime = claims.hasAuthTime ? parser.getLongValue() : 0L;
+                    }
+                    case "aud" -> {
+                        if (value == JsonToken.VALUE_STRING) {
+                            claims.aud = parser.getText();
+                        } else if (value == JsonToken.START_ARRAY) {
+                            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                                if (projectId.equals(parser.getText())) {
+                                    claims.audienceMatched = true;
+                                }
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new InvalidTokenException("Malformed ID token payload", e);
+        }
+        return claims;
+    }
+
+    private static void expectObject(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new InvalidTokenException("Malformed ID token");
+        }
+    }
+
+    private record Header(String alg, String kid) {}
+
+    /**
+     * Mutable holder for the handful of claims that matter; filled in a single parser pass.
+     */
+    private static final class Claims {
+        String sub;
+        String iss;
+        String aud;
+        String role;
+        boolean audienceMatched;
+        boolean hasIat;
+        boolean hasAuthTime;
+        long exp;
+        long iat;
+        long authTime;
+    }
+}
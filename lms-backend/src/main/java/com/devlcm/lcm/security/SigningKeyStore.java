@@ -0,0 +1,211 @@
+package com.devlcm.lcm.security;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Locally cached set of token signing keys, indexed by key id ({@code kid}).
+ * Keys are fetched from Google's published certificate endpoint, or read from
+ * {@code app.auth.keys.file} when set so verification works without network access.
+ * <p>
+ * The keys are loaded at startup and then refreshed on a background thread once they are older
+ * than the endpoint's {@code max-age} (or {@code app.auth.keys.refresh-interval}), and early when
+ * an unknown key id shows up. Lookups never wait for the network: a token signed with a key we
+ * do not have yet is rejected until the refresh it triggered has finished.
+ */
+@Slf4j
+@Component
+public class SigningKeyStore implements ApplicationRunner {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final Duration MIN_FORCED_REFRESH_INTERVAL = Duration.ofSeconds(30);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String keysUrl;
+    private final String keysFile;
+    private final Duration refreshInterval;
+    private final HttpClient httpClient;
+
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long loadedAtNanos;
+    private volatile long expiresAtNanos;
+    private ScheduledExecutorService refresher;
+    private ScheduledFuture<?> nextRefresh;
+
+    public SigningKeyStore(
+            @Value("${app.auth.keys.url:https://www.googleapis.com/robot/v1/metadata/x509/securetoken@system.gserviceaccount.com}") String keysUrl,
+            @Value("${app.auth.keys.file:}") String keysFile,
+            @Value("${app.auth.keys.refresh-interval:1h}") Duration refreshInterval) {
+        this.keysUrl = keysUrl;
+        this.keysFile = keysFile;
+        this.refreshInterval = refreshInterval;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+        synchronized (this) {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "signing-key-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        scheduleRefresh(expiresAtNanos - System.nanoTime());
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Look up a signing key by id.
+     *
+     * @return the key, or null if no currently loaded key has that id
+     */
+    public PublicKey getKey(String kid) {
+        PublicKey key = keys.get(kid);
+        // Keys rotate; an unknown kid may simply be newer than our copy
+        if (key == null && System.nanoTime() - loadedAtNanos > MIN_FORCED_REFRESH_INTERVAL.toNanos()
+                && refreshRequested.compareAndSet(false, true) && !scheduleRefresh(0)) {
+            refreshRequested.set(false);
+        }
+        return key;
+    }
+
+    /**
+     * Number of keys currently loaded.
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Replace the pending refresh with one after {@code delayNanos}.
+     *
+     * @return false before startup or after shutdown, when there is no refresher
+     */
+    private synchronized boolean scheduleRefresh(long delayNanos) {
+        if (refresher == null || refresher.isShutdown()) {
+            return false;
+        }
+        if (nextRefresh != null) {
+            nextRefresh.cancel(false);
+        }
+        nextRefresh = refresher.schedule(this::refreshAndReschedule, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    private void refreshAndReschedule() {
+        refreshRequested.set(false);
+        refresh();
+        scheduleRefresh(expiresAtNanos - System.nanoTime());
+    }
+
+    /**
+     * Load the keys on the calling thread. Package-private for tests, which run without the refresher.
+     */
+    void refresh() {
+        try {
+            Duration ttl = refreshInterval;
+            Map<String, String> pems;
+            if (keysFile != null && !keysFile.isBlank()) {
+                pems = parse(Files.readString(Path.of(keysFile), StandardCharsets.UTF_8));
+            } else {
+                HttpResponse<String> response = httpClient.send(
+                        HttpRequest.newBuilder(URI.create(keysUrl)).timeout(Duration.ofSeconds(10)).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IOException("Unexpected status " + response.statusCode() + " from " + keysUrl);
+                }
+                pems = parse(response.body());
+                ttl = response.headers().firstValue("Cache-Control")
+                        .map(MAX_AGE::matcher)
+                        .filter(Matcher::find)
+                        .map(m -> Duration.ofSeconds(Long.parseLong(m.group(1))))
+                        .orElse(refreshInterval);
+            }
+
+            Map<String, PublicKey> loaded = new HashMap<>();
+            for (Map.Entry<String, String> entry : pems.entrySet()) {
+                loaded.put(entry.getKey(), toPublicKey(entry.getValue()));
+            }
+
+            long now = System.nanoTime();
+            keys = Map.copyOf(loaded);
+            loadedAtNanos = now;
+            expiresAtNanos = now + ttl.toNanos();
+            log.info("Loaded {} token signing keys, next refresh in {}", loaded.size(), ttl);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            // Keep serving the previous keys; retry after the minimum interval
+            log.error("Failed to load token signing keys: {}", e.getMessage());
+            long now = System.nanoTime();
+            loadedAtNanos = now;
+            expiresAtNanos = now + MIN_FORCED_REFRESH_INTERVAL.toNanos();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, String> parse(String json) throws IOException {
+        return OBJECT_MAPPER.readValue(json, new TypeReference<Map<String, String>>() {});
+    }
+
+    /**
+     * Accept either an X.509 certificate (Google's published format) or a bare
+     * SubjectPublicKeyInfo PEM, which is easier to produce for local key files.
+     */
+    static PublicKey toPublicKey(String pem) throws GeneralSecurityException {
+        if (pem.contains("BEGIN CERTIFICATE")) {
+            CertificateFactory factory = CertificateFactory.getInstance("X.509");
+            return factory.generateCertificate(new ByteArrayInputStream(pem.getBytes(StandardCharsets.US_ASCII)))
+                    .getPublicKey();
+        }
+        String base64 = pem
+                .replace("-----BEGIN PUBLIC KEY-----", "")
+                .replace("-----END PUBLIC KEY-----", "")
+                .replaceAll("\\s", "");
+        return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(base64)));
+    }
+}
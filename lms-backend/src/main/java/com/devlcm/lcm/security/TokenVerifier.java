@@ -0,0 +1,17 @@
+package com.devlcm.lcm.security;
+
+import com.devlcm.lcm.exception.InvalidTokenException;
+
+/**
+ * Verifies a Firebase ID token and extracts the claims the application relies on.
+ * The active implementation is chosen with {@code app.auth.verifier}.
+ */
+public interface TokenVerifier {
+
+    /**
+     * @param token raw compact-serialized JWT from the Authorization header
+     * @return the verified identity
+     * @throws InvalidTokenException if the token is malformed, expired or not signed by a trusted key
+     */
+    VerifiedToken verify(String token);
+}
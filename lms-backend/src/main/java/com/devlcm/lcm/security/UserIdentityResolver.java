@@ -0,0 +1,166 @@
+package com.devlcm.lcm.security;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.entity.User;
+import com.devlcm.lcm.exception.UserNotFoundException;
+import com.devlcm.lcm.repository.UserRepository;
+import com.devlcm.lcm.service.CacheInvalidation;
+import com.devlcm.lcm.service.CacheInvalidationBus;
+import com.devlcm.lcm.service.InvalidationTarget;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Maps a Firebase UID to the internal user identity.
+ * <p>
+ * Lookups are answered, in order, from the identity already attached to the current
+ * request's authentication, from a bounded Caffeine cache, and finally from the database.
+ * Only existing users are cached, so a user who signs up is visible immediately. An
+ * invalidation that arrives while the identity is being read from the database wins: the
+ * identity read is returned to that caller but not kept.
+ * Anything that changes a user's id, username, role, email or enrollments must call
+ * {@link #invalidate(String)} with that user's Firebase UID; the eviction is published under
+ * {@value #CACHE_NAME} so {@link CacheInvalidationBus} drops the identity on every node.
+ */
+@Component
+public class UserIdentityResolver implements InvalidationTarget {
+
+    /** Name of this cache in {@link CacheInvalidation}s; keys are Firebase UIDs or user ids. */
+    public static final String CACHE_NAME = "userIdentity";
+
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<String, AuthenticatedUser> cache;
+    /** Incremented before every invalidation, so a load can tell whether one ran meanwhile. */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserIdentityResolver(UserRepository userRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${app.auth.identity-cache.max-size:50000}") long maxSize,
+                                @Value("${app.auth.identity-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Resolve the identity for a Firebase UID.
+     * @param firebaseUid the Firebase UID
+     * @return the identity, or empty if no user exists with that UID
+     */
+    public Optional<AuthenticatedUser> resolve(String firebaseUid) {
+        AuthenticatedUser attached = attachedToRequest();
+        if (attached != null && attached.firebaseUid().equals(firebaseUid)) {
+            return Optional.of(attached);
+        }
+
+        // Loading inside the cache orders it with invalidations of the same UID, which wait for it
+        long seen = invalidations.get();
+        AtomicBoolean loaded = new AtomicBoolean();
+        AuthenticatedUser identity = cache.get(firebaseUid, uid -> {
+            loaded.set(true);
+            return userRepository.findByFirebaseUid(uid).map(AuthenticatedUser::from).orElse(null);
+        });
+        if (loaded.get() && identity != null && invalidations.get() != seen) {
+            // Invalidated while loading by a key the cache could not order, such as the user id
+            cache.asMap().remove(firebaseUid, identity);
+        }
+        return Optional.ofNullable(identity);
+    }
+
+    /**
+     * Resolve the identity for a Firebase UID, failing if the user does not exist.
+     * @throws UserNotFoundException if no user exists with that UID
+     */
+    public AuthenticatedUser require(String firebaseUid) {
+        return resolve(firebaseUid)
+                .orElseThrow(() -> new UserNotFoundException("User not found with Firebase UID: " + firebaseUid));
+    }
+
+    /**
+     * Drop any cached identity for a user, including the one attached to the current request,
+     * here and on the other nodes.
+     */
+    public void invalidate(String firebaseUid) {
+        if (firebaseUid == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        cache.invalidate(firebaseUid);
+        eventPublisher.publishEvent(new CacheInvalidation().evict(CACHE_NAME, firebaseUid));
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof AbstractAuthenticationToken token
+                && token.getDetails() instanceof AuthenticatedUser attached
+                && attached.firebaseUid().equals(firebaseUid)) {
+            token.setDetails(null);
+        }
+    }
+
+    /**
+     * Drop any cached identity for the given user entity.
+     */
+    public void invalidate(User user) {
+        if (user != null) {
+            invalidate(user.getFirebaseUid());
+        }
+    }
+
+    /**
+     * Drop all cached identities, e.g. after a bulk update of users.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+        eventPublisher.publishEvent(new CacheInvalidation().clear(CACHE_NAME));
+    }
+
+    /**
+     * Apply an invalidation from another node. A key is either a Firebase UID or, when only the
+     * document id of a changed user is known, a user id, which takes a scan of the cache.
+     */
+    @Override
+    public void apply(CacheInvalidation invalidation) {
+        if (invalidation.getClears().contains(CACHE_NAME)) {
+            invalidations.incrementAndGet();
+            cache.invalidateAll();
+            return;
+        }
+        Set<String> keys = invalidation.getEvictions().get(CACHE_NAME);
+        if (keys != null) {
+            invalidations.incrementAndGet();
+            cache.invalidateAll(keys);
+            cache.asMap().values().removeIf(identity -> keys.contains(identity.id()));
+        }
+    }
+
+    /**
+     * Underlying Caffeine cache, exposed for statistics reporting.
+     */
+    public Cache<String, AuthenticatedUser> getNativeCache() {
+        return cache;
+    }
+
+    private static AuthenticatedUser attachedToRequest() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getDetails() instanceof AuthenticatedUser identity
+                ? identity
+                : null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.devlcm.lcm.security;
+
+import java.util.List;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * The parts of a verified Firebase ID token the application actually needs.
+ * Small enough to be cached per token and turned back into an
+ * {@link UsernamePasswordAuthenticationToken} without any crypto work.
+ *
+ * @param uid Firebase UID (the token's {@code sub} claim)
+ * @param authority granted authority derived from the {@code role} custom claim, e.g. {@code ROLE_STUDENT}
+ * @param expiresAtEpochSecond the token's {@code exp} claim
+ */
+public record VerifiedToken(String uid, String authority, long expiresAtEpochSecond) {
+
+    private static final String DEFAULT_ROLE = "STUDENT";
+
+    /**
+     * Build from raw claim values, applying the same role defaulting the filter always used.
+     */
+    public static VerifiedToken of(String uid, Object roleClaim, long expiresAtEpochSecond) {
+        String role = roleClaim instanceof String s && !s.isEmpty() ? s : DEFAULT_ROLE;
+        return new VerifiedToken(uid, "ROLE_" + role.toUpperCase(), expiresAtEpochSecond);
+    }
+
+    /**
+     * Remaining lifetime in nanoseconds relative to the wall clock, never negative.
+     */
+    public long nanosUntilExpiry() {
+        long remainingMillis = expiresAtEpochSecond * 1000L - System.currentTimeMillis();
+        return remainingMillis <= 0 ? 0 : remainingMillis * 1_000_000L;
+    }
+
+    public UsernamePasswordAuthenticationToken toAuthentication() {
+        return new UsernamePasswordAuthenticationToken(
+            uid, null, List.of(new SimpleGrantedAuthority(authority)));
+    }
+}
@@ -0,0 +1,93 @@
+package com.devlcm.lcm.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Bounded cache of already-verified ID tokens.
+ * Entries are keyed by a SHA-256 digest of the raw token, so the bearer credential itself is
+ * never held in memory longer than the request, and each entry expires at the token's own
+ * {@code exp} claim. A hit lets the auth filter skip signature verification entirely.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${app.auth.token-cache.max-size:50000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Derive the cache key for a raw bearer token.
+     */
+    public String keyFor(String token) {
+        MessageDigest digest = SHA_256.get();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * @return the cached verification result, or null on a miss or if the token has expired
+     */
+    public VerifiedToken get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Cache a verification result until the token's expiry. Already-expired tokens are ignored.
+     */
+    public void put(String key, VerifiedToken token) {
+        if (token.nanosUntilExpiry() > 0) {
+            cache.put(key, token);
+        }
+    }
+
+    /**
+     * Underlying Caffeine cache, exposed for statistics reporting.
+     */
+    public Cache<String, VerifiedToken> getNativeCache() {
+        return cache;
+    }
+
+    /**
+     * Per-entry expiry pinned to the token's {@code exp}; reads never extend it.
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return value.nanosUntilExpiry();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return value.nanosUntilExpiry();
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -11,9 +11,9 @@ import com.devlcm.lcm.entity.QuizzAndQuestions.Quizz;
 import com.devlcm.lcm.exception.*;
 import com.devlcm.lcm.mapper.AllMapper;
 import com.devlcm.lcm.repository.*;
+import com.devlcm.lcm.security.UserIdentityResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -37,6 +37,8 @@ public class AdminService {
     private final TopicRepository topicRepository;
     private final QuizRepository quizRepository;
     private final UserProgressRepository userProgressRepository;
+    private final UserIdentityResolver userIdentityResolver;
+    private final CacheInvalidationService cacheInvalidation;
     
     // Mapper
     private final AllMapper mapper;
@@ -73,6 +75,7 @@ public class AdminService {
         
         user.setRole(newRole);
         User updated = userRepository.save(user);
+        userIdentityResolver.invalidate(updated);
         
         log.info("Admin: Successfully updated user {} role to {}", userId, newRole);
         return mapper.toUserDTO(updated);
@@ -85,15 +88,18 @@ public class AdminService {
     public void deleteUser(String userId) {
         log.info("Admin: Deleting user with ID: {}", userId);
         
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException("User not found with ID: " + userId);
-        }
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
         
         // Delete user progress
         userProgressRepository.deleteByUserId(userId);
+        if (user.getEnrolledCourseIds() != null) {
+            user.getEnrolledCourseIds().forEach(courseId -> cacheInvalidation.userProgressChanged(userId, courseId));
+        }
         
         // Delete user
         userRepository.deleteById(userId);
+        userIdentityResolver.invalidate(user);
         
         log.info("Admin: Successfully deleted user {}", userId);
     }
@@ -118,12 +124,12 @@ public class AdminService {
      * Create a new course
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.COURSES_CACHE, CacheConfig.COURSE_STATS_CACHE, CacheConfig.DASHBOARD_STATS_CACHE}, allEntries = true)
     public CourseDTO createCourse(CourseDTO courseDTO) {
         log.info("Admin: Creating new course: {}", courseDTO.getTitle());
         
         Course course = mapper.toCourseEntity(courseDTO);
         Course saved = courseRepository.save(course);
+        cacheInvalidation.courseCreated();
         
         log.info("Admin: Successfully created course with ID: {}", saved.getId());
         return mapper.toCourseDTO(saved);
@@ -133,7 +139,6 @@ public class AdminService {
      * Update existing course
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.COURSES_CACHE, CacheConfig.COURSE_BY_ID_CACHE, CacheConfig.COURSE_STATS_CACHE, CacheConfig.DASHBOARD_STATS_CACHE}, allEntries = true)
     public CourseDTO updateCourse(String courseId, CourseDTO courseDTO) {
         log.info("Admin: Updating course with ID: {}", courseId);
         
@@ -146,6 +151,7 @@ public class AdminService {
         existing.setSubject(courseDTO.getSubject());
         
         Course updated = courseRepository.save(existing);
+        cacheInvalidation.courseUpdated(courseId);
         
         log.info("Admin: Successfully updated course {}", courseId);
         return mapper.toCourseDTO(updated);
@@ -155,10 +161,6 @@ public class AdminService {
      * Delete course (cascades to chapters, topics, quizzes)
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.COURSES_CACHE, CacheConfig.COURSE_BY_ID_CACHE, 
-                         CacheConfig.CHAPTERS_CACHE, CacheConfig.TOPICS_CACHE, 
-                         CacheConfig.QUIZZES_CACHE, CacheConfig.COURSE_STATS_CACHE, 
-                         CacheConfig.DASHBOARD_STATS_CACHE}, allEntries = true)
     public void deleteCourse(String courseId) {
         log.info("Admin: Deleting course with ID: {}", courseId);
         
@@ -174,6 +176,7 @@ public class AdminService {
         
         // Delete course
         courseRepository.deleteById(courseId);
+        cacheInvalidation.courseDeleted(courseId);
         
         log.info("Admin: Successfully deleted course {} and all related data", courseId);
     }
@@ -199,9 +202,6 @@ public class AdminService {
      * Create a new chapter for a course
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.CHAPTERS_CACHE, CacheConfig.COURSES_CACHE, 
-                         CacheConfig.COURSE_BY_ID_CACHE, CacheConfig.COURSE_STATS_CACHE, 
-                         CacheConfig.DASHBOARD_STATS_CACHE}, allEntries = true)
     public ChapterDTO createChapter(String courseId, ChapterDTO chapterDTO) {
         log.info("Admin: Creating new chapter for course {}: {}", courseId, chapterDTO.getTitle());
         
@@ -215,6 +215,7 @@ public class AdminService {
         // Add chapter to course
         course.getChapterIds().add(saved.getId());
         courseRepository.save(course);
+        cacheInvalidation.chapterCreated(saved);
         
         log.info("Admin: Successfully created chapter with ID: {}", saved.getId());
         return mapper.toChapterDTO(saved);
@@ -224,8 +225,6 @@ public class AdminService {
      * Update chapter
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.CHAPTERS_CACHE, CacheConfig.CHAPTER_BY_ID_CACHE, 
-                         CacheConfig.COURSES_CACHE, CacheConfig.COURSE_BY_ID_CACHE}, allEntries = true)
     public ChapterDTO updateChapter(String chapterId, ChapterDTO chapterDTO) {
         log.info("Admin: Updating chapter with ID: {}", chapterId);
         
@@ -236,6 +235,7 @@ public class AdminService {
         existing.setDescription(chapterDTO.getDescription());
         
         Chapter updated = chapterRepository.save(existing);
+        cacheInvalidation.chapterUpdated(updated);
         
         log.info("Admin: Successfully updated chapter {}", chapterId);
         return mapper.toChapterDTO(updated);
@@ -245,10 +245,6 @@ public class AdminService {
      * Delete chapter (cascades to topics and quizzes)
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.CHAPTERS_CACHE, CacheConfig.CHAPTER_BY_ID_CACHE, 
-                         CacheConfig.TOPICS_CACHE, CacheConfig.QUIZZES_CACHE,
-                         CacheConfig.COURSES_CACHE, CacheConfig.COURSE_BY_ID_CACHE,
-                         CacheConfig.COURSE_STATS_CACHE, CacheConfig.DASHBOARD_STATS_CACHE}, allEntries = true)
     public void deleteChapter(String chapterId) {
         log.info("Admin: Deleting chapter with ID: {}", chapterId);
         
@@ -277,6 +273,7 @@ public class AdminService {
         
         // Delete chapter
         chapterRepository.deleteById(chapterId);
+        cacheInvalidation.chapterDeleted(chapter, null);
         
         log.info("Admin: Successfully deleted chapter {}", chapterId);
     }
@@ -287,9 +284,6 @@ public class AdminService {
      * Create a new topic for a chapter
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.TOPICS_CACHE, CacheConfig.CHAPTERS_CACHE, 
-                         CacheConfig.CHAPTER_BY_ID_CACHE, CacheConfig.COURSE_STATS_CACHE, 
-                         CacheConfig.DASHBOARD_STATS_CACHE}, allEntries = true)
     public TopicDTO createTopic(String chapterId, TopicDTO topicDTO) {
         log.info("Admin: Creating new topic for chapter {}: {}", chapterId, topicDTO.getTitle());
         
@@ -303,6 +297,7 @@ public class AdminService {
         // Add topic to chapter
         chapter.getTopicIds().add(saved.getId());
         chapterRepository.save(chapter);
+        cacheInvalidation.topicCreated(saved, chapter);
         
         log.info("Admin: Successfully created topic with ID: {}", saved.getId());
         return mapper.toTopicDTO(saved);
@@ -312,8 +307,6 @@ public class AdminService {
      * Update existing topic
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.TOPICS_CACHE, CacheConfig.TOPIC_BY_ID_CACHE, 
-                         CacheConfig.CHAPTERS_CACHE, CacheConfig.CHAPTER_BY_ID_CACHE}, allEntries = true)
     public TopicDTO updateTopic(String topicId, TopicDTO topicDTO) {
         log.info("Admin: Updating topic with ID: {}", topicId);
         
@@ -324,6 +317,7 @@ public class AdminService {
         existing.setContent(topicDTO.getContent());
         
         Topic updated = topicRepository.save(existing);
+        cacheInvalidation.topicUpdated(updated);
         
         log.info("Admin: Successfully updated topic {}", topicId);
         return mapper.toTopicDTO(updated);
@@ -333,9 +327,6 @@ public class AdminService {
      * Delete topic (removes from chapter and deletes associated quiz)
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.TOPICS_CACHE, CacheConfig.TOPIC_BY_ID_CACHE, 
-                         CacheConfig.CHAPTERS_CACHE, CacheConfig.CHAPTER_BY_ID_CACHE,
-                         CacheConfig.COURSE_STATS_CACHE, CacheConfig.DASHBOARD_STATS_CACHE}, allEntries = true)
     public void deleteTopic(String topicId) {
         log.info("Admin: Deleting topic with ID: {}", topicId);
         
@@ -350,15 +341,17 @@ public class AdminService {
         // Note: Quizzes are now at chapter level, not topic level
         
         // Remove topic from chapter
-        if (topic.getChapterId() != null) {
-            chapterRepository.findById(topic.getChapterId()).ifPresent(chapter -> {
-                chapter.getTopicIds().remove(topicId);
-                chapterRepository.save(chapter);
-            });
+        Chapter chapter = topic.getChapterId() != null
+            ? chapterRepository.findById(topic.getChapterId()).orElse(null)
+            : null;
+        if (chapter != null) {
+            chapter.getTopicIds().remove(topicId);
+            chapterRepository.save(chapter);
         }
         
         // Delete topic
         topicRepository.deleteById(topicId);
+        cacheInvalidation.topicDeleted(topic, chapter);
         
         log.info("Admin: Successfully deleted topic {}", topicId);
     }
@@ -369,8 +362,6 @@ public class AdminService {
      * Create a new quiz for a chapter
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.QUIZZES_CACHE, CacheConfig.QUIZ_BY_ID_CACHE,
-                         CacheConfig.COURSE_STATS_CACHE, CacheConfig.DASHBOARD_STATS_CACHE}, allEntries = true)
     public QuizzDTO createQuiz(String chapterId, QuizzDTO quizzDTO) {
         log.info("Admin: Creating new quiz for chapter {}", chapterId);
         
@@ -386,6 +377,7 @@ public class AdminService {
         Quizz quiz = mapper.toQuizzEntity(quizzDTO);
         quiz.setChapterId(chapterId);
         Quizz saved = quizRepository.save(quiz);
+        cacheInvalidation.quizCreated(saved);
         
         log.info("Admin: Successfully created quiz with ID: {}", saved.getId());
         return mapper.toQuizzDTO(saved);
@@ -395,7 +387,6 @@ public class AdminService {
      * Update existing quiz
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.QUIZZES_CACHE, CacheConfig.QUIZ_BY_ID_CACHE}, allEntries = true)
     public QuizzDTO updateQuiz(String quizId, QuizzDTO quizzDTO) {
         log.info("Admin: Updating quiz with ID: {}", quizId);
         
@@ -417,6 +408,7 @@ public class AdminService {
         existing.setQuestion(quizzData.getQuestion());
         
         Quizz updated = quizRepository.save(existing);
+        cacheInvalidation.quizUpdated(updated);
         
         log.info("Admin: Successfully updated quiz {}", quizId);
         return mapper.toQuizzDTO(updated);
@@ -426,16 +418,14 @@ public class AdminService {
      * Delete quiz
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.QUIZZES_CACHE, CacheConfig.QUIZ_BY_ID_CACHE,
-                         CacheConfig.COURSE_STATS_CACHE, CacheConfig.DASHBOARD_STATS_CACHE}, allEntries = true)
     public void deleteQuiz(String quizId) {
         log.info("Admin: Deleting quiz with ID: {}", quizId);
         
-        if (!quizRepository.existsById(quizId)) {
-            throw new QuizNotFoundException("Quiz not found with ID: " + quizId);
-        }
+        Quizz quiz = quizRepository.findById(quizId)
+            .orElseThrow(() -> new QuizNotFoundException("Quiz not found with ID: " + quizId));
         
         quizRepository.deleteById(quizId);
+        cacheInvalidation.quizDeleted(quiz);
         
         log.info("Admin: Successfully deleted quiz {}", quizId);
     }
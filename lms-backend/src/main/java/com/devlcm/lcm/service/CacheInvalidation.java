@@ -0,0 +1,56 @@
+package com.devlcm.lcm.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A set of cache entries to drop: individual keys per cache, plus caches to clear entirely.
+ * Built by {@link CacheInvalidationService} for one write and published as an application
+ * event, so other nodes can be told about exactly the same entries.
+ */
+public final class CacheInvalidation {
+
+    private final Map<String, Set<String>> evictions = new LinkedHashMap<>();
+    private final Set<String> clears = new LinkedHashSet<>();
+
+    public CacheInvalidation evict(String cacheName, String key) {
+        if (key != null) {
+            evictions.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).add(key);
+        }
+        return this;
+    }
+
+    public CacheInvalidation evictAll(String cacheName, Collection<String> keys) {
+        if (keys != null) {
+            keys.forEach(key -> evict(cacheName, key));
+        }
+        return this;
+    }
+
+    public CacheInvalidation clear(String cacheName) {
+        clears.add(cacheName);
+        return this;
+    }
+
+    /**
+     * @return keys to evict, by cache name
+     */
+    public Map<String, Set<String>> getEvictions() {
+        return Collections.unmodifiableMap(evictions);
+    }
+
+    /**
+     * @return names of caches to clear entirely
+     */
+    public Set<String> getClears() {
+        return Collections.unmodifiableSet(clears);
+    }
+
+    public boolean isEmpty() {
+        return evictions.isEmpty() && clears.isEmpty();
+    }
+}
@@ -0,0 +1,654 @@
+package com.devlcm.lcm.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.entity.Chapter;
+import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.entity.Topic;
+import com.devlcm.lcm.entity.QuizzAndQuestions.Quizz;
+import com.devlcm.lcm.search.CourseSearchIndex;
+import com.devlcm.lcm.search.ForumSearchIndex;
+import com.devlcm.lcm.security.UserIdentityResolver;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the per-node Caffeine caches coherent across replicas.
+ * <p>
+ * {@code app.cache.invalidation.mode}:
+ * <ul>
+ *   <li>{@code change-stream}: watches {@code courses}, {@code chapters}, {@code topics}, {@code quizzes},
+ *   {@code user_progress} and {@code users} and evicts the keys derived from each changed document. Also
+ *   catches writes that bypass the services. {@code forum_posts} and {@code forum_replies} are watched on a
+ *   second stream that carries only ids, filtered by the server to edits of the fields the search index
+ *   reads, as views, votes and ranking update posts constantly. Needs a replica set or sharded cluster.</li>
+ *   <li>{@code polling}: every node records the entries it evicted ({@link CacheInvalidation}) in the
+ *   {@code invalidations} collection and tails it for the other nodes' records.</li>
+ *   <li>{@code auto} (default): change streams when the deployment supports them, polling otherwise.</li>
+ *   <li>{@code none}: no cross-node invalidation; entries on other nodes live until they expire.</li>
+ * </ul>
+ * Invalidations received from other nodes also go to every {@link InvalidationTarget}, such as the
+ * identity cache of {@link UserIdentityResolver}, the {@link CourseSearchIndex} and the {@link ForumSearchIndex}.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("!'${app.cache.invalidation.mode:auto}'.equalsIgnoreCase('none')")
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    enum Mode { AUTO, CHANGE_STREAM, POLLING }
+
+    /** The change streams watched, each on its own thread. */
+    enum Feed { CATALOG, FORUM }
+
+    static final List<String> WATCHED_COLLECTIONS = List.of("courses", "chapters", "topics", "quizzes",
+        "user_progress", "users");
+    /** Collections whose inserts and deletes change the catalog statistics. */
+    private static final Set<String> CATALOG_COLLECTIONS = Set.of("courses", "chapters", "topics", "quizzes");
+    /** Fields the forum search index reads, by collection; forum updates touching none of them are skipped. */
+    private static final Map<String, Set<String>> FORUM_INDEXED_FIELDS = Map.of(
+        "forum_posts", ForumSearchIndex.INDEXED_POST_FIELDS,
+        "forum_replies", ForumSearchIndex.INDEXED_REPLY_FIELDS);
+    static final Bson FORUM_CHANGES = forumChanges();
+
+    private static final String NODE = "node";
+    private static final String AT = "at";
+    private static final String EVICT = "evict";
+    private static final String CLEAR = "clear";
+    /** Records can become visible slightly out of {@code at} order; re-read this far back and skip duplicates. */
+    private static final Duration POLL_LOOKBACK = Duration.ofSeconds(5);
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+    /** ChangeStreamFatalError and ChangeStreamHistoryLost: the resume token is no longer usable. */
+    private static final List<Integer> UNRESUMABLE_ERRORS = List.of(280, 286);
+    private static final String CHANGE_STREAM_POSITION = "change-stream:";
+    private static final String POLLING_POSITION = "polling:";
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheInvalidationService cacheInvalidation;
+    private final CacheManager cacheManager;
+    private final List<InvalidationTarget> invalidationTargets;
+    private final Mode configuredMode;
+    private final String collection;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final Counter changeStreamEvents;
+    private final Counter polledInvalidations;
+    private final Counter failedChanges;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Mode activeMode;
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+    private final List<Thread> busThreads = new CopyOnWriteArrayList<>();
+
+    // Written by each feed's thread only; the catalog's is read by position()
+    private final Map<Feed, BsonDocument> resumeTokens = new ConcurrentHashMap<>();
+    private volatile Date pollCursor;
+    private final Map<Object, Date> recentlyApplied = new HashMap<>();
+
+    public CacheInvalidationBus(MongoTemplate mongoTemplate,
+                                CacheInvalidationService cacheInvalidation,
+                                CacheManager cacheManager,
+                                List<InvalidationTarget> invalidationTargets,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cache.invalidation.mode:auto}") String mode,
+                                @Value("${app.cache.invalidation.collection:invalidations}") String collection,
+                                @Value("${app.cache.invalidation.poll-interval:1s}") Duration pollInterval,
+                                @Value("${app.cache.invalidation.retention:1h}") Duration retention) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheInvalidation = cacheInvalidation;
+        this.cacheManager = cacheManager;
+        this.invalidationTargets = invalidationTargets;
+        this.configuredMode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        this.collection = collection;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        this.changeStreamEvents = Counter.builder("cache.invalidation.received")
+            .tag("source", "change-stream")
+            .register(meterRegistry);
+        this.polledInvalidations = Counter.builder("cache.invalidation.received")
+            .tag("source", "polling")
+            .register(meterRegistry);
+        this.failedChanges = Counter.builder("cache.invalidation.failed")
+            .description("Change events that could not be applied; the caches were cleared instead")
+            .register(meterRegistry);
+        Gauge.builder("cache.invalidation.bus.alive", this, bus -> bus.isAlive() ? 1 : 0)
+            .description("Whether the thread receiving other nodes' invalidations is running")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        activeMode = configuredMode == Mode.AUTO
+            ? (supportsChangeStreams() ? Mode.CHANGE_STREAM : Mode.POLLING)
+            : configuredMode;
+        int threads = activeMode == Mode.CHANGE_STREAM ? Feed.values().length : 1;
+        executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-bus");
+            thread.setDaemon(true);
+            thread.setUncaughtExceptionHandler((dead, e) ->
+                log.error("Cache invalidation bus thread died; other nodes' changes are no longer applied", e));
+            busThreads.add(thread);
+            return thread;
+        });
+        running = true;
+        if (activeMode == Mode.CHANGE_STREAM) {
+            for (Feed feed : Feed.values()) {
+                executor.execute(() -> watchChanges(feed));
+            }
+        } else {
+            createIndexes();
+            executor.scheduleWithFixedDelay(this::pollSafely, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        log.info("Cache invalidation bus started in {} mode (node {})", activeMode, nodeId);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    boolean isAlive() {
+        return running && !busThreads.isEmpty() && busThreads.stream().allMatch(Thread::isAlive);
+    }
+
+    private boolean supportsChangeStreams() {
+        try {
+            Document hello = mongoTemplate.getDb().runCommand(new Document("hello", 1));
+            return hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg"));
+        } catch (MongoException e) {
+            log.warn("Could not determine MongoDB topology, falling back to polling: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void createIndexes() {
+        try {
+            // Records are only needed until every node has polled them
+            mongoTemplate.indexOps(collection)
+                .ensureIndex(new Index().on(AT, Sort.Direction.ASC).expire(retention.getSeconds(), TimeUnit.SECONDS));
+        } catch (DataAccessException e) {
+            log.warn("Could not create TTL index on {}: {}", collection, e.getMessage());
+        }
+    }
+
+    // ==================== POLLING ====================
+
+    /**
+     * Record this node's evictions for the other nodes. Only active in polling mode;
+     * change streams see the underlying writes directly.
+     */
+    @EventListener
+    public void onLocalInvalidation(CacheInvalidation invalidation) {
+        if (!running || activeMode != Mode.POLLING || invalidation.isEmpty()) {
+            return;
+        }
+        Document record = toDocument(invalidation);
+        // Stamp with the server's clock so every node polls against the same time line
+        Update update = new Update().currentDate(AT).set(NODE, nodeId);
+        record.forEach(update::set);
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(new ObjectId())), update, collection);
+        } catch (DataAccessException e) {
+            log.warn("Could not publish cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Polling {} failed: {}", collection, e.getMessage());
+        }
+    }
+
+    void poll() {
+        if (pollCursor == null) {
+            // Start after the newest record: anything older predates this node's caches
+            Document newest = mongoTemplate.findOne(new Query().with(Sort.by(Sort.Direction.DESC, AT)),
+                Document.class, collection);
+            pollCursor = newest != null ? newest.getDate(AT) : new Date(0);
+            return;
+        }
+
+        Date since = new Date(pollCursor.getTime() - POLL_LOOKBACK.toMillis());
+        Query query = Query.query(Criteria.where(AT).gte(since)).with(Sort.by(Sort.Direction.ASC, AT));
+        for (Document record : mongoTemplate.find(query, Document.class, collection)) {
+            Date at = record.getDate(AT);
+            if (at.after(pollCursor)) {
+                pollCursor = at;
+            }
+            if (recentlyApplied.putIfAbsent(record.get("_id"), at) != null || nodeId.equals(record.getString(NODE))) {
+                continue;
+            }
+            applyRemote(toInvalidation(record));
+            polledInvalidations.increment();
+        }
+        recentlyApplied.values().removeIf(at -> at.before(since));
+    }
+
+    static Document toDocument(CacheInvalidation invalidation) {
+        Document evict = new Document();
+        invalidation.getEvictions().forEach((cacheName, keys) -> evict.append(cacheName, new ArrayList<>(keys)));
+        return new Document(EVICT, evict).append(CLEAR, new ArrayList<>(invalidation.getClears()));
+    }
+
+    static CacheInvalidation toInvalidation(Document record) {
+        CacheInvalidation invalidation = new CacheInvalidation();
+        Document evict = record.get(EVICT, Document.class);
+        if (evict != null) {
+            evict.keySet().forEach(cacheName -> invalidation.evictAll(cacheName, evict.getList(cacheName, String.class)));
+        }
+        List<String> clear = record.getList(CLEAR, String.class);
+        if (clear != null) {
+            clear.forEach(invalidation::clear);
+        }
+        return invalidation;
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    // ==================== SNAPSHOT SUPPORT ====================
+
+    /**
+     * Opaque marker of how far this node has applied the invalidation feed, or null before the
+     * first poll or change event. Caches captured afterwards reflect at least every change up to it.
+     */
+    String position() {
+        if (activeMode == Mode.CHANGE_STREAM) {
+            BsonDocument token = resumeTokens.get(Feed.CATALOG);
+            return token != null ? CHANGE_STREAM_POSITION + token.toJson() : null;
+        }
+        Date cursor = pollCursor;
+        return cursor != null ? POLLING_POSITION + cursor.getTime() : null;
+    }
+
+    /**
+     * Apply every invalidation recorded since {@code position} to this node's caches.
+     *
+     * @return false if the changes since then can no longer be enumerated, e.g. the change stream
+     * history or the invalidation records have expired, or the position came from another mode
+     */
+    boolean replaySince(String position) {
+        try {
+            if (activeMode == Mode.CHANGE_STREAM && position.startsWith(CHANGE_STREAM_POSITION)) {
+                BsonDocument token = BsonDocument.parse(position.substring(CHANGE_STREAM_POSITION.length()));
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = openChangeStream(Feed.CATALOG, token)) {
+                    ChangeStreamDocument<Document> change;
+                    while ((change = cursor.tryNext()) != null) {
+                        handle(change);
+                    }
+                }
+                return true;
+            }
+            if (activeMode == Mode.POLLING && position.startsWith(POLLING_POSITION)) {
+                long positionMillis = Long.parseLong(position.substring(POLLING_POSITION.length()));
+                Date since = new Date(positionMillis - POLL_LOOKBACK.toMillis());
+                if (System.currentTimeMillis() - since.getTime() >= retention.toMillis()) {
+                    return false;
+                }
+                Query query = Query.query(Criteria.where(AT).gte(since));
+                // Includes this node's own earlier records: they were written before the restart
+                for (Document record : mongoTemplate.find(query, Document.class, collection)) {
+                    applyRemote(toInvalidation(record));
+                }
+                return true;
+            }
+        } catch (MongoException | DataAccessException | NumberFormatException e) {
+            log.warn("Could not replay cache invalidations since {}: {}", position, e.getMessage());
+        }
+        return false;
+    }
+
+    // ==================== CHANGE STREAMS ====================
+
+    private void watchChanges(Feed feed) {
+        while (running) {
+            try {
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor =
+                         openChangeStream(feed, resumeTokens.get(feed))) {
+                    while (running) {
+                        ChangeStreamDocument<Document> change = cursor.tryNext();
+                        if (change != null) {
+                            handleSafely(change);
+                        }
+                        BsonDocument token = cursor.getResumeToken();
+                        if (token != null) {
+                            resumeTokens.put(feed, token);
+                        }
+                        if (change != null && change.getOperationType() == OperationType.INVALIDATE) {
+                            // The stream is closed after an invalidate; start a fresh one
+                            resumeTokens.remove(feed);
+                            break;
+                        }
+                    }
+                }
+            } catch (MongoException e) {
+                if (!running) {
+                    return;
+                }
+                if (e instanceof MongoCommandException command && UNRESUMABLE_ERRORS.contains(command.getErrorCode())) {
+                    // Changes were missed: nothing cached can be trusted any more
+                    log.warn("Cache invalidation change stream cannot resume ({}), clearing caches", e.getMessage());
+                    resumeTokens.remove(feed);
+                    clearEverything();
+                } else {
+                    log.warn("Cache invalidation change stream failed, reconnecting: {}", e.getMessage());
+                }
+                try {
+                    Thread.sleep(RECONNECT_DELAY.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openChangeStream(Feed feed,
+                                                                                   BsonDocument resumeAfter) {
+        ChangeStreamIterable<Document> stream = feed == Feed.CATALOG
+            ? mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.in("ns.coll", WATCHED_COLLECTIONS))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+            // The search index re-reads posts and replies itself, so their events carry only the id
+            : mongoTemplate.getDb().watch(List.of(Aggregates.match(FORUM_CHANGES)));
+        stream = stream.maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeAfter != null) {
+            stream = stream.resumeAfter(resumeAfter);
+        }
+        return stream.cursor();
+    }
+
+    /**
+     * Handle a change event without letting a failure end the watch loop: an event that cannot be
+     * applied, e.g. a document that does not map or a search index that fails to rebuild, clears
+     * every cache instead, as its keys cannot be trusted.
+     */
+    void handleSafely(ChangeStreamDocument<Document> change) {
+        try {
+            handle(change);
+        } catch (RuntimeException e) {
+            failedChanges.increment();
+            log.error("Could not apply {} on {}, clearing caches", change.getOperationType(), change.getNamespace(), e);
+            clearEverything();
+        }
+    }
+
+    /**
+     * Clear this node's caches and every target, each on its own so that one failing does not
+     * keep the others stale.
+     */
+    private void clearEverything() {
+        CacheInvalidation clear = clearAll();
+        try {
+            cacheInvalidation.apply(clear);
+        } catch (RuntimeException e) {
+            log.error("Could not clear caches", e);
+        }
+        for (InvalidationTarget target : invalidationTargets) {
+            try {
+                target.apply(clear);
+            } catch (RuntimeException e) {
+                log.error("Could not clear {}", target.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    void handle(ChangeStreamDocument<Document> change) {
+        changeStreamEvents.increment();
+        switch (change.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> {
+                String collectionName = change.getNamespace().getCollectionName();
+                if (FORUM_INDEXED_FIELDS.containsKey(collectionName)) {
+                    forumChanged(collectionName, idOf(change.getDocumentKey()));
+                    return;
+                }
+                Document document = change.getFullDocument();
+                if (document == null) {
+                    // Deleted again before the update lookup ran
+                    deleted(collectionName, idOf(change.getDocumentKey()));
+                } else {
+                    upserted(collectionName, document, change.getOperationType() == OperationType.INSERT);
+                }
+            }
+            case DELETE -> deleted(change.getNamespace().getCollectionName(), idOf(change.getDocumentKey()));
+            case DROP, RENAME, DROP_DATABASE, INVALIDATE -> applyRemote(clearAll());
+            default -> { }
+        }
+    }
+
+    /**
+     * Inserts and updates evict by the entity's own fields. A child's insert also updates the parent's
+     * id list, which arrives as a change event of its own.
+     */
+    private void upserted(String collectionName, Document document, boolean inserted) {
+        switch (collectionName) {
+            case "courses" -> {
+                String courseId = read(Course.class, document).getId();
+                cacheInvalidation.courseUpdated(courseId);
+                applyToTargets(new CacheInvalidation().evict(CourseSearchIndex.INVALIDATION_NAME, courseId));
+            }
+            case "chapters" -> {
+                Chapter chapter = read(Chapter.class, document);
+                // The cached copy, if any, tells whether the chapter moved to another course
+                Chapter previous = cached(CacheConfig.CHAPTER_BY_ID_CACHE, chapter.getId(), Chapter.class);
+                cacheInvalidation.chapterUpdated(chapter, previous != null ? previous.getCourseId() : null);
+            }
+            case "topics" -> cacheInvalidation.topicUpdated(read(Topic.class, document));
+            case "quizzes" -> cacheInvalidation.quizUpdated(read(Quizz.class, document));
+            case "user_progress" -> cacheInvalidation.userProgressChanged(document.getString("userId"),
+                document.getString("courseId"));
+            // The id also catches an identity still cached under a Firebase UID the user no longer has
+            case "users" -> applyToTargets(new CacheInvalidation()
+                .evict(UserIdentityResolver.CACHE_NAME, document.getString("firebaseUid"))
+                .evict(UserIdentityResolver.CACHE_NAME, idOf(document.get("_id"))));
+            default -> { }
+        }
+        if (inserted && CATALOG_COLLECTIONS.contains(collectionName)) {
+            cacheInvalidation.catalogCountsChanged();
+        }
+    }
+
+    /**
+     * Delete events only carry the id. Parent keys come from the locally cached copy where there is one;
+     * otherwise the list caches the entity could appear in are cleared.
+     */
+    private void deleted(String collectionName, String id) {
+        CacheInvalidation invalidation = new CacheInvalidation();
+        switch (collectionName) {
+            case "courses" -> {
+                cacheInvalidation.courseDeleted(id);
+                invalidation.evict(CourseSearchIndex.INVALIDATION_NAME, id);
+            }
+            case "chapters" -> {
+                Chapter previous = cached(CacheConfig.CHAPTER_BY_ID_CACHE, id, Chapter.class);
+                if (previous != null) {
+                    cacheInvalidation.chapterUpdated(previous);
+                } else {
+                    invalidation.evict(CacheConfig.CHAPTER_BY_ID_CACHE, id)
+                        .evict(CacheConfig.TOPICS_CACHE, id)
+                        .clear(CacheConfig.CHAPTERS_CACHE)
+                        .clear(CacheConfig.COURSE_TREE_CACHE);
+                }
+                invalidation.evict(CacheConfig.QUIZZES_CACHE, id);
+            }
+            case "topics" -> {
+                Topic previous = cached(CacheConfig.TOPIC_BY_ID_CACHE, id, Topic.class);
+                if (previous != null) {
+                    cacheInvalidation.topicUpdated(previous);
+                } else {
+                    invalidation.evict(CacheConfig.TOPIC_BY_ID_CACHE, id)
+                        .clear(CacheConfig.TOPICS_CACHE)
+                        .clear(CacheConfig.COURSE_TREE_CACHE);
+                }
+            }
+            case "quizzes" -> invalidation.evict(CacheConfig.QUIZ_BY_ID_CACHE, id)
+                .clear(CacheConfig.QUIZZES_CACHE)
+                .clear(CacheConfig.COURSE_TREE_CACHE);
+            // Only the progress document's own id is known, not its userId_courseId key
+            case "user_progress" -> invalidation.clear(CacheConfig.USER_PROGRESS_CACHE);
+            case "users" -> invalidation.evict(UserIdentityResolver.CACHE_NAME, id);
+            case "forum_posts" -> invalidation.evict(ForumSearchIndex.POST_INVALIDATION_NAME, id);
+            case "forum_replies" -> invalidation.evict(ForumSearchIndex.REPLY_INVALIDATION_NAME, id);
+            default -> { }
+        }
+        applyRemote(invalidation);
+        if (CATALOG_COLLECTIONS.contains(collectionName)) {
+            cacheInvalidation.catalogCountsChanged();
+        }
+    }
+
+    /**
+     * A post or reply was inserted, replaced or had an indexed field edited; the search index re-reads it.
+     */
+    private void forumChanged(String collectionName, String id) {
+        String name = collectionName.equals("forum_posts")
+            ? ForumSearchIndex.POST_INVALIDATION_NAME
+            : ForumSearchIndex.REPLY_INVALIDATION_NAME;
+        applyToTargets(new CacheInvalidation().evict(name, id));
+    }
+
+    /**
+     * Forum posts are updated constantly for views, votes and ranking; only edits of the fields the
+     * search index reads need to reach it. The filter runs on the server, matching updates by the
+     * top-level fields of their updated, removed and truncated paths ({@code "tags.2"} changes
+     * {@code tags}); inserts, replaces and deletes always pass.
+     */
+    private static Bson forumChanges() {
+        List<Bson> edits = new ArrayList<>();
+        FORUM_INDEXED_FIELDS.forEach((collectionName, fields) -> edits.add(Filters.and(
+            Filters.eq("ns.coll", collectionName),
+            Filters.expr(new Document("$anyElementTrue", List.of(new Document("$map", new Document("input", changedPaths())
+                .append("in", new Document("$in", List.of(
+                    new Document("$arrayElemAt", List.of(new Document("$split", List.of("$$this", ".")), 0)),
+                    List.copyOf(fields)))))))))));
+        return Filters.and(
+            Filters.in("ns.coll", FORUM_INDEXED_FIELDS.keySet()),
+            Filters.or(Filters.ne("operationType", "update"), Filters.or(edits)));
+    }
+
+    /** The paths an update event changed, as an aggregation expression. */
+    private static Document changedPaths() {
+        Document updated = new Document("$map", new Document("input", new Document("$objectToArray",
+            new Document("$ifNull", List.of("$updateDescription.updatedFields", new Document()))))
+            .append("in", "$$this.k"));
+        Document removed = new Document("$ifNull", List.of("$updateDescription.removedFields", List.of()));
+        Document truncated = new Document("$map", new Document("input",
+            new Document("$ifNull", List.of("$updateDescription.truncatedArrays", List.of())))
+            .append("in", "$$this.field"));
+        return new Document("$concatArrays", List.of(updated, removed, truncated));
+    }
+
+    /**
+     * Apply an invalidation that originates elsewhere: to this node's caches and to every
+     * {@link InvalidationTarget}, without publishing it again.
+     */
+    private void applyRemote(CacheInvalidation invalidation) {
+        cacheInvalidation.apply(invalidation);
+        applyToTargets(invalidation);
+    }
+
+    private void applyToTargets(CacheInvalidation invalidation) {
+        for (InvalidationTarget target : invalidationTargets) {
+            target.apply(invalidation);
+        }
+    }
+
+    private <T> T read(Class<T> type, Document document) {
+        return mongoTemplate.getConverter().read(type, document);
+    }
+
+    private <T> T cached(String cacheName, String id, Class<T> type) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Object value = null;
+        if (cache instanceof CaffeineCache caffeineCache) {
+            // Peek only: a get on a refreshing (loading) cache would query Mongo on a miss
+            value = caffeineCache.getNativeCache().getIfPresent(id);
+        } else if (cache != null) {
+            Cache.ValueWrapper wrapper = cache.get(id);
+            value = wrapper != null ? wrapper.get() : null;
+        }
+        if (value instanceof Optional<?> optional) {
+            value = optional.orElse(null);
+        }
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        BsonValue id = documentKey.get("_id");
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private static String idOf(Object id) {
+        return id instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(id);
+    }
+
+    private static CacheInvalidation clearAll() {
+        CacheInvalidation invalidation = new CacheInvalidation();
+        CacheConfig.CACHE_NAMES.forEach(invalidation::clear);
+        return invalidation.clear(UserIdentityResolver.CACHE_NAME)
+            .clear(CourseSearchIndex.INVALIDATION_NAME)
+            .clear(ForumSearchIndex.POST_INVALIDATION_NAME);
+    }
+}
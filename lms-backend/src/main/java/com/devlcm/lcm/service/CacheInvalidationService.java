@@ -0,0 +1,242 @@
+package com.devlcm.lcm.service;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.entity.Chapter;
+import com.devlcm.lcm.entity.Topic;
+import com.devlcm.lcm.entity.QuizzAndQuestions.Quizz;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Key-precise cache eviction for catalog and progress writes.
+ * <p>
+ * Knows which cached entries are derived from which entity:
+ * <ul>
+ *   <li>course &rarr; {@code courseById[courseId]}, the {@code courses} list, {@code chapters[courseId]}</li>
+ *   <li>chapter &rarr; {@code chapterById[chapterId]}, {@code chapters[courseId]}, {@code topics[chapterId]}</li>
+ *   <li>topic &rarr; {@code topicById[topicId]}, {@code topics[chapterId]}</li>
+ *   <li>quiz &rarr; {@code quizById[quizId]}, {@code quizzes[chapterId]}</li>
+ *   <li>course, chapter, topic, quiz &rarr; {@code courseTree[courseId]} of the owning course</li>
+ *   <li>progress &rarr; {@code userProgress[userId_courseId]}</li>
+ * </ul>
+ * Adding or removing a child also changes the parent's id list ({@code chapterIds}, {@code topicIds}),
+ * so the parent's entries go too. Creates and deletes drop the catalog statistics.
+ * Call after the write succeeded, as {@code @CacheEvict} would.
+ * <p>
+ * Each call evicts locally and publishes the evicted entries as a {@link CacheInvalidation}
+ * event, which {@link CacheInvalidationBus} forwards to other nodes where needed.
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheInvalidationService {
+
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Key of a {@code userProgress} entry; shared with the {@code @Cacheable} key expression.
+     */
+    public static String userProgressKey(String userId, String courseId) {
+        return userId + "_" + courseId;
+    }
+
+    // ==================== COURSES ====================
+
+    public void courseCreated() {
+        CacheInvalidation invalidation = new CacheInvalidation().clear(CacheConfig.COURSES_CACHE);
+        submit(catalogCounts(invalidation));
+    }
+
+    public void courseUpdated(String courseId) {
+        submit(course(new CacheInvalidation(), courseId));
+    }
+
+    /**
+     * Evicts the course itself; its chapters are evicted through {@link #chapterDeleted(Chapter, Quizz)}.
+     */
+    public void courseDeleted(String courseId) {
+        submit(catalogCounts(course(new CacheInvalidation(), courseId)));
+    }
+
+    private static CacheInvalidation course(CacheInvalidation invalidation, String courseId) {
+        return invalidation
+                .clear(CacheConfig.COURSES_CACHE)
+                .evict(CacheConfig.COURSE_BY_ID_CACHE, courseId)
+                // The chapter list is resolved through the course's chapterIds
+                .evict(CacheConfig.CHAPTERS_CACHE, courseId)
+                .evict(CacheConfig.COURSE_TREE_CACHE, courseId);
+    }
+
+    // ==================== CHAPTERS ====================
+
+    public void chapterCreated(Chapter chapter) {
+        CacheInvalidation invalidation = chapter(new CacheInvalidation(), chapter, chapter.getCourseId());
+        submit(catalogCounts(chapterMembership(invalidation, chapter.getCourseId())));
+    }
+
+    public void chapterUpdated(Chapter chapter) {
+        chapterUpdated(chapter, chapter.getCourseId());
+    }
+
+    /**
+     * A chapter write that may also have moved it away from {@code previousCourseId}.
+     */
+    public void chapterUpdated(Chapter chapter, String previousCourseId) {
+        submit(chapter(new CacheInvalidation(), chapter, previousCourseId));
+    }
+
+    /**
+     * Evicts a deleted chapter with its topics and, if given, its quiz.
+     */
+    public void chapterDeleted(Chapter chapter, Quizz quiz) {
+        CacheInvalidation invalidation = chapter(new CacheInvalidation(), chapter, chapter.getCourseId())
+                .evictAll(CacheConfig.TOPIC_BY_ID_CACHE, chapter.getTopicIds())
+                .evict(CacheConfig.QUIZZES_CACHE, chapter.getId());
+        if (quiz != null) {
+            invalidation.evict(CacheConfig.QUIZ_BY_ID_CACHE, quiz.getId());
+        }
+        submit(catalogCounts(chapterMembership(invalidation, chapter.getCourseId())));
+    }
+
+    private static CacheInvalidation chapter(CacheInvalidation invalidation, Chapter chapter, String previousCourseId) {
+        invalidation
+                .evict(CacheConfig.CHAPTER_BY_ID_CACHE, chapter.getId())
+                .evict(CacheConfig.CHAPTERS_CACHE, chapter.getCourseId())
+                .evict(CacheConfig.COURSE_TREE_CACHE, chapter.getCourseId())
+                // The topic list is resolved through the chapter's topicIds
+                .evict(CacheConfig.TOPICS_CACHE, chapter.getId());
+        if (previousCourseId != null && !previousCourseId.equals(chapter.getCourseId())) {
+            invalidation
+                    .evict(CacheConfig.CHAPTERS_CACHE, previousCourseId)
+                    .evict(CacheConfig.COURSE_TREE_CACHE, previousCourseId);
+        }
+        return invalidation;
+    }
+
+    private static CacheInvalidation chapterMembership(CacheInvalidation invalidation, String courseId) {
+        return invalidation
+                .clear(CacheConfig.COURSES_CACHE)
+                .evict(CacheConfig.COURSE_BY_ID_CACHE, courseId);
+    }
+
+    // ==================== TOPICS ====================
+
+    /**
+     * @param chapter the topic's chapter after the write, or null if it no longer exists
+     */
+    public void topicCreated(Topic topic, Chapter chapter) {
+        CacheInvalidation invalidation = topic(new CacheInvalidation(), topic)
+                .evict(CacheConfig.CHAPTER_BY_ID_CACHE, topic.getChapterId());
+        if (chapter != null) {
+            invalidation
+                    .evict(CacheConfig.CHAPTERS_CACHE, chapter.getCourseId())
+                    .evict(CacheConfig.COURSE_TREE_CACHE, chapter.getCourseId());
+        } else {
+            courseTree(invalidation, topic.getChapterId());
+        }
+        submit(catalogCounts(invalidation));
+    }
+
+    public void topicUpdated(Topic topic) {
+        submit(courseTree(topic(new CacheInvalidation(), topic), topic.getChapterId()));
+    }
+
+    /**
+     * @param chapter the topic's chapter after the write, or null if it no longer exists
+     */
+    public void topicDeleted(Topic topic, Chapter chapter) {
+        topicCreated(topic, chapter);
+    }
+
+    private static CacheInvalidation topic(CacheInvalidation invalidation, Topic topic) {
+        return invalidation
+                .evict(CacheConfig.TOPIC_BY_ID_CACHE, topic.getId())
+                .evict(CacheConfig.TOPICS_CACHE, topic.getChapterId());
+    }
+
+    // ==================== QUIZZES ====================
+
+    public void quizCreated(Quizz quiz) {
+        submit(catalogCounts(courseTree(quiz(new CacheInvalidation(), quiz), quiz.getChapterId())));
+    }
+
+    public void quizUpdated(Quizz quiz) {
+        submit(courseTree(quiz(new CacheInvalidation(), quiz), quiz.getChapterId()));
+    }
+
+    public void quizDeleted(Quizz quiz) {
+        quizCreated(quiz);
+    }
+
+    private static CacheInvalidation quiz(CacheInvalidation invalidation, Quizz quiz) {
+        return invalidation
+                .evict(CacheConfig.QUIZ_BY_ID_CACHE, quiz.getId())
+                .evict(CacheConfig.QUIZZES_CACHE, quiz.getChapterId());
+    }
+
+    /**
+     * Evict the tree of the course owning {@code chapterId}. Topics and quizzes only reference their
+     * chapter, so the course is taken from the cached chapter; without one, all trees are dropped.
+     * The decision is made here and published as is, so other nodes evict the same entries.
+     */
+    private CacheInvalidation courseTree(CacheInvalidation invalidation, String chapterId) {
+        if (chapterId != null
+                && cacheManager.getCache(CacheConfig.CHAPTER_BY_ID_CACHE) instanceof CaffeineCache chapters
+                && chapters.getNativeCache().getIfPresent(chapterId) instanceof Chapter chapter
+                && chapter.getCourseId() != null) {
+            return invalidation.evict(CacheConfig.COURSE_TREE_CACHE, chapter.getCourseId());
+        }
+        return invalidation.clear(CacheConfig.COURSE_TREE_CACHE);
+    }
+
+    // ==================== PROGRESS & STATS ====================
+
+    public void userProgressChanged(String userId, String courseId) {
+        submit(new CacheInvalidation().evict(CacheConfig.USER_PROGRESS_CACHE, userProgressKey(userId, courseId)));
+    }
+
+    /**
+     * Catalog totals changed; the statistics caches hold a single entry each.
+     */
+    public void catalogCountsChanged() {
+        submit(catalogCounts(new CacheInvalidation()));
+    }
+
+    private static CacheInvalidation catalogCounts(CacheInvalidation invalidation) {
+        return invalidation
+                .clear(CacheConfig.COURSE_STATS_CACHE)
+                .clear(CacheConfig.DASHBOARD_STATS_CACHE);
+    }
+
+    /**
+     * Evict entries on this node only, without publishing; used for invalidations received from other nodes.
+     */
+    public void apply(CacheInvalidation invalidation) {
+        for (String cacheName : invalidation.getClears()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : invalidation.getEvictions().entrySet()) {
+            Cache cache = cacheManager.getCache(entry.getKey());
+            if (cache != null && !invalidation.getClears().contains(entry.getKey())) {
+                entry.getValue().forEach(cache::evict);
+            }
+        }
+    }
+
+    private void submit(CacheInvalidation invalidation) {
+        apply(invalidation);
+        eventPublisher.publishEvent(invalidation);
+    }
+}
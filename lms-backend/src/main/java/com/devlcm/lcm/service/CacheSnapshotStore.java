@@ -0,0 +1,313 @@
+package com.devlcm.lcm.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.ByteBuf;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.support.NullValue;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.dto.TopicPreviewDTO;
+import com.devlcm.lcm.entity.Chapter;
+import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.entity.Topic;
+import com.devlcm.lcm.entity.QuizzAndQuestions.Quizz;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Persists the catalog caches across restarts, enabled with {@code app.cache.snapshot.enabled=true}.
+ * <p>
+ * On shutdown the selected caches are written to {@code app.cache.snapshot.file}: a small header
+ * followed by each entry's key and its entities as BSON. On startup, before {@link CatalogCacheWarmer}
+ * runs, the file is memory-mapped and loaded back. The header records how far the node had applied
+ * the {@link CacheInvalidationBus} feed; everything invalidated since is replayed onto the restored
+ * entries, and the snapshot is dropped if that is no longer possible. Without a bus position, a
+ * snapshot is only trusted while younger than {@code app.cache.snapshot.max-age}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.cache.snapshot.enabled", havingValue = "true")
+public class CacheSnapshotStore implements ApplicationRunner {
+
+    private static final int MAGIC = 0x4C4D5343; // "LMSC"
+    private static final short FORMAT_VERSION = 1;
+
+    private static final byte STRING_KEY = 0;
+    private static final byte EMPTY_KEY = 1;
+    private static final byte NULL_VALUE = 0;
+    private static final byte SINGLE_VALUE = 1;
+    private static final byte LIST_VALUE = 2;
+
+    /** Only these types are written and read back; the index is their tag in the file, so only append. */
+    private static final List<Class<?>> ENTITY_TYPES =
+        List.of(Course.class, Chapter.class, Topic.class, Quizz.class, TopicPreviewDTO.class);
+    private static final DocumentCodec CODEC = new DocumentCodec();
+
+    private final CacheManager cacheManager;
+    private final MongoConverter mongoConverter;
+    private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final Path file;
+    private final List<String> cacheNames;
+    private final Duration maxAge;
+
+    public CacheSnapshotStore(CacheManager cacheManager,
+                              MongoConverter mongoConverter,
+                              ObjectProvider<CacheInvalidationBus> invalidationBus,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.snapshot.file:cache-snapshot.bin}") Path file,
+                              @Value("${app.cache.snapshot.caches:courses,courseById,chapters,chapterById,topics,topicById,quizzes}") List<String> cacheNames,
+                              @Value("${app.cache.snapshot.max-age:10m}") Duration maxAge) {
+        this.cacheManager = cacheManager;
+        this.mongoConverter = mongoConverter;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.file = file;
+        this.cacheNames = cacheNames;
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        restore();
+    }
+
+    // ==================== WRITE ====================
+
+    @PreDestroy
+    public void save() {
+        long startNanos = System.nanoTime();
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        // Taken before the entries: changes racing with the dump are replayed on restore
+        String position = bus != null ? bus.position() : null;
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int written = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            writeString(out, position != null ? position : "");
+
+            Map<String, List<Map.Entry<Object, Object>>> entries = new LinkedHashMap<>();
+            for (String cacheName : cacheNames) {
+                if (cacheManager.getCache(cacheName) instanceof CaffeineCache cache) {
+                    entries.put(cacheName, cache.getNativeCache().asMap().entrySet().stream()
+                        .filter(entry -> isWritable(entry.getKey(), entry.getValue()))
+                        .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                        .toList());
+                }
+            }
+            out.writeInt(entries.size());
+            for (Map.Entry<String, List<Map.Entry<Object, Object>>> cache : entries.entrySet()) {
+                writeString(out, cache.getKey());
+                out.writeInt(cache.getValue().size());
+                for (Map.Entry<Object, Object> entry : cache.getValue()) {
+                    writeKey(out, entry.getKey());
+                    writeValue(out, entry.getValue());
+                    written++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not write cache snapshot to {}: {}", file, e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not replace cache snapshot {}: {}", file, e.getMessage());
+            return;
+        }
+        log.info("Wrote cache snapshot of {} entries to {} in {} ms", written, file,
+            Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+    }
+
+    private static boolean isWritable(Object key, Object value) {
+        if (!(key instanceof String) && !SimpleKey.EMPTY.equals(key)) {
+            return false;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().allMatch(element -> element != null && ENTITY_TYPES.contains(element.getClass()));
+        }
+        return value instanceof NullValue || ENTITY_TYPES.contains(value.getClass());
+    }
+
+    private static void writeKey(DataOutputStream out, Object key) throws IOException {
+        if (key instanceof String string) {
+            out.writeByte(STRING_KEY);
+            writeString(out, string);
+        } else {
+            out.writeByte(EMPTY_KEY);
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof List<?> list) {
+            out.writeByte(LIST_VALUE);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeEntity(out, element);
+            }
+        } else if (value instanceof NullValue) {
+            out.writeByte(NULL_VALUE);
+        } else {
+            out.writeByte(SINGLE_VALUE);
+            writeEntity(out, value);
+        }
+    }
+
+    private void writeEntity(DataOutputStream out, Object entity) throws IOException {
+        Document document = new Document();
+        mongoConverter.write(entity, document);
+        ByteBuf bson = new RawBsonDocument(document, CODEC).getByteBuffer();
+        byte[] bytes = new byte[bson.remaining()];
+        bson.get(bytes);
+        out.writeByte(ENTITY_TYPES.indexOf(entity.getClass()));
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // ==================== RESTORE ====================
+
+    /**
+     * Load the snapshot into the caches, if there is a valid one.
+     *
+     * @return whether entries were restored
+     */
+    public boolean restore() {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        long startNanos = System.nanoTime();
+        Map<String, Map<Object, Object>> entries = new LinkedHashMap<>();
+        String position;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+                log.warn("Ignoring cache snapshot {}: unknown format", file);
+                return false;
+            }
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - buffer.getLong());
+            position = readString(buffer);
+            if (position.isEmpty() && age.compareTo(maxAge) > 0) {
+                log.info("Ignoring cache snapshot {}: {} old and no invalidation position to validate it", file, age);
+                return false;
+            }
+            int cacheCount = buffer.getInt();
+            for (int i = 0; i < cacheCount; i++) {
+                String cacheName = readString(buffer);
+                int entryCount = buffer.getInt();
+                Map<Object, Object> cacheEntries = new LinkedHashMap<>(entryCount * 2);
+                for (int j = 0; j < entryCount; j++) {
+                    Object key = buffer.get() == STRING_KEY ? readString(buffer) : SimpleKey.EMPTY;
+                    cacheEntries.put(key, readValue(buffer));
+                }
+                entries.put(cacheName, cacheEntries);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Includes truncated files (BufferUnderflowException) and BSON that no longer maps onto the entities
+            log.warn("Ignoring unreadable cache snapshot {}: {}", file, e.toString());
+            return false;
+        }
+
+        int restored = 0;
+        for (Map.Entry<String, Map<Object, Object>> cacheEntries : entries.entrySet()) {
+            Cache cache = cacheManager.getCache(cacheEntries.getKey());
+            if (cache != null && cacheNames.contains(cacheEntries.getKey())) {
+                cacheEntries.getValue().forEach(cache::put);
+                restored += cacheEntries.getValue().size();
+            }
+        }
+
+        if (!position.isEmpty()) {
+            CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+            if (bus == null || !bus.replaySince(position)) {
+                log.info("Discarding cache snapshot {}: changes since it was written cannot be replayed", file);
+                cacheNames.forEach(cacheName -> {
+                    Cache cache = cacheManager.getCache(cacheName);
+                    if (cache != null) {
+                        cache.clear();
+                    }
+                });
+                return false;
+            }
+        }
+
+        Duration took = Duration.ofNanos(System.nanoTime() - startNanos);
+        meterRegistry.timer("cache.snapshot.restore.duration").record(took);
+        log.info("Restored {} cache entries from snapshot {} in {} ms", restored, file, took.toMillis());
+        return true;
+    }
+
+    private Object readValue(MappedByteBuffer buffer) {
+        byte tag = buffer.get();
+        if (tag == NULL_VALUE) {
+            return null;
+        }
+        if (tag == SINGLE_VALUE) {
+            return readEntity(buffer);
+        }
+        int size = buffer.getInt();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(readEntity(buffer));
+        }
+        return list;
+    }
+
+    private Object readEntity(MappedByteBuffer buffer) {
+        Class<?> type = ENTITY_TYPES.get(buffer.get());
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        Document document = new RawBsonDocument(bytes).decode(CODEC);
+        return mongoConverter.read(type, document);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,197 @@
+package com.devlcm.lcm.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.dto.TopicPreviewDTO;
+import com.devlcm.lcm.entity.Chapter;
+import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.entity.Topic;
+import com.devlcm.lcm.repository.ChapterRepository;
+import com.devlcm.lcm.repository.CourseRepository;
+import com.devlcm.lcm.repository.TopicRepository;
+import com.devlcm.lcm.util.IdListPages;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills the catalog caches (course list, courses, chapters, topics) at startup so the first
+ * requests after a deploy hit warm caches. Application runners complete before the readiness
+ * probe reports {@code ACCEPTING_TRAFFIC}, so a node only takes traffic once warmed up.
+ * <p>
+ * The course &rarr; chapter &rarr; topic tree is read level by level with {@code findAllById}
+ * batches of {@value #BATCH_SIZE} ids, run on {@code app.cache.warmup.parallelism} threads.
+ * When {@code app.cache.warmup.timeout} runs out, startup continues and the rest loads on demand.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cache.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogCacheWarmer implements ApplicationRunner {
+
+    static final int BATCH_SIZE = 500;
+
+    private final CourseRepository courseRepository;
+    private final ChapterRepository chapterRepository;
+    private final TopicRepository topicRepository;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final int parallelism;
+
+    private final Map<String, AtomicInteger> loaded = new LinkedHashMap<>();
+
+    public CatalogCacheWarmer(CourseRepository courseRepository,
+                              ChapterRepository chapterRepository,
+                              TopicRepository topicRepository,
+                              CacheManager cacheManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.warmup.timeout:30s}") Duration timeout,
+                              @Value("${app.cache.warmup.parallelism:4}") int parallelism) {
+        this.courseRepository = courseRepository;
+        this.chapterRepository = chapterRepository;
+        this.topicRepository = topicRepository;
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (cacheManager.getCache(CacheConfig.COURSES_CACHE) instanceof CaffeineCache courses
+                && courses.getNativeCache().getIfPresent(SimpleKey.EMPTY) != null) {
+            log.info("Catalog caches already restored from a snapshot, skipping warm-up");
+            return;
+        }
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + timeout.toNanos();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            warm(pool, deadlineNanos);
+        } catch (TimeoutException e) {
+            log.warn("Cache warm-up ran out of its {} budget; remaining entries load on demand", timeout);
+        } catch (DataAccessException | ExecutionException e) {
+            log.warn("Cache warm-up failed, remaining entries load on demand: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+            Duration took = Duration.ofNanos(System.nanoTime() - startNanos);
+            meterRegistry.timer("cache.warmup.duration").record(took);
+            loaded.forEach((cacheName, count) -> Counter.builder("cache.warmup.entries")
+                .tag("cache", cacheName)
+                .register(meterRegistry)
+                .increment(count.get()));
+            log.info("Cache warm-up loaded {} entries in {} ms: {}",
+                loaded.values().stream().mapToInt(AtomicInteger::get).sum(), took.toMillis(), loaded);
+        }
+    }
+
+    private void warm(ExecutorService pool, long deadlineNanos)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        List<Course> courses = courseRepository.findAll();
+        put(CacheConfig.COURSES_CACHE, SimpleKey.EMPTY, courses);
+        for (Course course : courses) {
+            put(CacheConfig.COURSE_BY_ID_CACHE, course.getId(), course);
+        }
+
+        Map<String, Chapter> chapters = loadInBatches(pool, deadlineNanos,
+            idsOf(courses, Course::getChapterIds), chapterRepository::findAllById, Chapter::getId);
+        for (Chapter chapter : chapters.values()) {
+            put(CacheConfig.CHAPTER_BY_ID_CACHE, chapter.getId(), chapter);
+        }
+        for (Course course : courses) {
+            put(CacheConfig.CHAPTERS_CACHE, course.getId(), IdListPages.inOrder(course.getChapterIds(), chapters));
+        }
+
+        Map<String, Topic> topics = loadInBatches(pool, deadlineNanos,
+            idsOf(chapters.values(), Chapter::getTopicIds), topicRepository::findAllById, Topic::getId);
+        for (Topic topic : topics.values()) {
+            put(CacheConfig.TOPIC_BY_ID_CACHE, topic.getId(), topic);
+        }
+        for (Chapter chapter : chapters.values()) {
+            put(CacheConfig.TOPICS_CACHE, chapter.getId(), IdListPages.inOrder(chapter.getTopicIds(), topics).stream()
+                .map(topic -> new TopicPreviewDTO(topic.getId(), topic.getTitle(), topic.getChapterId()))
+                .toList());
+        }
+    }
+
+    /**
+     * Fetch documents by id in parallel batches, all of which must finish before the deadline.
+     */
+    private <T> Map<String, T> loadInBatches(ExecutorService pool, long deadlineNanos, List<String> ids,
+                                             Function<List<String>, List<T>> finder, Function<T, String> idOf)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        List<Callable<List<T>>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+            batches.add(() -> finder.apply(batch));
+        }
+
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+            throw new TimeoutException();
+        }
+        Map<String, T> byId = new HashMap<>();
+        for (Future<List<T>> result : pool.invokeAll(batches, remainingNanos, TimeUnit.NANOSECONDS)) {
+            if (result.isCancelled()) {
+                throw new TimeoutException();
+            }
+            for (T document : result.get()) {
+                byId.put(idOf.apply(document), document);
+            }
+        }
+        return byId;
+    }
+
+    private static <T> List<String> idsOf(Collection<T> owners, Function<T, List<String>> childIds) {
+        return owners.stream()
+            .map(childIds)
+            .filter(Objects::nonNull)
+            .flatMap(List::stream)
+            .distinct()
+            .toList();
+    }
+
+    private void put(String cacheName, Object key, Object value) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.put(key, value);
+            loaded.computeIfAbsent(cacheName, name -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+}
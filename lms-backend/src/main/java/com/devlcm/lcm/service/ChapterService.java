@@ -2,10 +2,8 @@ package com.devlcm.lcm.service;
 
 import java.util.List;
 
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,12 +11,14 @@ import org.springframework.transaction.annotation.Transactional;
 import com.devlcm.lcm.config.CacheConfig;
 import com.devlcm.lcm.entity.Chapter;
 import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.entity.QuizzAndQuestions.Quizz;
 import com.devlcm.lcm.exception.ChapterNotFoundException;
 import com.devlcm.lcm.exception.CourseNotFoundException;
 import com.devlcm.lcm.repository.ChapterRepository;
 import com.devlcm.lcm.repository.CourseRepository;
 import com.devlcm.lcm.repository.TopicRepository;
 import com.devlcm.lcm.repository.QuizRepository;
+import com.devlcm.lcm.util.IdListPages;
 
 import lombok.RequiredArgsConstructor;
 
@@ -30,11 +30,12 @@ public class ChapterService {
     private final ChapterRepository chapterRepository;
     private final TopicRepository topicRepository;
     private final QuizRepository quizRepository;
+    private final CacheInvalidationService cacheInvalidation;
 
     /**
      * Get a chapter by ID.
      */
-    @Cacheable(value = CacheConfig.CHAPTER_BY_ID_CACHE, key = "#id")
+    @Cacheable(value = CacheConfig.CHAPTER_BY_ID_CACHE, key = "#id", sync = true)
     public java.util.Optional<Chapter> getChapterById(String id) {
         return chapterRepository.findById(id);
     }
@@ -42,37 +43,28 @@ public class ChapterService {
     /**
      * Get all chapters for a course by courseId (no pagination).
      */
-    @Cacheable(value = CacheConfig.CHAPTERS_CACHE, key = "#courseId", unless = "#result == null || #result.isEmpty()")
+    @Cacheable(value = CacheConfig.CHAPTERS_CACHE, key = "#courseId", sync = true)
     public List<Chapter> getChaptersForCourse(String courseId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new CourseNotFoundException("Course not found with ID: " + courseId));
-        return chapterRepository.findAllById(course.getChapterIds());
+        return IdListPages.inOrder(course.getChapterIds(),
+                chapterRepository.findAllById(course.getChapterIds()), Chapter::getId);
     }
 
     /**
-     * Get all chapters for a course by courseId with pagination.
+     * Get all chapters for a course by courseId with pagination, in course order.
+     * Only the requested page of chapters is read.
      */
     public Page<Chapter> getChaptersForCourse(String courseId, Pageable pageable) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new CourseNotFoundException("Course not found with ID: " + courseId));
-        
-        List<Chapter> allChapters = chapterRepository.findAllById(course.getChapterIds());
-        
-        // Manual pagination from list
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), allChapters.size());
-        
-        List<Chapter> pageContent = start > allChapters.size() ? 
-            List.of() : allChapters.subList(start, end);
-        
-        return new PageImpl<>(pageContent, pageable, allChapters.size());
+        return IdListPages.page(course.getChapterIds(), pageable, chapterRepository::findAllById, Chapter::getId);
     }
 
     /**
      * Create a new chapter and attach it to a course.
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.CHAPTERS_CACHE, CacheConfig.COURSES_CACHE, CacheConfig.COURSE_BY_ID_CACHE}, allEntries = true)
     public Chapter createChapterForCourse(String courseId, Chapter chapter) {
         chapter.setCourseId(courseId);
 
@@ -81,36 +73,36 @@ public class ChapterService {
                 .orElseThrow(() -> new CourseNotFoundException("Course not found with ID: " + courseId));
         course.getChapterIds().add(saved.getId());
         courseRepository.save(course);
+        cacheInvalidation.chapterCreated(saved);
         return saved; 
     }
 
     @Transactional
-    @CacheEvict(value = {CacheConfig.CHAPTERS_CACHE, CacheConfig.CHAPTER_BY_ID_CACHE, 
-                         CacheConfig.COURSES_CACHE, CacheConfig.COURSE_BY_ID_CACHE}, allEntries = true)
     public Chapter updateChapter(String id, Chapter updatedChapter) {
         return chapterRepository.findById(id)
                 .map(chapter ->{
+                        String previousCourseId = chapter.getCourseId();
                         chapter.setTitle(updatedChapter.getTitle());
                         chapter.setDescription(updatedChapter.getDescription());
                         chapter.setCourseId(updatedChapter.getCourseId());
                         chapter.setTopicIds(updatedChapter.getTopicIds());
-                        return chapterRepository.save(chapter);
+                        Chapter saved = chapterRepository.save(chapter);
+                        cacheInvalidation.chapterUpdated(saved, previousCourseId);
+                        return saved;
                 })
                 .orElseThrow(() -> new ChapterNotFoundException("Chapter not found with ID: " + id));
     }
 
     @Transactional
-    @CacheEvict(value = {CacheConfig.CHAPTERS_CACHE, CacheConfig.CHAPTER_BY_ID_CACHE, 
-                         CacheConfig.TOPICS_CACHE, CacheConfig.QUIZZES_CACHE,
-                         CacheConfig.COURSES_CACHE, CacheConfig.COURSE_BY_ID_CACHE}, allEntries = true)
     public void deleteChapter(String id) {
         Chapter chapter = chapterRepository.findById(id)
                 .orElseThrow(() -> new ChapterNotFoundException("Chapter not found with ID: " + id));
         
         // Delete chapter's quiz (one per chapter)
-        quizRepository.findByChapterId(id).ifPresent(quiz -> {
+        Quizz quiz = quizRepository.findByChapterId(id).orElse(null);
+        if (quiz != null) {
             quizRepository.deleteById(quiz.getId());
-        });
+        }
         
         // Cascade delete: delete all topics in chapter
         if (chapter.getTopicIds() != null) {
@@ -128,5 +120,6 @@ public class ChapterService {
         }
         
         chapterRepository.deleteById(id);
+        cacheInvalidation.chapterDeleted(chapter, quiz);
     }
 }
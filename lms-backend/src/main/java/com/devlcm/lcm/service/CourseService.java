@@ -1,9 +1,10 @@
 package com.devlcm.lcm.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,13 +12,22 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.dto.ChapterTreeDTO;
+import com.devlcm.lcm.dto.CourseTreeDTO;
+import com.devlcm.lcm.dto.TopicPreviewDTO;
+import com.devlcm.lcm.entity.Chapter;
 import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.entity.QuizzAndQuestions.Quizz;
 import com.devlcm.lcm.exception.CourseNotFoundException;
+import com.devlcm.lcm.mapper.AllMapper;
 import com.devlcm.lcm.repository.CourseRepository;
 import com.devlcm.lcm.repository.ChapterRepository;
 import com.devlcm.lcm.repository.TopicRepository;
 import com.devlcm.lcm.repository.QuizRepository;
 import com.devlcm.lcm.repository.UserRepository;
+import com.devlcm.lcm.search.CourseSearchIndex;
+import com.devlcm.lcm.security.UserIdentityResolver;
+import com.devlcm.lcm.util.IdListPages;
 
 import lombok.RequiredArgsConstructor;
 
@@ -32,6 +42,10 @@ public class CourseService {
     private final TopicRepository topicRepository;
     private final QuizRepository quizRepository;
     private final UserRepository userRepository;
+    private final UserIdentityResolver userIdentityResolver;
+    private final CacheInvalidationService cacheInvalidation;
+    private final AllMapper allMapper;
+    private final CourseSearchIndex courseSearchIndex;
 
     // get all course from Database with pagination
     public Page<Course> getAllCourses(Pageable pageable) {
@@ -39,17 +53,51 @@ public class CourseService {
     }
 
     // get all course from Database (backward compatibility)
-    @Cacheable(value = CacheConfig.COURSES_CACHE, unless = "#result == null || #result.isEmpty()")
+    @Cacheable(value = CacheConfig.COURSES_CACHE, sync = true)
     public List<Course> getAllCourses() {
         return courseRepository.findAll();
     }
 
     // get course by it's Id
-    @Cacheable(value = CacheConfig.COURSE_BY_ID_CACHE, key = "#id")
+    @Cacheable(value = CacheConfig.COURSE_BY_ID_CACHE, key = "#id", sync = true)
     public Optional<Course> getCourseById(String id) {
         return courseRepository.findById(id);
     }
 
+    /**
+     * The course with its chapters, topic previews and quiz metadata, read with four queries
+     * regardless of course size and cached as one entry per course.
+     */
+    @Cacheable(value = CacheConfig.COURSE_TREE_CACHE, key = "#courseId", sync = true)
+    public CourseTreeDTO getCourseTree(String courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new CourseNotFoundException("Course not found with ID: " + courseId));
+        List<String> chapterIds = course.getChapterIds() != null ? course.getChapterIds() : List.of();
+        Map<String, Chapter> chapters = IdListPages.byId(chapterRepository.findAllById(chapterIds), Chapter::getId);
+
+        List<String> topicIds = chapters.values().stream()
+                .filter(chapter -> chapter.getTopicIds() != null)
+                .flatMap(chapter -> chapter.getTopicIds().stream())
+                .toList();
+        Map<String, TopicPreviewDTO> topics = topicIds.isEmpty()
+                ? Map.of()
+                : IdListPages.byId(topicRepository.findPreviewsByIdIn(topicIds), TopicPreviewDTO::getId);
+        Map<String, Quizz> quizzes = chapters.isEmpty()
+                ? Map.of()
+                : IdListPages.byId(quizRepository.findSummariesByChapterIdIn(chapters.keySet()), Quizz::getChapterId);
+
+        // Chapters and topics follow the owner's id lists; dangling ids are skipped
+        List<ChapterTreeDTO> chapterNodes = new ArrayList<>();
+        for (Chapter chapter : IdListPages.inOrder(chapterIds, chapters)) {
+            Quizz quiz = quizzes.get(chapter.getId());
+            chapterNodes.add(new ChapterTreeDTO(
+                    allMapper.toChapterDTO(chapter),
+                    IdListPages.inOrder(chapter.getTopicIds(), topics),
+                    quiz != null ? allMapper.toQuizSummaryDTO(quiz) : null));
+        }
+        return new CourseTreeDTO(allMapper.toCourseDTO(course), chapterNodes);
+    }
+
     public List<Course> getCourseBySubject(String subject) {
         return courseRepository.findBysubjectIgnoreCase(subject);
     }
@@ -58,26 +106,31 @@ public class CourseService {
         return courseRepository.findBysubjectIgnoreCase(subject, pageable);
     }
 
+    // search course title, description and subject, most relevant first
     public List<Course> searchCourses(String keyword) {
-        return courseRepository.findByTitleContainingIgnoreCase(keyword);
+        List<String> ids = courseSearchIndex.search(keyword);
+        return IdListPages.inOrder(ids, courseRepository.findAllById(ids), Course::getId);
     }
 
+    // one page of search results, most relevant first; only that page's courses are read
     public Page<Course> searchCourses(String keyword, Pageable pageable) {
-        return courseRepository.findByTitleContainingIgnoreCase(keyword, pageable);
+        return IdListPages.page(courseSearchIndex.search(keyword), pageable,
+                courseRepository::findAllById, Course::getId);
     }
 
     // create new course in DB
     @Transactional
-    @CacheEvict(value = CacheConfig.COURSES_CACHE, allEntries = true)
     public Course createCourse(Course course) {
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        courseSearchIndex.index(saved);
+        cacheInvalidation.courseCreated();
+        return saved;
     }
 
     //Update existing course in  DB
     @Transactional
-    @CacheEvict(value = {CacheConfig.COURSES_CACHE, CacheConfig.COURSE_BY_ID_CACHE}, allEntries = true)
     public Course updateCourse(String id, Course updatedCourse) {
-        return courseRepository.findById(id)
+        Course saved = courseRepository.findById(id)
                 .map(course -> {
                     course.setTitle(updatedCourse.getTitle());
                     course.setDescription(updatedCourse.getDescription());
@@ -86,13 +139,13 @@ public class CourseService {
                     return courseRepository.save(course);
                 })
                 .orElseThrow(() -> new CourseNotFoundException("Course not found with ID: " + id));
+        courseSearchIndex.index(saved);
+        cacheInvalidation.courseUpdated(id);
+        return saved;
     }
 
     // Delete course from DB with cascading deletes
     @Transactional
-    @CacheEvict(value = {CacheConfig.COURSES_CACHE, CacheConfig.COURSE_BY_ID_CACHE, 
-                         CacheConfig.CHAPTERS_CACHE, CacheConfig.TOPICS_CACHE, 
-                         CacheConfig.QUIZZES_CACHE}, allEntries = true)
     public void deleteCourse(String id) {
         Course course = courseRepository.findById(id)
                 .orElseThrow(() -> new CourseNotFoundException("Course not found with ID: " + id));
@@ -102,9 +155,10 @@ public class CourseService {
             course.getChapterIds().forEach(chapterId -> {
                 chapterRepository.findById(chapterId).ifPresent(chapter -> {
                     // Delete chapter's quiz (one per chapter)
-                    quizRepository.findByChapterId(chapterId).ifPresent(quiz -> {
+                    Quizz quiz = quizRepository.findByChapterId(chapterId).orElse(null);
+                    if (quiz != null) {
                         quizRepository.deleteById(quiz.getId());
-                    });
+                    }
                     
                     // Delete topics in chapter
                     if (chapter.getTopicIds() != null) {
@@ -113,6 +167,7 @@ public class CourseService {
                         });
                     }
                     chapterRepository.deleteById(chapterId);
+                    cacheInvalidation.chapterDeleted(chapter, quiz);
                 });
             });
         }
@@ -121,9 +176,12 @@ public class CourseService {
         userRepository.findAll().forEach(user -> {
             if (user.getEnrolledCourseIds() != null && user.getEnrolledCourseIds().remove(id)) {
                 userRepository.save(user);
+                userIdentityResolver.invalidate(user);
             }
         });
         
         courseRepository.deleteById(id);
+        courseSearchIndex.remove(id);
+        cacheInvalidation.courseDeleted(id);
     }
 }
@@ -0,0 +1,162 @@
+package com.devlcm.lcm.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.dto.ForumPostDTO;
+import com.devlcm.lcm.entity.Chapter;
+import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.entity.ForumPost;
+import com.devlcm.lcm.entity.VoteType;
+import com.devlcm.lcm.repository.ChapterRepository;
+import com.devlcm.lcm.repository.CourseRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Turns pages of forum posts into DTOs. Course and chapter names for the whole page are resolved
+ * together: names already in the catalog caches are used as they are, and the rest are read with
+ * one {@code findAllById} per collection. The viewer's votes on the page are read with one
+ * {@code $in} query, so a page costs at most three queries whatever its size.
+ */
+@Component
+@RequiredArgsConstructor
+public class ForumPostAssembler {
+
+    private final CourseRepository courseRepository;
+    private final ChapterRepository chapterRepository;
+    private final CacheManager cacheManager;
+    private final ForumVoteService forumVoteService;
+
+    public Page<ForumPostDTO> toDTOs(Page<ForumPost> posts, String userId) {
+        return new PageImpl<>(toDTOs(posts.getContent(), userId), posts.getPageable(), posts.getTotalElements());
+    }
+
+    public ForumPostDTO toDTO(ForumPost post, String userId) {
+        return toDTOs(List.of(post), userId).get(0);
+    }
+
+    /**
+     * DTO for a post whose viewer's vote is already known (null for none), e.g. right after voting.
+     */
+    public ForumPostDTO toDTO(ForumPost post, String userId, VoteType vote) {
+        Map<String, VoteType> votes = new HashMap<>();
+        votes.put(post.getId(), vote);
+        return toDTOs(List.of(post), votes).get(0);
+    }
+
+    /**
+     * DTOs in the order of {@code posts}.
+     */
+    public List<ForumPostDTO> toDTOs(List<ForumPost> posts, String userId) {
+        return toDTOs(posts, forumVoteService.votesOf(userId, posts.stream().map(ForumPost::getId).toList()));
+    }
+
+    private List<ForumPostDTO> toDTOs(List<ForumPost> posts, Map<String, VoteType> votes) {
+        Map<String, String> courseNames = names(posts, ForumPost::getCourseId, CacheConfig.COURSE_BY_ID_CACHE,
+            Course.class, courseRepository::findAllById, Course::getId, Course::getTitle);
+        Map<String, String> chapterNames = names(posts, ForumPost::getChapterId, CacheConfig.CHAPTER_BY_ID_CACHE,
+            Chapter.class, chapterRepository::findAllById, Chapter::getId, Chapter::getTitle);
+
+        List<ForumPostDTO> dtos = new ArrayList<>(posts.size());
+        for (ForumPost post : posts) {
+            dtos.add(toDTO(post, votes.get(post.getId()), courseNames, chapterNames));
+        }
+        return dtos;
+    }
+
+    /**
+     * Names of the referenced documents, from the cache where present and otherwise from one query.
+     */
+    private <T> Map<String, String> names(List<ForumPost> posts, Function<ForumPost, String> reference,
+                                          String cacheName, Class<T> type,
+                                          Function<Collection<String>, Iterable<T>> finder,
+                                          Function<T, String> idOf, Function<T, String> nameOf) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (ForumPost post : posts) {
+            String id = reference.apply(post);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        Map<String, String> names = new HashMap<>();
+        if (ids.isEmpty()) {
+            return names;
+        }
+        Cache cache = cacheManager.getCache(cacheName);
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            // Peek only: a get on a refreshing (loading) cache would query Mongo on a miss
+            Object cached = cache instanceof CaffeineCache caffeineCache
+                ? caffeineCache.getNativeCache().getIfPresent(id) : null;
+            if (type.isInstance(cached)) {
+                putName(names, id, nameOf.apply(type.cast(cached)));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (T document : finder.apply(missing)) {
+                putName(names, idOf.apply(document), nameOf.apply(document));
+            }
+        }
+        return names;
+    }
+
+    private static void putName(Map<String, String> names, String id, String name) {
+        if (name != null) {
+            names.put(id, name);
+        }
+    }
+
+    private static ForumPostDTO toDTO(ForumPost post, VoteType vote,
+                                      Map<String, String> courseNames, Map<String, String> chapterNames) {
+        ForumPostDTO dto = new ForumPostDTO();
+        dto.setId(post.getId());
+        dto.setTitle(post.getTitle());
+        dto.setContent(post.getContent());
+        dto.setAuthorId(post.getAuthorId());
+        dto.setAuthorUsername(post.getAuthorUsername());
+        dto.setCourseId(post.getCourseId());
+        dto.setChapterId(post.getChapterId());
+        dto.setCategory(post.getCategory());
+        dto.setTags(post.getTags());
+        dto.setAttachments(post.getAttachments());  // Include attachments in DTO
+        dto.setViewCount(post.getViewCount());
+        dto.setUpvotes(post.getUpvotes());
+        dto.setDownvotes(post.getDownvotes());
+        dto.setNetVotes(post.getNetVotes());
+        dto.setReplyCount(post.getReplyCount());
+        dto.setPinned(post.isPinned());
+        dto.setLocked(post.isLocked());
+        dto.setResolved(post.isResolved());
+        dto.setCreatedAt(post.getCreatedAt());
+        dto.setUpdatedAt(post.getUpdatedAt());
+        dto.setLastActivityAt(post.getLastActivityAt());
+
+        dto.setUserVoteStatus(ForumVoteService.voteStatus(vote));
+
+        // Course and chapter names, if the post references them
+        if (post.getCourseId() != null) {
+            dto.setCourseName(courseNames.get(post.getCourseId()));
+        }
+        if (post.getChapterId() != null) {
+            dto.setChapterName(chapterNames.get(post.getChapterId()));
+        }
+        return dto;
+    }
+}
@@ -3,16 +3,35 @@ package com.devlcm.lcm.service;
 import com.devlcm.lcm.dto.*;
 import com.devlcm.lcm.entity.*;
 import com.devlcm.lcm.exception.CourseNotFoundException;
-import com.devlcm.lcm.exception.UserNotFoundException;
 import com.devlcm.lcm.repository.*;
+import com.devlcm.lcm.search.ForumSearchFilter;
+import com.devlcm.lcm.search.ForumSearchIndex;
+import com.devlcm.lcm.search.Highlighter;
+import com.devlcm.lcm.security.AuthenticatedUser;
+import com.devlcm.lcm.security.UserIdentityResolver;
+import com.devlcm.lcm.util.IdListPages;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Forum Service - Handles all forum operations
@@ -23,11 +42,21 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class ForumService {
     
+    /** Length of the highlighted excerpt returned with each search result. */
+    static final int SNIPPET_LENGTH = 200;
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+    
     private final ForumPostRepository forumPostRepository;
     private final ForumReplyRepository forumReplyRepository;
-    private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final ChapterRepository chapterRepository;
+    private final UserIdentityResolver userIdentityResolver;
+    private final ForumSearchIndex forumSearchIndex;
+    private final ForumPostAssembler forumPostAssembler;
+    private final ForumViewCounter forumViewCounter;
+    private final ForumVoteService forumVoteService;
+    private final ForumTrending forumTrending;
+    private final MongoTemplate mongoTemplate;
     
     // ==================== HELPER METHODS ====================
     
@@ -35,9 +64,25 @@ public class ForumService {
      * Get MongoDB user ID from Firebase UID
      */
     private String getUserIdFromFirebaseUid(String firebaseUid) {
-        return userRepository.findByFirebaseUid(firebaseUid)
-            .map(User::getId)
-            .orElseThrow(() -> new UserNotFoundException("User not found with Firebase UID: " + firebaseUid));
+        return userIdentityResolver.require(firebaseUid).id();
+    }
+    
+    /**
+     * Match one post or reply by id. Edits of existing posts and replies set only the edited fields:
+     * view, vote and reply counters and the trending score are updated concurrently elsewhere, and a
+     * full save would undo those updates.
+     */
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+    
+    /**
+     * Flip a boolean field in one pipeline update, so that concurrent toggles each take effect
+     * instead of all writing the negation of the same read.
+     */
+    static AggregationUpdate toggle(String field) {
+        Document stage = new Document("$set", new Document(field, new Document("$not", List.of("$" + field))));
+        return AggregationUpdate.from(List.<AggregationOperation>of(context -> stage));
     }
     
     // ==================== FORUM POST OPERATIONS ====================
@@ -50,8 +95,7 @@ public class ForumService {
         log.info("Creating forum post by user {}: {}", firebaseUid, request.getTitle());
         
         // Get user info by Firebase UID
-        User user = userRepository.findByFirebaseUid(firebaseUid)
-            .orElseThrow(() -> new UserNotFoundException("User not found with Firebase UID: " + firebaseUid));
+        AuthenticatedUser user = userIdentityResolver.require(firebaseUid);
         
         // Validate course and chapter if provided
         if (request.getCourseId() != null && !courseRepository.existsById(request.getCourseId())) {
@@ -65,8 +109,8 @@ public class ForumService {
         ForumPost post = new ForumPost();
         post.setTitle(request.getTitle());
         post.setContent(request.getContent());
-        post.setAuthorId(user.getId());  // Use MongoDB user ID
-        post.setAuthorUsername(user.getUsername());
+        post.setAuthorId(user.id());  // Use MongoDB user ID
+        post.setAuthorUsername(user.username());
         post.setCourseId(request.getCourseId());
         post.setChapterId(request.getChapterId());
         post.setCategory(request.getCategory());
@@ -74,9 +118,10 @@ public class ForumService {
         post.setAttachments(request.getAttachments());  // Copy attachments from request
         
         ForumPost saved = forumPostRepository.save(post);
+        forumSearchIndex.indexPost(saved);
         log.info("Forum post created with ID: {}", saved.getId());
         
-        return toDTO(saved, user.getId());
+        return forumPostAssembler.toDTO(saved, user.id());
     }
     
     /**
@@ -85,7 +130,7 @@ public class ForumService {
     public Page<ForumPostDTO> getAllPosts(String firebaseUid, Pageable pageable) {
         String userId = getUserIdFromFirebaseUid(firebaseUid);
         Page<ForumPost> posts = forumPostRepository.findAll(pageable);
-        return posts.map(post -> toDTO(post, userId));
+        return forumPostAssembler.toDTOs(posts, userId);
     }
     
     /**
@@ -94,7 +139,7 @@ public class ForumService {
     public Page<ForumPostDTO> getPostsByCourse(String courseId, String firebaseUid, Pageable pageable) {
         String userId = getUserIdFromFirebaseUid(firebaseUid);
         Page<ForumPost> posts = forumPostRepository.findByCourseId(courseId, pageable);
-        return posts.map(post -> toDTO(post, userId));
+        return forumPostAssembler.toDTOs(posts, userId);
     }
     
     /**
@@ -103,7 +148,7 @@ public class ForumService {
     public Page<ForumPostDTO> getPostsByChapter(String chapterId, String firebaseUid, Pageable pageable) {
         String userId = getUserIdFromFirebaseUid(firebaseUid);
         Page<ForumPost> posts = forumPostRepository.findByChapterId(chapterId, pageable);
-        return posts.map(post -> toDTO(post, userId));
+        return forumPostAssembler.toDTOs(posts, userId);
     }
     
     /**
@@ -112,32 +157,78 @@ public class ForumService {
     public Page<ForumPostDTO> getPostsByCategory(ForumCategory category, String firebaseUid, Pageable pageable) {
         String userId = getUserIdFromFirebaseUid(firebaseUid);
         Page<ForumPost> posts = forumPostRepository.findByCategory(category, pageable);
-        return posts.map(post -> toDTO(post, userId));
+        return forumPostAssembler.toDTOs(posts, userId);
     }
     
     /**
-     * Search posts by keyword
+     * Get trending posts, of one course or of the whole forum ({@code courseId} null), hottest first
      */
-    public Page<ForumPostDTO> searchPosts(String keyword, String firebaseUid, Pageable pageable) {
+    public Page<ForumPostDTO> getTrendingPosts(String courseId, String firebaseUid, Pageable pageable) {
         String userId = getUserIdFromFirebaseUid(firebaseUid);
-        Page<ForumPost> posts = forumPostRepository.searchByTitleOrContent(keyword, pageable);
-        return posts.map(post -> toDTO(post, userId));
+        Page<ForumPost> posts = IdListPages.page(forumTrending.trending(courseId), pageable,
+            forumPostRepository::findAllById, ForumPost::getId);
+        return forumPostAssembler.toDTOs(posts, userId);
     }
     
     /**
-     * Get post by ID (increments view count)
+     * Search posts and their replies, most relevant first. Each result carries a highlighted
+     * snippet of the post, or of its reply when the reply is the better match.
+     */
+    public Page<ForumPostDTO> searchPosts(String keyword, ForumSearchFilter filter, String firebaseUid, Pageable pageable) {
+        String userId = getUserIdFromFirebaseUid(firebaseUid);
+        if (!forumSearchIndex.isEnabled()) {
+            Page<ForumPost> posts = forumSearchIndex.searchText(keyword, filter, pageable);
+            Page<ForumPostDTO> dtos = forumPostAssembler.toDTOs(posts, userId);
+            for (int i = 0; i < posts.getNumberOfElements(); i++) {
+                setSnippet(dtos.getContent().get(i), posts.getContent().get(i).getContent(), keyword);
+            }
+            return dtos;
+        }
+        
+        List<ForumSearchIndex.Match> matches = forumSearchIndex.search(keyword, filter);
+        Page<ForumPost> posts = IdListPages.page(matches.stream().map(ForumSearchIndex.Match::postId).toList(),
+            pageable, forumPostRepository::findAllById, ForumPost::getId);
+        
+        // Replies that matched better than their post supply its snippet; one query for the page
+        Map<String, String> replyIdByPost = matches.stream()
+            .filter(match -> match.replyId() != null)
+            .collect(Collectors.toMap(ForumSearchIndex.Match::postId, ForumSearchIndex.Match::replyId));
+        List<String> pageReplyIds = posts.getContent().stream()
+            .map(post -> replyIdByPost.get(post.getId()))
+            .filter(Objects::nonNull)
+            .toList();
+        Map<String, ForumReply> replies = pageReplyIds.isEmpty() ? Map.of()
+            : forumReplyRepository.findAllById(pageReplyIds).stream()
+                .collect(Collectors.toMap(ForumReply::getId, Function.identity()));
+        
+        Page<ForumPostDTO> dtos = forumPostAssembler.toDTOs(posts, userId);
+        for (int i = 0; i < posts.getNumberOfElements(); i++) {
+            ForumPost post = posts.getContent().get(i);
+            String replyId = replyIdByPost.get(post.getId());
+            ForumReply reply = replyId != null ? replies.get(replyId) : null;
+            setSnippet(dtos.getContent().get(i), reply != null ? reply.getContent() : post.getContent(), keyword);
+        }
+        return dtos;
+    }
+    
+    private static void setSnippet(ForumPostDTO dto, String text, String keyword) {
+        dto.setSnippet(Highlighter.snippet(text, keyword, SNIPPET_LENGTH));
+    }
+    
+    /**
+     * Get post by ID (counts a view; views are written in batches by {@link ForumViewCounter})
      */
-    @Transactional
     public ForumPostDTO getPostById(String postId, String firebaseUid) {
         String userId = getUserIdFromFirebaseUid(firebaseUid);
         ForumPost post = forumPostRepository.findById(postId)
             .orElseThrow(() -> new RuntimeException("Post not found with ID: " + postId));
         
-        // Increment view count
-        post.incrementViews();
-        forumPostRepository.save(post);
+        forumViewCounter.record(postId);
+        forumTrending.recordView(post);
         
-        return toDTO(post, userId);
+        ForumPostDTO dto = forumPostAssembler.toDTO(post, userId);
+        dto.setViewCount((int) Math.min(Integer.MAX_VALUE, post.getViewCount() + forumViewCounter.pending(postId)));
+        return dto;
     }
     
     /**
@@ -155,16 +246,21 @@ public class ForumService {
         }
         
         // Update fields
-        post.setTitle(request.getTitle());
-        post.setContent(request.getContent());
-        post.setCategory(request.getCategory());
-        post.setTags(request.getTags());
-        post.setUpdatedAt(LocalDateTime.now());
-        
-        ForumPost updated = forumPostRepository.save(post);
+        ForumPost updated = mongoTemplate.findAndModify(byId(postId),
+            new Update()
+                .set("title", request.getTitle())
+                .set("content", request.getContent())
+                .set("category", request.getCategory())
+                .set("tags", request.getTags())
+                .set("updatedAt", LocalDateTime.now()),
+            RETURN_NEW, ForumPost.class);
+        if (updated == null) {
+            throw new RuntimeException("Post not found with ID: " + postId);
+        }
+        forumSearchIndex.indexPost(updated);
         log.info("Post {} updated by user {}", postId, userId);
         
-        return toDTO(updated, userId);
+        return forumPostAssembler.toDTO(updated, userId);
     }
     
     /**
@@ -181,11 +277,17 @@ public class ForumService {
             throw new RuntimeException("You don't have permission to delete this post");
         }
         
-        // Delete all replies
+        // Delete all replies and the votes on the post and its replies
+        List<String> votedIds = new ArrayList<>();
+        votedIds.add(postId);
+        forumReplyRepository.findByPostId(postId).forEach(reply -> votedIds.add(reply.getId()));
+        forumVoteService.deleteVotes(votedIds);
         forumReplyRepository.deleteByPostId(postId);
         
         // Delete post
         forumPostRepository.deleteById(postId);
+        forumSearchIndex.removePost(postId);
+        forumTrending.remove(postId);
         log.info("Post {} deleted by user {}", postId, userId);
     }
     
@@ -195,16 +297,14 @@ public class ForumService {
     @Transactional
     public ForumPostDTO voteOnPost(String postId, VoteRequest voteRequest, String firebaseUid) {
         String userId = getUserIdFromFirebaseUid(firebaseUid);
-        ForumPost post = forumPostRepository.findById(postId)
-            .orElseThrow(() -> new RuntimeException("Post not found with ID: " + postId));
-        
         VoteType voteType = VoteType.valueOf(voteRequest.getVoteType());
-        post.vote(userId, voteType);
-        
-        ForumPost updated = forumPostRepository.save(post);
+        ForumPost updated = forumVoteService.vote(ForumPost.class, postId, userId, voteType);
+        if (updated == null) {
+            throw new RuntimeException("Post not found with ID: " + postId);
+        }
         log.info("User {} voted {} on post {}", userId, voteType, postId);
         
-        return toDTO(updated, userId);
+        return forumPostAssembler.toDTO(updated, userId, voteType);
     }
     
     // ==================== FORUM REPLY OPERATIONS ====================
@@ -215,35 +315,39 @@ public class ForumService {
     @Transactional
     public ForumReplyDTO createReply(CreateForumReplyRequest request, String firebaseUid) {
         log.info("Creating reply by user {} to post {}", firebaseUid, request.getPostId());
+        String postId = request.getPostId();
         
-        // Check if post exists
-        ForumPost post = forumPostRepository.findById(request.getPostId())
-            .orElseThrow(() -> new RuntimeException("Post not found with ID: " + request.getPostId()));
-        
-        // Check if post is locked
-        if (post.isLocked()) {
+        // Get user info
+        AuthenticatedUser user = userIdentityResolver.require(firebaseUid);
+        
+        // Count the reply on the post in one conditional update, which also checks the post
+        // exists and is not locked; the post is only read again to report which check failed
+        if (forumPostRepository.incrementReplyCount(postId, LocalDateTime.now()) == 0) {
+            if (!forumPostRepository.existsById(postId)) {
+                throw new RuntimeException("Post not found with ID: " + postId);
+            }
             throw new RuntimeException("This post is locked and cannot accept new replies");
         }
         
-        // Get user info
-        User user = userRepository.findByFirebaseUid(firebaseUid)
-            .orElseThrow(() -> new UserNotFoundException("User not found with Firebase UID: " + firebaseUid));
-        
         // Create reply
         ForumReply reply = new ForumReply();
         reply.setContent(request.getContent());
-        reply.setAuthorId(user.getId());
-        reply.setAuthorUsername(user.getUsername());
-        reply.setPostId(request.getPostId());
-        
-        ForumReply saved = forumReplyRepository.save(reply);
-        
-        // Update post reply count and activity
-        post.incrementReplyCount();
-        forumPostRepository.save(post);
+        reply.setAuthorId(user.id());
+        reply.setAuthorUsername(user.username());
+        reply.setPostId(postId);
+        
+        ForumReply saved;
+        try {
+            saved = forumReplyRepository.save(reply);
+        } catch (RuntimeException e) {
+            forumPostRepository.decrementReplyCount(postId, LocalDateTime.now());
+            throw e;
+        }
+        forumSearchIndex.indexReply(saved);
+        forumTrending.recordReply(postId);
         
         log.info("Reply created with ID: {}", saved.getId());
-        return toReplyDTO(saved, user.getId());
+        return toReplyDTO(saved, (VoteType) null);  // A new reply has no votes yet
     }
     
     /**
@@ -252,7 +356,9 @@ public class ForumService {
     public Page<ForumReplyDTO> getRepliesForPost(String postId, String firebaseUid, Pageable pageable) {
         String userId = getUserIdFromFirebaseUid(firebaseUid);
         Page<ForumReply> replies = forumReplyRepository.findByPostId(postId, pageable);
-        return replies.map(reply -> toReplyDTO(reply, userId));
+        Map<String, VoteType> votes = forumVoteService.votesOf(userId,
+            replies.getContent().stream().map(ForumReply::getId).toList());
+        return replies.map(reply -> toReplyDTO(reply, votes.get(reply.getId())));
     }
     
     /**
@@ -269,10 +375,13 @@ public class ForumService {
             throw new RuntimeException("You don't have permission to edit this reply");
         }
         
-        reply.setContent(content);
-        reply.setUpdatedAt(LocalDateTime.now());
-        
-        ForumReply updated = forumReplyRepository.save(reply);
+        ForumReply updated = mongoTemplate.findAndModify(byId(replyId),
+            new Update().set("content", content).set("updatedAt", LocalDateTime.now()),
+            RETURN_NEW, ForumReply.class);
+        if (updated == null) {
+            throw new RuntimeException("Reply not found with ID: " + replyId);
+        }
+        forumSearchIndex.indexReply(updated);
         log.info("Reply {} updated by user {}", replyId, userId);
         
         return toReplyDTO(updated, userId);
@@ -292,14 +401,13 @@ public class ForumService {
             throw new RuntimeException("You don't have permission to delete this reply");
         }
         
-        // Update post reply count
-        ForumPost post = forumPostRepository.findById(reply.getPostId())
-            .orElseThrow(() -> new RuntimeException("Post not found"));
-        post.decrementReplyCount();
-        forumPostRepository.save(post);
-        
-        // Delete reply
-        forumReplyRepository.deleteById(replyId);
+        // Delete reply; only the request that actually deleted it uncounts it on the post
+        if (forumReplyRepository.removeById(replyId) == 0) {
+            return;
+        }
+        forumPostRepository.decrementReplyCount(reply.getPostId(), LocalDateTime.now());
+        forumVoteService.deleteVotes(List.of(replyId));
+        forumSearchIndex.removeReply(reply.getPostId(), replyId);
         log.info("Reply {} deleted by user {}", replyId, userId);
     }
     
@@ -309,16 +417,14 @@ public class ForumService {
     @Transactional
     public ForumReplyDTO voteOnReply(String replyId, VoteRequest voteRequest, String firebaseUid) {
         String userId = getUserIdFromFirebaseUid(firebaseUid);
-        ForumReply reply = forumReplyRepository.findById(replyId)
-            .orElseThrow(() -> new RuntimeException("Reply not found with ID: " + replyId));
-        
         VoteType voteType = VoteType.valueOf(voteRequest.getVoteType());
-        reply.vote(userId, voteType);
-        
-        ForumReply updated = forumReplyRepository.save(reply);
+        ForumReply updated = forumVoteService.vote(ForumReply.class, replyId, userId, voteType);
+        if (updated == null) {
+            throw new RuntimeException("Reply not found with ID: " + replyId);
+        }
         log.info("User {} voted {} on reply {}", userId, voteType, replyId);
         
-        return toReplyDTO(updated, userId);
+        return toReplyDTO(updated, voteType);
     }
     
     /**
@@ -339,19 +445,21 @@ public class ForumService {
         }
         
         // Remove accepted answer from other replies
-        forumReplyRepository.findByPostIdAndIsAcceptedAnswerTrue(reply.getPostId())
-            .ifPresent(existingAnswer -> {
-                existingAnswer.setAcceptedAnswer(false);
-                forumReplyRepository.save(existingAnswer);
-            });
+        mongoTemplate.updateMulti(
+            Query.query(Criteria.where("postId").is(reply.getPostId())
+                .and("isAcceptedAnswer").is(true)
+                .and("_id").ne(replyId)),
+            new Update().set("isAcceptedAnswer", false), ForumReply.class);
         
         // Mark this reply as accepted
-        reply.setAcceptedAnswer(true);
-        ForumReply updated = forumReplyRepository.save(reply);
+        ForumReply updated = mongoTemplate.findAndModify(byId(replyId),
+            new Update().set("isAcceptedAnswer", true), RETURN_NEW, ForumReply.class);
+        if (updated == null) {
+            throw new RuntimeException("Reply not found with ID: " + replyId);
+        }
         
         // Mark post as resolved
-        post.setResolved(true);
-        forumPostRepository.save(post);
+        mongoTemplate.updateFirst(byId(post.getId()), new Update().set("isResolved", true), ForumPost.class);
         
         log.info("Reply {} marked as accepted answer", replyId);
         return toReplyDTO(updated, userId);
@@ -365,14 +473,13 @@ public class ForumService {
     @Transactional
     public ForumPostDTO togglePinPost(String postId, String firebaseUid) {
         String userId = getUserIdFromFirebaseUid(firebaseUid);
-        ForumPost post = forumPostRepository.findById(postId)
-            .orElseThrow(() -> new RuntimeException("Post not found with ID: " + postId));
-        
-        post.setPinned(!post.isPinned());
-        ForumPost updated = forumPostRepository.save(post);
+        ForumPost updated = mongoTemplate.findAndModify(byId(postId), toggle("isPinned"), RETURN_NEW, ForumPost.class);
+        if (updated == null) {
+            throw new RuntimeException("Post not found with ID: " + postId);
+        }
         
-        log.info("Post {} pin status toggled to {} by admin {}", postId, post.isPinned(), userId);
-        return toDTO(updated, userId);
+        log.info("Post {} pin status toggled to {} by admin {}", postId, updated.isPinned(), userId);
+        return forumPostAssembler.toDTO(updated, userId);
     }
     
     /**
@@ -381,14 +488,13 @@ public class ForumService {
     @Transactional
     public ForumPostDTO toggleLockPost(String postId, String firebaseUid) {
         String userId = getUserIdFromFirebaseUid(firebaseUid);
-        ForumPost post = forumPostRepository.findById(postId)
-            .orElseThrow(() -> new RuntimeException("Post not found with ID: " + postId));
-        
-        post.setLocked(!post.isLocked());
-        ForumPost updated = forumPostRepository.save(post);
+        ForumPost updated = mongoTemplate.findAndModify(byId(postId), toggle("isLocked"), RETURN_NEW, ForumPost.class);
+        if (updated == null) {
+            throw new RuntimeException("Post not found with ID: " + postId);
+        }
         
-        log.info("Post {} lock status toggled to {} by admin {}", postId, post.isLocked(), userId);
-        return toDTO(updated, userId);
+        log.info("Post {} lock status toggled to {} by admin {}", postId, updated.isLocked(), userId);
+        return forumPostAssembler.toDTO(updated, userId);
     }
     
     /**
@@ -409,58 +515,16 @@ public class ForumService {
     }
     
     /**
-     * Convert ForumPost entity to DTO with user-specific data
+     * Convert ForumReply entity to DTO with user-specific data
      */
-    private ForumPostDTO toDTO(ForumPost post, String userId) {
-        ForumPostDTO dto = new ForumPostDTO();
-        dto.setId(post.getId());
-        dto.setTitle(post.getTitle());
-        dto.setContent(post.getContent());
-        dto.setAuthorId(post.getAuthorId());
-        dto.setAuthorUsername(post.getAuthorUsername());
-        dto.setCourseId(post.getCourseId());
-        dto.setChapterId(post.getChapterId());
-        dto.setCategory(post.getCategory());
-        dto.setTags(post.getTags());
-        dto.setAttachments(post.getAttachments());  // Include attachments in DTO
-        dto.setViewCount(post.getViewCount());
-        dto.setUpvotes(post.getUpvotes());
-        dto.setDownvotes(post.getDownvotes());
-        dto.setNetVotes(post.getNetVotes());
-        dto.setReplyCount(post.getReplyCount());
-        dto.setPinned(post.isPinned());
-        dto.setLocked(post.isLocked());
-        dto.setResolved(post.isResolved());
-        dto.setCreatedAt(post.getCreatedAt());
-        dto.setUpdatedAt(post.getUpdatedAt());
-        dto.setLastActivityAt(post.getLastActivityAt());
-        
-        // Set user's vote status
-        if (post.getUpvotedBy().contains(userId)) {
-            dto.setUserVoteStatus("UPVOTED");
-        } else if (post.getDownvotedBy().contains(userId)) {
-            dto.setUserVoteStatus("DOWNVOTED");
-        } else {
-            dto.setUserVoteStatus("NONE");
-        }
-        
-        // Get course and chapter names if available
-        if (post.getCourseId() != null) {
-            courseRepository.findById(post.getCourseId())
-                .ifPresent(course -> dto.setCourseName(course.getTitle()));
-        }
-        if (post.getChapterId() != null) {
-            chapterRepository.findById(post.getChapterId())
-                .ifPresent(chapter -> dto.setChapterName(chapter.getTitle()));
-        }
-        
-        return dto;
+    private ForumReplyDTO toReplyDTO(ForumReply reply, String userId) {
+        return toReplyDTO(reply, forumVoteService.votesOf(userId, List.of(reply.getId())).get(reply.getId()));
     }
     
     /**
-     * Convert ForumReply entity to DTO with user-specific data
+     * Convert ForumReply entity to DTO, given the viewer's vote on it (null for none)
      */
-    private ForumReplyDTO toReplyDTO(ForumReply reply, String userId) {
+    private ForumReplyDTO toReplyDTO(ForumReply reply, VoteType vote) {
         ForumReplyDTO dto = new ForumReplyDTO();
         dto.setId(reply.getId());
         dto.setContent(reply.getContent());
@@ -474,14 +538,7 @@ public class ForumService {
         dto.setCreatedAt(reply.getCreatedAt());
         dto.setUpdatedAt(reply.getUpdatedAt());
         
-        // Set user's vote status
-        if (reply.getUpvotedBy().contains(userId)) {
-            dto.setUserVoteStatus("UPVOTED");
-        } else if (reply.getDownvotedBy().contains(userId)) {
-            dto.setUserVoteStatus("DOWNVOTED");
-        } else {
-            dto.setUserVoteStatus("NONE");
-        }
+        dto.setUserVoteStatus(ForumVoteService.voteStatus(vote));
         
         return dto;
     }
@@ -0,0 +1,452 @@
+package com.devlcm.lcm.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.entity.ForumPost;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trending forum posts, ranked by views, net votes and new replies that lose half their weight
+ * every {@code app.forum.trending.half-life}.
+ * <p>
+ * A post's score is kept as a rank on a log scale, {@code ln(score) + t / tau}: every rank decays
+ * at the same rate, so the order of posts never changes by itself and each event only moves the
+ * post it concerns. The best {@code app.forum.trending.size} posts overall and per course are
+ * kept in sorted sets updated on each event.
+ * <p>
+ * {@code trendingScore} holds the rank of the activity on all instances. Each instance keeps the
+ * activity it served since its last write and, every {@code app.forum.trending.persist-interval},
+ * adds it to the stored rank in one pipeline update per post, which also clears the rank of a
+ * post that has gone quiet. It then reads back the ranks of all trending posts, so every instance
+ * ranks the activity of all of them, up to one interval late.
+ */
+@Slf4j
+@Component
+public class ForumTrending implements ApplicationRunner {
+
+    static final String TRENDING_SCORE = "trendingScore";
+    static final double VIEW_WEIGHT = 1;
+    static final double VOTE_WEIGHT = 5;
+    static final double REPLY_WEIGHT = 10;
+    /** Posts whose decayed score falls below this stop trending (a single view after ~3 half-lives). */
+    static final double MIN_SCORE = 0.1;
+    static final int BATCH_SIZE = 1000;
+    /** Stands in for a missing stored rank; adding a rank to it gives that rank. */
+    private static final double NO_RANK = -Double.MAX_VALUE;
+    private static final long EPOCH_MILLIS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+    /** A post's position; ordered best first. */
+    record Ranked(String postId, String courseId, double rank) {
+    }
+
+    /**
+     * Activity not yet added to the stored rank, as the ranks of the events that raised and that
+     * lowered the score; negative infinity if none did. A post with neither only needs its stored
+     * rank cleared once it has gone quiet.
+     */
+    record Pending(String courseId, double added, double removed) {
+
+        static Pending of(String courseId, double weight, double event) {
+            return weight > 0 ? new Pending(courseId, event, Double.NEGATIVE_INFINITY)
+                : new Pending(courseId, Double.NEGATIVE_INFINITY, event);
+        }
+
+        Pending plus(Pending other) {
+            return new Pending(courseId != null ? courseId : other.courseId(),
+                logAdd(added, other.added()), logAdd(removed, other.removed()));
+        }
+
+        double applyTo(double rank) {
+            return logSubtract(logAdd(rank, added), removed);
+        }
+    }
+
+    private static final Comparator<Ranked> BEST_FIRST = Comparator.comparingDouble(Ranked::rank).reversed()
+        .thenComparing(Ranked::postId);
+
+    private final MongoTemplate mongoTemplate;
+    private final double tauMillis;
+    private final int size;
+    private final Duration persistInterval;
+    private final Object lock = new Object();
+    /** Every post with a score, trending or not; guarded by {@link #lock} like the sets below. */
+    private final Map<String, Ranked> ranks = new HashMap<>();
+    private TreeSet<Ranked> top = new TreeSet<>(BEST_FIRST);
+    private Map<String, TreeSet<Ranked>> topByCourse = new HashMap<>();
+    /** Posts whose activity is not written yet, or whose stored rank may need clearing. */
+    private Map<String, Pending> pending = new HashMap<>();
+    private ScheduledExecutorService persister;
+
+    public ForumTrending(MongoTemplate mongoTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.forum.trending.half-life:12h}") Duration halfLife,
+                         @Value("${app.forum.trending.size:100}") int size,
+                         @Value("${app.forum.trending.persist-interval:1m}") Duration persistInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.tauMillis = Math.max(1, halfLife.toMillis()) / Math.log(2);
+        this.size = Math.max(1, size);
+        this.persistInterval = persistInterval;
+        Gauge.builder("forum.trending.posts", this, ForumTrending::scoredPosts)
+            .description("Forum posts with a trending score held in memory")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            createIndexes();
+            load(System.currentTimeMillis());
+        } catch (DataAccessException e) {
+            log.warn("Could not load trending forum scores, starting from scratch: {}", e.getMessage());
+        }
+        if (!persistInterval.isZero() && !persistInterval.isNegative()) {
+            persister = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "forum-trending-persist");
+                thread.setDaemon(true);
+                return thread;
+            });
+            persister.scheduleWithFixedDelay(this::persist, persistInterval.toMillis(), persistInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (persister != null) {
+            persister.shutdownNow();
+            persist();
+        }
+    }
+
+    private void createIndexes() {
+        mongoTemplate.indexOps(ForumPost.class).ensureIndex(new Index()
+            .on(TRENDING_SCORE, Sort.Direction.DESC)
+            .named("trending"));
+        mongoTemplate.indexOps(ForumPost.class).ensureIndex(new Index()
+            .on("courseId", Sort.Direction.ASC)
+            .on(TRENDING_SCORE, Sort.Direction.DESC)
+            .named("course_trending"));
+    }
+
+    /**
+     * Replace the ranks with the stored ones still above {@link #MIN_SCORE}, adding the activity
+     * not written yet, and rebuild the sets.
+     */
+    void load(long now) {
+        double minRank = minRank(now);
+        Query scored = new Query(Criteria.where(TRENDING_SCORE).gte(minRank));
+        scored.fields().include("courseId", TRENDING_SCORE);
+        Map<String, Ranked> stored = new HashMap<>();
+        try (Stream<ForumPost> stream = mongoTemplate.stream(scored, ForumPost.class)) {
+            stream.forEach(post -> stored.put(post.getId(),
+                new Ranked(post.getId(), post.getCourseId(), post.getTrendingScore())));
+        }
+        synchronized (lock) {
+            ranks.clear();
+            ranks.putAll(stored);
+            pending.forEach((postId, activity) -> {
+                Ranked base = stored.get(postId);
+                double rank = activity.applyTo(base != null ? base.rank() : Double.NEGATIVE_INFINITY);
+                if (rank < minRank) {
+                    ranks.remove(postId);
+                } else {
+                    ranks.put(postId, new Ranked(postId, base != null ? base.courseId() : activity.courseId(), rank));
+                }
+            });
+            relink();
+        }
+        log.debug("Loaded trending scores of {} forum posts", stored.size());
+    }
+
+    public void recordView(ForumPost post) {
+        record(post.getId(), post.getCourseId(), VIEW_WEIGHT, System.currentTimeMillis());
+    }
+
+    /**
+     * Count a change of the post's net votes (+2 when a downvote becomes an upvote).
+     */
+    public void recordVotes(ForumPost post, int netVotes) {
+        if (netVotes != 0) {
+            record(post.getId(), post.getCourseId(), netVotes * VOTE_WEIGHT, System.currentTimeMillis());
+        }
+    }
+
+    public void recordReply(String postId) {
+        String courseId = null;
+        boolean known;
+        synchronized (lock) {
+            known = ranks.containsKey(postId);
+        }
+        if (!known) {
+            // Not ranked yet: look up the course the post belongs to
+            Query post = new Query(Criteria.where("_id").is(postId));
+            post.fields().include("courseId");
+            ForumPost found = mongoTemplate.findOne(post, ForumPost.class);
+            if (found == null) {
+                return;
+            }
+            courseId = found.getCourseId();
+        }
+        record(postId, courseId, REPLY_WEIGHT, System.currentTimeMillis());
+    }
+
+    public void remove(String postId) {
+        synchronized (lock) {
+            Ranked old = ranks.remove(postId);
+            if (old != null) {
+                unlink(old);
+            }
+            pending.remove(postId);
+        }
+    }
+
+    /**
+     * Ids of the trending posts, best first: of one course, or of the whole forum if
+     * {@code courseId} is null. At most {@code app.forum.trending.size} ids.
+     */
+    public List<String> trending(String courseId) {
+        synchronized (lock) {
+            TreeSet<Ranked> posts = courseId == null ? top : topByCourse.get(courseId);
+            if (posts == null) {
+                return List.of();
+            }
+            return posts.stream().map(Ranked::postId).toList();
+        }
+    }
+
+    int scoredPosts() {
+        synchronized (lock) {
+            return ranks.size();
+        }
+    }
+
+    /**
+     * Add a weighted event at {@code now} to the post's rank; a negative weight can bring the
+     * score down to nothing, which drops the post.
+     */
+    void record(String postId, String courseId, double weight, long now) {
+        double event = Math.log(Math.abs(weight)) + elapsed(now);
+        synchronized (lock) {
+            Ranked old = ranks.get(postId);
+            if (old == null && weight <= 0) {
+                return;
+            }
+            String course = old != null ? old.courseId() : courseId;
+            Pending activity = Pending.of(course, weight, event);
+            pending.merge(postId, activity, Pending::plus);
+            double rank = activity.applyTo(old != null ? old.rank() : Double.NEGATIVE_INFINITY);
+            if (rank == Double.NEGATIVE_INFINITY) {
+                ranks.remove(postId);
+                unlink(old);
+                return;
+            }
+            put(old, new Ranked(postId, course, rank));
+        }
+    }
+
+    void persist() {
+        try {
+            persist(System.currentTimeMillis());
+        } catch (DataAccessException e) {
+            log.warn("Could not read back trending forum scores, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add the activity not written yet to the stored ranks (clearing those of posts that have
+     * gone quiet), then read all trending ranks back. Activity that fails to write is retried
+     * next time.
+     */
+    void persist(long now) {
+        Map<String, Pending> writes;
+        synchronized (lock) {
+            refresh(now);
+            writes = pending;
+            pending = new HashMap<>();
+        }
+        double minRank = minRank(now);
+        List<Map.Entry<String, Pending>> batch = new ArrayList<>(BATCH_SIZE);
+        for (Map.Entry<String, Pending> write : writes.entrySet()) {
+            batch.add(write);
+            if (batch.size() == BATCH_SIZE) {
+                write(batch, minRank);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, minRank);
+        }
+        load(now);
+    }
+
+    private void write(List<Map.Entry<String, Pending>> batch, double minRank) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ForumPost.class);
+        for (Map.Entry<String, Pending> write : batch) {
+            bulk.updateOne(new Query(Criteria.where("_id").is(write.getKey())), addTo(write.getValue(), minRank));
+        }
+        try {
+            bulk.execute();
+        } catch (DataAccessException e) {
+            log.warn("Could not write {} trending forum scores, retrying on the next run: {}", batch.size(),
+                e.getMessage());
+            synchronized (lock) {
+                batch.forEach(write -> pending.merge(write.getKey(), write.getValue(), Pending::plus));
+            }
+        }
+    }
+
+    /**
+     * A pipeline update adding the activity to the stored rank, {@code ln(e^stored + e^added - e^removed)},
+     * and removing the rank if that falls below {@code minRank}. Being evaluated by Mongo, it keeps
+     * the activity other instances added meanwhile.
+     */
+    static AggregationUpdate addTo(Pending activity, double minRank) {
+        Object rank = new Document("$ifNull", List.of("$" + TRENDING_SCORE, NO_RANK));
+        if (activity.added() != Double.NEGATIVE_INFINITY) {
+            rank = logAddExpression(rank, activity.added());
+        }
+        if (activity.removed() != Double.NEGATIVE_INFINITY) {
+            rank = logSubtractExpression(rank, activity.removed());
+        }
+        Document kept = new Document("$let", new Document("vars", new Document("rank", rank))
+            .append("in", new Document("$cond", List.of(
+                new Document("$gte", List.of("$$rank", minRank)), "$$rank", "$$REMOVE"))));
+        Document stage = new Document("$set", new Document(TRENDING_SCORE, kept));
+        return AggregationUpdate.from(List.<AggregationOperation>of(context -> stage));
+    }
+
+    /**
+     * Drop posts whose score has decayed below {@link #MIN_SCORE}, so that their stored rank is
+     * cleared on the next write unless other instances kept it up, and rebuild the sets from all
+     * ranks, restoring posts that a member falling in rank should have let back in.
+     */
+    void refresh(long now) {
+        synchronized (lock) {
+            double minRank = minRank(now);
+            ranks.values().removeIf(ranked -> {
+                if (ranked.rank() >= minRank) {
+                    return false;
+                }
+                pending.putIfAbsent(ranked.postId(),
+                    new Pending(ranked.courseId(), Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY));
+                return true;
+            });
+            relink();
+        }
+    }
+
+    private void relink() {
+        top = new TreeSet<>(BEST_FIRST);
+        topByCourse = new HashMap<>();
+        for (Ranked ranked : ranks.values()) {
+            link(ranked);
+        }
+    }
+
+    private void put(Ranked old, Ranked ranked) {
+        if (old != null) {
+            unlink(old);
+        }
+        ranks.put(ranked.postId(), ranked);
+        link(ranked);
+    }
+
+    private void link(Ranked ranked) {
+        offer(top, ranked);
+        if (ranked.courseId() != null) {
+            offer(topByCourse.computeIfAbsent(ranked.courseId(), id -> new TreeSet<>(BEST_FIRST)), ranked);
+        }
+    }
+
+    private void unlink(Ranked ranked) {
+        top.remove(ranked);
+        if (ranked.courseId() != null) {
+            TreeSet<Ranked> course = topByCourse.get(ranked.courseId());
+            if (course != null) {
+                course.remove(ranked);
+                if (course.isEmpty()) {
+                    topByCourse.remove(ranked.courseId());
+                }
+            }
+        }
+    }
+
+    private void offer(TreeSet<Ranked> posts, Ranked ranked) {
+        posts.add(ranked);
+        if (posts.size() > size) {
+            posts.pollLast();
+        }
+    }
+
+    private double elapsed(long now) {
+        return (now - EPOCH_MILLIS) / tauMillis;
+    }
+
+    private double minRank(long now) {
+        return Math.log(MIN_SCORE) + elapsed(now);
+    }
+
+    /** {@code ln(e^a + e^b)} without overflow. */
+    private static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        if (max == Double.NEGATIVE_INFINITY) {
+            return max;
+        }
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    /** {@code ln(e^a - e^b)}, or negative infinity if that is not positive. */
+    private static double logSubtract(double a, double b) {
+        if (b >= a) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return a + Math.log1p(-Math.exp(b - a));
+    }
+
+    /** {@link #logAdd} as a Mongo expression. */
+    private static Document logAddExpression(Object a, double b) {
+        Document max = new Document("$max", List.of("$$a", b));
+        Document min = new Document("$min", List.of("$$a", b));
+        return new Document("$let", new Document("vars", new Document("a", a))
+            .append("in", new Document("$add", List.of(max, new Document("$ln", new Document("$add",
+                List.of(1, new Document("$exp", new Document("$subtract", List.of(min, max))))))))));
+    }
+
+    /** {@link #logSubtract} as a Mongo expression, giving {@link #NO_RANK} if not positive. */
+    private static Document logSubtractExpression(Object a, double b) {
+        Document difference = new Document("$add", List.of("$$a", new Document("$ln", new Document("$subtract",
+            List.of(1, new Document("$exp", new Document("$subtract", List.of(b, "$$a"))))))));
+        return new Document("$let", new Document("vars", new Document("a", a))
+            .append("in", new Document("$cond", List.of(new Document("$gt", List.of("$$a", b)), difference, NO_RANK))));
+    }
+}
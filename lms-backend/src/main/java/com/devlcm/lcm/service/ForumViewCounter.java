@@ -0,0 +1,192 @@
+package com.devlcm.lcm.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.entity.ForumPost;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts forum post views in memory and writes them as bulk {@code $inc} updates every
+ * {@code app.forum.views.flush-interval}, so viewing a post never writes the post document.
+ * <p>
+ * Each post has a {@link LongAdder}, so concurrent viewers of the same post do not contend.
+ * At most {@code app.forum.views.max-pending} posts are buffered; views of further posts are
+ * written straight away with a single {@code $inc} and trigger an early flush. Pending views are
+ * flushed on shutdown; views buffered when a node dies uncleanly are lost.
+ */
+@Slf4j
+@Component
+public class ForumViewCounter {
+
+    static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxPending;
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean earlyFlushRequested = new AtomicBoolean();
+    private final Counter flushed;
+
+    public ForumViewCounter(MongoTemplate mongoTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.forum.views.flush-interval:5s}") Duration flushInterval,
+                            @Value("${app.forum.views.max-pending:100000}") int maxPending) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxPending = Math.max(1, maxPending);
+        this.flushed = meterRegistry.counter("forum.views.flushed");
+        Gauge.builder("forum.views.pending", this, ForumViewCounter::pendingViews)
+            .description("Views counted but not yet written to MongoDB")
+            .register(meterRegistry);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "forum-view-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void record(String postId) {
+        record(postId, 1);
+    }
+
+    private void record(String postId, long views) {
+        LongAdder adder = pending.get(postId);
+        if (adder == null) {
+            if (pending.size() >= maxPending) {
+                writeNow(postId, views);
+                requestEarlyFlush();
+                return;
+            }
+            adder = pending.computeIfAbsent(postId, id -> new LongAdder());
+        }
+        adder.add(views);
+        if (pending.get(postId) != adder) {
+            // The flusher retired this adder concurrently; reclaim whatever it did not pick up
+            long late = adder.sumThenReset();
+            if (late > 0) {
+                record(postId, late);
+            }
+        }
+    }
+
+    /**
+     * Views of a post counted here and not yet written, to add to the stored count when displaying it.
+     */
+    public long pending(String postId) {
+        LongAdder adder = pending.get(postId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    long pendingViews() {
+        long total = 0;
+        for (LongAdder adder : pending.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Write all pending views. Posts whose adder was idle since the last flush are dropped from the
+     * buffer; counts that fail to write are put back for the next attempt.
+     */
+    synchronized void flush() {
+        earlyFlushRequested.set(false);
+        Map<String, Long> increments = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> entry : pending.entrySet()) {
+            long views = entry.getValue().sumThenReset();
+            if (views == 0 && pending.remove(entry.getKey(), entry.getValue())) {
+                // Increments racing with the removal are reclaimed by record() or picked up here
+                views = entry.getValue().sumThenReset();
+            }
+            if (views > 0) {
+                increments.put(entry.getKey(), views);
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<String, Long>> batch = new ArrayList<>(BATCH_SIZE);
+        for (Map.Entry<String, Long> increment : increments.entrySet()) {
+            batch.add(increment);
+            if (batch.size() == BATCH_SIZE) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<Map.Entry<String, Long>> batch) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ForumPost.class);
+        long views = 0;
+        for (Map.Entry<String, Long> increment : batch) {
+            bulk.updateOne(byId(increment.getKey()), new Update().inc("viewCount", increment.getValue()));
+            views += increment.getValue();
+        }
+        try {
+            bulk.execute();
+            flushed.increment(views);
+        } catch (DataAccessException e) {
+            log.warn("Could not write {} forum post views, retrying on the next flush: {}", views, e.getMessage());
+            batch.forEach(increment -> record(increment.getKey(), increment.getValue()));
+        }
+    }
+
+    private void writeNow(String postId, long views) {
+        try {
+            mongoTemplate.updateFirst(byId(postId), new Update().inc("viewCount", views), ForumPost.class);
+            flushed.increment(views);
+        } catch (DataAccessException e) {
+            log.warn("Could not write view of forum post {}: {}", postId, e.getMessage());
+        }
+    }
+
+    private void requestEarlyFlush() {
+        if (earlyFlushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                earlyFlushRequested.set(false);
+            }
+        }
+    }
+
+    private static Query byId(String postId) {
+        return new Query(Criteria.where("_id").is(postId));
+    }
+
+    @PreDestroy
+    void stop() {
+        flusher.shutdownNow();
+        flush();
+    }
+}
@@ -0,0 +1,218 @@
+package com.devlcm.lcm.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.devlcm.lcm.entity.ForumPost;
+import com.devlcm.lcm.entity.ForumReply;
+import com.devlcm.lcm.entity.ForumVote;
+import com.devlcm.lcm.entity.VoteType;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves votes still embedded in posts and replies ({@code upvotedBy}/{@code downvotedBy} sets
+ * from before {@link ForumVote}) into {@code forum_votes} at startup, then drops the sets.
+ * <p>
+ * Safe during a rolling deploy:
+ * <ul>
+ *   <li>Counters are adjusted with {@code $inc}, never overwritten, so votes counted concurrently by
+ *   new nodes are kept. The only adjustment is for embedded voters whose vote a new node already
+ *   recorded (and counted again); the newer recorded vote wins.</li>
+ *   <li>A document is claimed before its votes are copied, so two migrating nodes never work on it
+ *   at once, and the final update only applies if the sets are still as read. When an old node
+ *   changed them meanwhile, the copied votes are removed again and the document is retried.</li>
+ * </ul>
+ * Idempotent: documents without the sets are never read.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ForumVoteMigration implements ApplicationRunner {
+
+    private static final String UPVOTED_BY = "upvotedBy";
+    private static final String DOWNVOTED_BY = "downvotedBy";
+    /** {@code {token, at}} on a document being migrated. */
+    static final String CLAIM = "voteMigration";
+    /** On copied votes: the claim token they were copied under, so an abandoned attempt can be undone. */
+    static final String MIGRATION = "migration";
+    private static final String TOKEN = "token";
+    private static final String AT = "at";
+    /** A claim this old belongs to a node that stopped mid-document. */
+    private static final Duration CLAIM_TIMEOUT = Duration.ofMinutes(5);
+    private static final int ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            migrate(ForumPost.class);
+            migrate(ForumReply.class);
+        } catch (DataAccessException e) {
+            log.warn("Could not migrate embedded forum votes, retrying on the next start: {}", e.getMessage());
+        }
+    }
+
+    private void migrate(Class<?> targetType) {
+        String collection = mongoTemplate.getCollectionName(targetType);
+        int documents = 0;
+        int skipped = 0;
+        try (Stream<Document> stream = mongoTemplate.stream(embedded(new Query()), Document.class, collection)) {
+            for (Document document : (Iterable<Document>) stream::iterator) {
+                if (migrate(collection, document)) {
+                    documents++;
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        if (documents > 0) {
+            log.info("Moved embedded votes of {} documents from {} to forum_votes", documents, collection);
+        }
+        if (skipped > 0) {
+            log.info("Left {} documents in {} with embedded votes for the next start", skipped, collection);
+        }
+    }
+
+    /**
+     * @return false if another node is migrating the document, or it kept changing under this one
+     */
+    private boolean migrate(String collection, Document document) {
+        Object id = document.get("_id");
+        for (int attempt = 1; attempt <= ATTEMPTS && document != null; attempt++) {
+            Document claim = document.get(CLAIM, Document.class);
+            if (claim != null && claim.getDate(AT).after(new Date(System.currentTimeMillis() - CLAIM_TIMEOUT.toMillis()))) {
+                return false;
+            }
+            String token = UUID.randomUUID().toString();
+            Update claimed = new Update().set(CLAIM, new Document(TOKEN, token).append(AT, new Date()));
+            Query unclaimed = asRead(document).addCriteria(claim != null
+                ? Criteria.where(CLAIM + "." + TOKEN).is(claim.getString(TOKEN))
+                : Criteria.where(CLAIM).exists(false));
+            if (mongoTemplate.updateFirst(unclaimed, claimed, collection).getMatchedCount() == 1) {
+                if (claim != null) {
+                    removeVotesCopiedUnder(id, claim.getString(TOKEN));
+                }
+                if (copyVotes(collection, document, token)) {
+                    return true;
+                }
+            }
+            document = mongoTemplate.findOne(embedded(Query.query(Criteria.where("_id").is(id))), Document.class,
+                collection);
+        }
+        return document == null;
+    }
+
+    /**
+     * Copy the claimed document's votes, then drop its sets if they are unchanged.
+     *
+     * @return false if an old node changed the sets meanwhile; the copied votes are removed again
+     */
+    private boolean copyVotes(String collection, Document document, String token) {
+        Object id = document.get("_id");
+        String targetId = String.valueOf(id);
+        List<String> upvoters = voters(document.get(UPVOTED_BY));
+        List<String> downvoters = voters(document.get(DOWNVOTED_BY));
+        int recordedUpvotes = 0;
+        int recordedDownvotes = 0;
+        if (!upvoters.isEmpty() || !downvoters.isEmpty()) {
+            BulkOperations votes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ForumVote.class);
+            addVotes(votes, targetId, upvoters, VoteType.UPVOTE, token);
+            addVotes(votes, targetId, downvoters, VoteType.DOWNVOTE, token);
+            BulkWriteResult result = votes.execute();
+            // Operations that matched instead of inserting found a vote a new node recorded
+            recordedUpvotes = upvoters.size();
+            recordedDownvotes = downvoters.size();
+            for (BulkWriteUpsert inserted : result.getUpserts()) {
+                if (inserted.getIndex() < upvoters.size()) {
+                    recordedUpvotes--;
+                } else {
+                    recordedDownvotes--;
+                }
+            }
+        }
+
+        // The counters already include every embedded vote, and recorded ones a second time
+        Query claimed = asRead(document).addCriteria(Criteria.where(CLAIM + "." + TOKEN).is(token));
+        Update finished = new Update()
+            .inc("upvotes", -recordedUpvotes)
+            .inc("downvotes", -recordedDownvotes)
+            .unset(UPVOTED_BY)
+            .unset(DOWNVOTED_BY)
+            .unset(CLAIM);
+        if (mongoTemplate.updateFirst(claimed, finished, collection).getMatchedCount() == 1) {
+            return true;
+        }
+        removeVotesCopiedUnder(id, token);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id).and(CLAIM + "." + TOKEN).is(token)),
+            new Update().unset(CLAIM), collection);
+        return false;
+    }
+
+    private void removeVotesCopiedUnder(Object targetId, String token) {
+        mongoTemplate.remove(Query.query(Criteria.where(ForumVoteService.TARGET_ID).is(String.valueOf(targetId))
+            .and(MIGRATION).is(token)), ForumVote.class);
+    }
+
+    private static Query embedded(Query query) {
+        query.addCriteria(new Criteria().orOperator(
+            Criteria.where(UPVOTED_BY).exists(true), Criteria.where(DOWNVOTED_BY).exists(true)));
+        query.fields().include(UPVOTED_BY, DOWNVOTED_BY, CLAIM);
+        return query;
+    }
+
+    /**
+     * Matches the document only while its sets are as read.
+     */
+    private static Query asRead(Document document) {
+        Criteria criteria = Criteria.where("_id").is(document.get("_id"));
+        for (String field : List.of(UPVOTED_BY, DOWNVOTED_BY)) {
+            criteria = document.containsKey(field)
+                ? criteria.and(field).is(document.get(field))
+                : criteria.and(field).exists(false);
+        }
+        return Query.query(criteria);
+    }
+
+    private static void addVotes(BulkOperations votes, String targetId, Collection<String> userIds, VoteType type,
+                                 String token) {
+        LocalDateTime now = LocalDateTime.now();
+        for (String userId : userIds) {
+            votes.upsert(
+                new Query(Criteria.where(ForumVoteService.TARGET_ID).is(targetId)
+                    .and(ForumVoteService.USER_ID).is(userId)),
+                new Update()
+                    .setOnInsert("type", type)
+                    .setOnInsert(MIGRATION, token)
+                    .setOnInsert("createdAt", now)
+                    .setOnInsert("updatedAt", now));
+        }
+    }
+
+    private static List<String> voters(Object set) {
+        if (set instanceof Collection<?> userIds) {
+            return userIds.stream().map(String::valueOf).toList();
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,153 @@
+package com.devlcm.lcm.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.devlcm.lcm.entity.ForumPost;
+import com.devlcm.lcm.entity.ForumVote;
+import com.devlcm.lcm.entity.VoteType;
+import com.devlcm.lcm.repository.ForumVoteRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Votes on forum posts and replies, one {@link ForumVote} document per voter and target.
+ * <p>
+ * A vote swaps the voter's document with one {@code findAndModify} (upsert, or delete for
+ * {@link VoteType#REMOVE}) and moves the target's {@code upvotes}/{@code downvotes} counters by
+ * the difference with an atomic {@code $inc} that also returns the updated target: two round
+ * trips, neither of which grows with the number of voters. The previous vote comes from the
+ * swap itself, so concurrent votes of one user each apply the delta from the vote they replaced
+ * and the counters always end up matching the stored votes.
+ */
+@Service
+@RequiredArgsConstructor
+public class ForumVoteService {
+
+    static final String TARGET_ID = "targetId";
+    static final String USER_ID = "userId";
+
+    private final MongoTemplate mongoTemplate;
+    private final ForumVoteRepository forumVoteRepository;
+    private final ForumTrending forumTrending;
+
+    @PostConstruct
+    void createIndexes() {
+        // One vote per user and target; also serves the per-page lookup of a viewer's votes
+        mongoTemplate.indexOps(ForumVote.class).ensureIndex(new Index()
+            .on(TARGET_ID, Sort.Direction.ASC)
+            .on(USER_ID, Sort.Direction.ASC)
+            .unique()
+            .named("target_user"));
+    }
+
+    /**
+     * Record a user's vote and adjust the target's counters.
+     *
+     * @param targetType {@code ForumPost} or {@code ForumReply}
+     * @return the target after the update, or null if it does not exist
+     */
+    public <T> T vote(Class<T> targetType, String targetId, String userId, VoteType voteType) {
+        LocalDateTime now = LocalDateTime.now();
+        Query vote = voteQuery(targetId, userId);
+        ForumVote previous;
+        if (voteType == VoteType.REMOVE) {
+            previous = mongoTemplate.findAndRemove(vote, ForumVote.class);
+        } else {
+            Update update = new Update()
+                .set("type", voteType)
+                .set("updatedAt", now)
+                .setOnInsert("createdAt", now);
+            FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(false);
+            try {
+                previous = mongoTemplate.findAndModify(vote, update, options, ForumVote.class);
+            } catch (DuplicateKeyException e) {
+                // Two requests of the same user raced to create the vote; the retry is a plain update
+                previous = mongoTemplate.findAndModify(vote, update, options, ForumVote.class);
+            }
+        }
+
+        VoteType before = previous == null ? VoteType.REMOVE : previous.getType();
+        int upvotes = count(voteType, VoteType.UPVOTE) - count(before, VoteType.UPVOTE);
+        int downvotes = count(voteType, VoteType.DOWNVOTE) - count(before, VoteType.DOWNVOTE);
+        Query target = new Query(Criteria.where("_id").is(targetId));
+        T updated;
+        if (upvotes == 0 && downvotes == 0) {
+            updated = mongoTemplate.findOne(target, targetType);
+        } else {
+            Update counters = new Update().set("updatedAt", now);
+            if (upvotes != 0) {
+                counters.inc("upvotes", upvotes);
+            }
+            if (downvotes != 0) {
+                counters.inc("downvotes", downvotes);
+            }
+            updated = mongoTemplate.findAndModify(target, counters, FindAndModifyOptions.options().returnNew(true),
+                targetType);
+            if (updated instanceof ForumPost post) {
+                forumTrending.recordVotes(post, upvotes - downvotes);
+            }
+        }
+        if (updated == null && voteType != VoteType.REMOVE) {
+            // The target does not exist (or was just deleted): drop the vote recorded for it
+            mongoTemplate.remove(vote, ForumVote.class);
+        }
+        return updated;
+    }
+
+    /**
+     * The user's votes on the given targets, read with a single {@code $in} query.
+     */
+    public Map<String, VoteType> votesOf(String userId, Collection<String> targetIds) {
+        Map<String, VoteType> votes = new HashMap<>();
+        if (userId == null || targetIds.isEmpty()) {
+            return votes;
+        }
+        for (ForumVote vote : forumVoteRepository.findByUserIdAndTargetIdIn(userId, targetIds)) {
+            votes.put(vote.getTargetId(), vote.getType());
+        }
+        return votes;
+    }
+
+    /**
+     * Drop the votes on deleted posts or replies.
+     */
+    public void deleteVotes(Collection<String> targetIds) {
+        if (!targetIds.isEmpty()) {
+            forumVoteRepository.deleteByTargetIdIn(targetIds);
+        }
+    }
+
+    /**
+     * The {@code userVoteStatus} shown to a viewer for their vote (null for none).
+     */
+    public static String voteStatus(VoteType vote) {
+        if (vote == VoteType.UPVOTE) {
+            return "UPVOTED";
+        } else if (vote == VoteType.DOWNVOTE) {
+            return "DOWNVOTED";
+        }
+        return "NONE";
+    }
+
+    private static Query voteQuery(String targetId, String userId) {
+        return new Query(Criteria.where(TARGET_ID).is(targetId).and(USER_ID).is(userId));
+    }
+
+    private static int count(VoteType vote, VoteType type) {
+        return vote == type ? 1 : 0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.devlcm.lcm.service;
+
+/**
+ * Node-local state kept outside the {@link org.springframework.cache.CacheManager} that must follow
+ * writes made through other nodes. Such state publishes its own evictions as {@link CacheInvalidation}
+ * events under its own name, and {@link CacheInvalidationBus} hands it every invalidation received
+ * from elsewhere.
+ */
+public interface InvalidationTarget {
+
+    /**
+     * Drop or reload whatever the invalidation names under this target's name; other entries are ignored.
+     */
+    void apply(CacheInvalidation invalidation);
+}
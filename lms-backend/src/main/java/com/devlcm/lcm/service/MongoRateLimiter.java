@@ -0,0 +1,237 @@
+package com.devlcm.lcm.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cluster-wide rate limiter backed by MongoDB, enabled with {@code app.rate-limit.mode=mongo}.
+ * <p>
+ * Each key gets one counter document per fixed window ({@code duration} seconds). Replicas do
+ * not touch Mongo per request: they reserve a lease of {@code lease-fraction * limit} tokens with
+ * a single atomic {@code $inc} and hand those out locally. Grants are clipped so the cluster never
+ * admits more than {@code limit} requests per window; the cost is that tokens leased by one
+ * replica and left unused are not available to the others, i.e. a key may be cut off early by up
+ * to {@code (replicas - 1) * leaseSize} requests. Counter documents expire via a TTL index.
+ * <p>
+ * After a failed round-trip the limiter reports itself unavailable for
+ * {@code app.rate-limit.mongo.failure-backoff}, so {@link RateLimitService} goes straight to its
+ * local buckets instead of making every request wait for Mongo to time out.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.mode", havingValue = "mongo")
+public class MongoRateLimiter implements ApplicationRunner {
+
+    private static final String COUNT = "count";
+    private static final String EXPIRE_AT = "expireAt";
+
+    private final MongoOperations mongoOperations;
+    private final String collection;
+    private final double leaseFraction;
+    private final Duration failureBackoff;
+    private final Cache<String, LeaseHolder> leases;
+    private final LongAdder leaseRequests = new LongAdder();
+    /** Wall-clock time before which Mongo is not asked again after a failure. */
+    private volatile long retryAtMillis;
+
+    public MongoRateLimiter(MongoOperations mongoOperations,
+                            @Value("${app.rate-limit.mongo.collection:rate_limits}") String collection,
+                            @Value("${app.rate-limit.mongo.lease-fraction:0.1}") double leaseFraction,
+                            @Value("${app.rate-limit.mongo.failure-backoff:5s}") Duration failureBackoff,
+                            @Value("${app.rate-limit.max-buckets:500000}") long maxKeys) {
+        this.mongoOperations = mongoOperations;
+        this.collection = collection;
+        this.leaseFraction = leaseFraction;
+        this.failureBackoff = failureBackoff;
+        this.leases = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfter(new WindowExpiry())
+            .build();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            createIndexes();
+        } catch (DataAccessException e) {
+            log.warn("Could not create the rate limit TTL index, counters will not expire until it exists: {}",
+                e.getMessage());
+        }
+    }
+
+    void createIndexes() {
+        // Counter documents are only needed until their window has closed
+        mongoOperations.indexOps(collection)
+            .ensureIndex(new Index().on(EXPIRE_AT, Sort.Direction.ASC).expire(0, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Whether Mongo should be asked at all; false for a short while after a failed round-trip.
+     */
+    public boolean isAvailable() {
+        return System.currentTimeMillis() >= retryAtMillis;
+    }
+
+    /**
+     * Try to take one token for the key from the current window.
+     *
+     * @param key Unique identifier (already namespaced by the interceptor)
+     * @param limit Maximum number of requests allowed per window, across all replicas
+     * @param duration Window length in seconds
+     * @return outcome of the probe; {@code remaining} is this replica's estimate of the cluster-wide count
+     */
+    public RateLimitResult tryConsume(String key, int limit, int duration) {
+        long windowMillis = TimeUnit.SECONDS.toMillis(duration);
+        LeaseHolder holder = leases.get(key, k -> new LeaseHolder(windowMillis));
+        return holder.tryTake(key, limit, System.currentTimeMillis());
+    }
+
+    /**
+     * Number of lease round-trips made to Mongo so far.
+     */
+    public long getLeaseRequestCount() {
+        return leaseRequests.sum();
+    }
+
+    /**
+     * Reserve up to one lease worth of tokens for a key's window.
+     *
+     * @return tokens granted (zero once the window is used up cluster-wide) and the counter after the grant
+     */
+    private Lease acquireLease(String key, long windowStart, long windowMillis, int limit) {
+        int leaseSize = Math.max(1, (int) Math.ceil(limit * leaseFraction));
+        Query query = new Query(Criteria.where("_id").is(key + "@" + windowStart));
+        Update update = new Update()
+            .inc(COUNT, leaseSize)
+            .setOnInsert(EXPIRE_AT, new Date(windowStart + windowMillis));
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+        leaseRequests.increment();
+        Document counter;
+        try {
+            counter = incrementCounter(query, update, options);
+        } catch (DataAccessException e) {
+            retryAtMillis = System.currentTimeMillis() + failureBackoff.toMillis();
+            log.warn("Cluster rate limiter unavailable, using local buckets for the next {}: {}", failureBackoff,
+                e.getMessage());
+            throw e;
+        }
+
+        long total = counter == null ? leaseSize : ((Number) counter.get(COUNT)).longValue();
+        long before = total - leaseSize;
+        int granted = (int) Math.max(0, Math.min(leaseSize, limit - before));
+        return new Lease(granted, Math.max(0, limit - total));
+    }
+
+    private Document incrementCounter(Query query, Update update, FindAndModifyOptions options) {
+        try {
+            return mongoOperations.findAndModify(query, update, options, Document.class, collection);
+        } catch (DuplicateKeyException e) {
+            // Two replicas raced to create the window's document; the loser's retry is a plain update
+            return mongoOperations.findAndModify(query, update, options, Document.class, collection);
+        }
+    }
+
+    /**
+     * @param granted tokens handed to this replica
+     * @param unclaimed tokens of the window not yet leased by any replica
+     */
+    private record Lease(int granted, long unclaimed) {}
+
+    /**
+     * Locally held tokens for one key and window. Only the owning key's callers contend on it, and
+     * never for the length of a Mongo round-trip: callers that find no tokens left each lease more
+     * without holding the lock.
+     */
+    private final class LeaseHolder {
+        private final long windowMillis;
+        private long windowStart = Long.MIN_VALUE;
+        private int remaining;
+        private long unclaimed;
+        private boolean exhausted;
+
+        LeaseHolder(long windowMillis) {
+            this.windowMillis = windowMillis;
+        }
+
+        RateLimitResult tryTake(String key, int limit, long now) {
+            long window = now - Math.floorMod(now, windowMillis);
+            synchronized (this) {
+                if (window > windowStart) {
+                    windowStart = window;
+                    remaining = 0;
+                    unclaimed = limit;
+                    exhausted = false;
+                }
+                // Once Mongo reports the window used up, don't ask again until it rolls over
+                if (remaining > 0 || exhausted) {
+                    return take(limit, window, now);
+                }
+            }
+            Lease lease = acquireLease(key, window, windowMillis, limit);
+            synchronized (this) {
+                if (window == windowStart) {
+                    remaining += lease.granted();
+                    unclaimed = Math.min(unclaimed, lease.unclaimed());
+                    exhausted |= lease.granted() == 0;
+                }
+                return take(limit, window, now);
+            }
+        }
+
+        private RateLimitResult take(int limit, long window, long now) {
+            if (remaining == 0 || window != windowStart) {
+                return new RateLimitResult(false, limit, 0, secondsUntil(window + windowMillis, now));
+            }
+            remaining--;
+            long left = remaining + unclaimed;
+            return new RateLimitResult(true, limit, left, left > 0 ? 0 : secondsUntil(window + windowMillis, now));
+        }
+    }
+
+    private static long secondsUntil(long windowEnd, long now) {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(windowEnd - now + 999));
+    }
+
+    /**
+     * Drop a key's local lease state after it has been idle for a full window.
+     */
+    private static final class WindowExpiry implements Expiry<String, LeaseHolder> {
+        @Override
+        public long expireAfterCreate(String key, LeaseHolder value, long currentTime) {
+            return Duration.ofMillis(value.windowMillis).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, LeaseHolder value, long currentTime, long currentDuration) {
+            return Duration.ofMillis(value.windowMillis).toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, LeaseHolder value, long currentTime, long currentDuration) {
+            return Duration.ofMillis(value.windowMillis).toNanos();
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.devlcm.lcm.service;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
@@ -28,32 +27,34 @@ public class QuizzService {
 
     private final QuizzResultRepo quizzResultRepo;
 
+    private final CacheInvalidationService cacheInvalidation;
+
     @Transactional
-    @CacheEvict(value = {CacheConfig.QUIZZES_CACHE, CacheConfig.QUIZ_BY_ID_CACHE}, allEntries = true)
     public Quizz createQuiz(String chapterId, Quizz quiz) {
         quiz.setChapterId(chapterId);
         Quizz saved = quizRepository.save(quiz);
+        cacheInvalidation.quizCreated(saved);
         return saved;
     }
 
-    @Cacheable(value = CacheConfig.QUIZZES_CACHE, key = "#chapterId")
+    @Cacheable(value = CacheConfig.QUIZZES_CACHE, key = "#chapterId", sync = true)
     public Optional<Quizz> getQuizzByChapterId(String chapterId) {
         return quizRepository.findByChapterId(chapterId);
     }
 
     @Transactional
-    @CacheEvict(value = {CacheConfig.QUIZZES_CACHE, CacheConfig.QUIZ_BY_ID_CACHE}, allEntries = true)
     public Quizz addQuestionsToQuizz(String quizzId, Questions questions) {
         return quizRepository.findById(quizzId)
                 .map(existing -> {
                     existing.getQuestion().add(questions);
-                    return quizRepository.save(existing);
+                    Quizz saved = quizRepository.save(existing);
+                    cacheInvalidation.quizUpdated(saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new QuizNotFoundException("Quiz not found with ID: " + quizzId));
     }
 
     @Transactional
-    @CacheEvict(value = CacheConfig.USER_PROGRESS_CACHE, allEntries = true)
     public QuizzResult submitQuizz(String quizzId, QuizzSubmissionDTO submission) {
         Quizz quizz = quizRepository.findById(quizzId)
                 .orElseThrow(() -> new QuizNotFoundException("Quiz not found with ID: " + quizzId));
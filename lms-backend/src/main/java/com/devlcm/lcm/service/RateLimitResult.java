@@ -0,0 +1,13 @@
+package com.devlcm.lcm.service;
+
+/**
+ * Outcome of a single rate limit probe: whether the request was admitted, and everything
+ * the caller needs for the {@code X-RateLimit-*} and {@code Retry-After} headers.
+ *
+ * @param allowed whether a token was consumed
+ * @param limit configured number of requests per window
+ * @param remaining tokens left after this request
+ * @param retryAfterSeconds seconds until the next token is available; 0 while tokens remain
+ */
+public record RateLimitResult(boolean allowed, int limit, long remaining, long retryAfterSeconds) {
+}
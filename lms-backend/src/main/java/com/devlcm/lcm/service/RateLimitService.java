@@ -1,24 +1,60 @@
 package com.devlcm.lcm.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 
 /**
  * Service to manage rate limiting using Bucket4j.
  * Tracks rate limits per user or per IP address.
+ * <p>
+ * Buckets live in a bounded Caffeine cache. A bucket that has been idle for its whole
+ * refill window is full again, so it is evicted and simply recreated on the next request;
+ * the size cap protects the heap from clients that rotate IPs or forwarded-for headers.
+ * <p>
+ * With {@code app.rate-limit.mode=mongo} limits are enforced cluster-wide by
+ * {@link MongoRateLimiter} instead; the local buckets then only serve as a fallback
+ * while Mongo is unreachable, and for a short backoff after each failure.
  */
 @Slf4j
 @Service
 public class RateLimitService {
-    
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
-    
+
+    private static final String CACHE_NAME = "rateLimitBuckets";
+
+    private final Cache<String, BucketEntry> cache;
+    private final MongoRateLimiter clusterLimiter;
+
+    public RateLimitService(MeterRegistry meterRegistry,
+                            @Value("${app.rate-limit.max-buckets:500000}") long maxBuckets,
+                            Optional<MongoRateLimiter> clusterLimiter) {
+        this.clusterLimiter = clusterLimiter.orElse(null);
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxBuckets)
+            .expireAfter(new IdleExpiry())
+            .recordStats()
+            .build();
+
+        // cache.size / cache.evictions / cache.gets etc., tagged cache=rateLimitBuckets
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("ratelimit.buckets.live", cache, Cache::estimatedSize)
+            .description("Rate limit buckets currently held in memory")
+            .register(meterRegistry);
+    }
+
     /**
      * Resolve a bucket for the given key with specified limits.
      * Creates a new bucket if one doesn't exist.
@@ -29,9 +65,10 @@ public class RateLimitService {
      * @return Bucket for rate limiting
      */
     public Bucket resolveBucket(String key, int limit, int duration) {
-        return cache.computeIfAbsent(key, k -> createNewBucket(limit, duration));
+        return cache.get(key, k -> new BucketEntry(createNewBucket(limit, duration),
+            Duration.ofSeconds(duration).toNanos())).bucket();
     }
-    
+
     /**
      * Create a new bucket with the specified capacity and refill rate.
      *
@@ -50,37 +87,59 @@ public class RateLimitService {
     }
     /**
      * Try to consume a token from the bucket for the given key.
+     * A single probe answers both whether the request is allowed and what to report back.
      *
      * @param key Unique identifier (user ID or IP address)
      * @param limit Maximum number of requests allowed
      * @param duration Time window in seconds
-     * @return true if token was consumed (request allowed), false if rate limit exceeded
+     * @return outcome of the probe, including remaining tokens and retry delay
      */
-    public boolean tryConsume(String key, int limit, int duration) {
-        Bucket bucket = resolveBucket(key, limit, duration);
-        boolean consumed = bucket.tryConsume(1);
-        
-        if (!consumed) {
+    public RateLimitResult tryConsume(String key, int limit, int duration) {
+        RateLimitResult result;
+        if (clusterLimiter != null && clusterLimiter.isAvailable()) {
+            try {
+                result = clusterLimiter.tryConsume(key, limit, duration);
+            } catch (DataAccessException e) {
+                // The limiter has logged the failure and backs off
+                result = tryConsumeLocally(key, limit, duration);
+            }
+        } else {
+            result = tryConsumeLocally(key, limit, duration);
+        }
+
+        if (!result.allowed()) {
             log.warn("Rate limit exceeded for key: {}", key);
         }
-        
-        return consumed;
+
+        return result;
+    }
+
+    private RateLimitResult tryConsumeLocally(String key, int limit, int duration) {
+        ConsumptionProbe probe = resolveBucket(key, limit, duration).tryConsumeAndReturnRemaining(1);
+        long remaining = probe.getRemainingTokens();
+        long retryAfter;
+        if (!probe.isConsumed()) {
+            retryAfter = ceilSeconds(probe.getNanosToWaitForRefill());
+        } else if (remaining == 0) {
+            // Greedy refill adds one token every duration/limit
+            retryAfter = ceilSeconds(Duration.ofSeconds(duration).toNanos() / limit);
+        } else {
+            retryAfter = 0;
+        }
+        return new RateLimitResult(probe.isConsumed(), limit, remaining, retryAfter);
     }
-    
+
+    private static long ceilSeconds(long nanos) {
+        return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+
     /**
-     * Get the number of seconds until the rate limit resets for a given key.
-     *
-     * @param key Unique identifier (user ID or IP address)
-     * @param limit Maximum number of requests allowed
-     * @param duration Time window in seconds
-     * @return Seconds until reset
+     * Number of buckets currently held in memory (approximate).
      */
-    public long getSecondsUntilReset(String key, int limit, int duration) {
-        Bucket bucket = resolveBucket(key, limit, duration);
-        long nanosToWait = bucket.estimateAbilityToConsume(1).getNanosToWaitForRefill();
-        return Duration.ofNanos(nanosToWait).getSeconds();
+    public long getBucketCount() {
+        return cache.estimatedSize();
     }
-    
+
     /**
      * Clear the rate limit cache for a specific key.
      * Useful for testing or manual reset.
@@ -88,15 +147,40 @@ public class RateLimitService {
      * @param key Unique identifier to clear
      */
     public void clearCache(String key) {
-        cache.remove(key);
+        cache.invalidate(key);
         log.info("Cleared rate limit cache for key: {}", key);
     }
-    
+
     /**
      * Clear all rate limit caches.
      */
     public void clearAllCaches() {
-        cache.clear();
+        cache.invalidateAll();
         log.info("Cleared all rate limit caches");
     }
+
+    /**
+     * A bucket together with its refill window, which doubles as its idle timeout.
+     */
+    private record BucketEntry(Bucket bucket, long refillNanos) {}
+
+    /**
+     * Expire a bucket once it has not been touched for a full refill window.
+     */
+    private static final class IdleExpiry implements Expiry<String, BucketEntry> {
+        @Override
+        public long expireAfterCreate(String key, BucketEntry value, long currentTime) {
+            return value.refillNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, BucketEntry value, long currentTime, long currentDuration) {
+            return value.refillNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, BucketEntry value, long currentTime, long currentDuration) {
+            return value.refillNanos();
+        }
+    }
 }
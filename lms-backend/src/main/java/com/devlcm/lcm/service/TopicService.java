@@ -3,21 +3,21 @@ package com.devlcm.lcm.service;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.dto.TopicPreviewDTO;
 import com.devlcm.lcm.entity.Chapter;
 import com.devlcm.lcm.entity.Topic;
 import com.devlcm.lcm.exception.ChapterNotFoundException;
 import com.devlcm.lcm.exception.TopicNotFoundException;
 import com.devlcm.lcm.repository.ChapterRepository;
 import com.devlcm.lcm.repository.TopicRepository;
+import com.devlcm.lcm.util.IdListPages;
 
 import lombok.RequiredArgsConstructor;
 
@@ -27,57 +27,50 @@ public class TopicService {
 
     private final ChapterRepository chapterRepository;
     private final TopicRepository topicRepository;
+    private final CacheInvalidationService cacheInvalidation;
 
-    @Cacheable(value = CacheConfig.TOPIC_BY_ID_CACHE, key = "#id")
+    @Cacheable(value = CacheConfig.TOPIC_BY_ID_CACHE, key = "#id", sync = true)
     public Optional<Topic> getTopicById(String id) {
         return topicRepository.findById(id);
     }
 
     /**
-     * Get all topics for a chapter by chapterId (no pagination).
+     * Get previews of all topics for a chapter by chapterId (no pagination).
+     * Topic content is not read; it is only loaded by {@link #getTopicById(String)}.
      */
-    @Cacheable(value = CacheConfig.TOPICS_CACHE, key = "#chapterId", unless = "#result == null || #result.isEmpty()")
-    public List<Topic> getTopicsForChapter(String chapterId) {
+    @Cacheable(value = CacheConfig.TOPICS_CACHE, key = "#chapterId", sync = true)
+    public List<TopicPreviewDTO> getTopicsForChapter(String chapterId) {
         Chapter chapter = chapterRepository.findById(chapterId)
                 .orElseThrow(() -> new ChapterNotFoundException("Chapter not found with ID: " + chapterId));
-        return topicRepository.findAllById(chapter.getTopicIds());
+        return IdListPages.inOrder(chapter.getTopicIds(),
+                topicRepository.findPreviewsByIdIn(chapter.getTopicIds()), TopicPreviewDTO::getId);
     }
 
     /**
-     * Get all topics for a chapter by chapterId with pagination.
+     * Get previews of the topics for a chapter by chapterId with pagination, in chapter order.
+     * Only the requested page of topics is read.
      */
-    public Page<Topic> getTopicsForChapter(String chapterId, Pageable pageable) {
+    public Page<TopicPreviewDTO> getTopicsForChapter(String chapterId, Pageable pageable) {
         Chapter chapter = chapterRepository.findById(chapterId)
                 .orElseThrow(() -> new ChapterNotFoundException("Chapter not found with ID: " + chapterId));
-        
-        List<Topic> allTopics = topicRepository.findAllById(chapter.getTopicIds());
-        
-        // Manual pagination from list
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), allTopics.size());
-        
-        List<Topic> pageContent = start > allTopics.size() ? 
-            List.of() : allTopics.subList(start, end);
-        
-        return new PageImpl<>(pageContent, pageable, allTopics.size());
+        return IdListPages.page(chapter.getTopicIds(), pageable,
+                topicRepository::findPreviewsByIdIn, TopicPreviewDTO::getId);
     }
 
     @Transactional
-    @CacheEvict(value = {CacheConfig.TOPICS_CACHE, CacheConfig.TOPIC_BY_ID_CACHE, 
-                         CacheConfig.CHAPTERS_CACHE, CacheConfig.CHAPTER_BY_ID_CACHE}, allEntries = true)
     public Topic updateTopic(String id, Topic updatedTopic) {
         return topicRepository.findById(id)
                 .map(existing -> {
                     existing.setTitle(updatedTopic.getTitle());
                     existing.setContent(updatedTopic.getContent());
-                    return topicRepository.save(existing);
+                    Topic saved = topicRepository.save(existing);
+                    cacheInvalidation.topicUpdated(saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new TopicNotFoundException("Topic not found with ID: " + id));
     }
 
     @Transactional
-    @CacheEvict(value = {CacheConfig.TOPICS_CACHE, CacheConfig.TOPIC_BY_ID_CACHE, 
-                         CacheConfig.CHAPTERS_CACHE, CacheConfig.CHAPTER_BY_ID_CACHE}, allEntries = true)
     public void deleteTopic(String id) {
         Topic topic = topicRepository.findById(id)
                 .orElseThrow(() -> new TopicNotFoundException("Topic not found with ID: " + id));
@@ -91,13 +84,13 @@ public class TopicService {
         }
         
         topicRepository.deleteById(id);
+        cacheInvalidation.topicDeleted(topic, chapter);
     }
 
     /**
      * Create a new topic and attach it to a chapter.
      */
     @Transactional
-    @CacheEvict(value = {CacheConfig.TOPICS_CACHE, CacheConfig.CHAPTERS_CACHE, CacheConfig.CHAPTER_BY_ID_CACHE}, allEntries = true)
     public Topic createTopicForChapter(String chapterId, Topic topic) {
         topic.setChapterId(chapterId);
         Topic saved = topicRepository.save(topic);
@@ -105,6 +98,7 @@ public class TopicService {
                 .orElseThrow(() -> new ChapterNotFoundException("Chapter not found with ID: " + chapterId));
         chapter.getTopicIds().add(saved.getId());
         chapterRepository.save(chapter);
+        cacheInvalidation.topicCreated(saved, chapter);
         return saved;
     }
 }
@@ -4,7 +4,6 @@ import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -31,6 +30,7 @@ public class UserProgressService {
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final CertificateService certificateService;
+    private final CacheInvalidationService cacheInvalidation;
 
     private UserProgress getOrCreateProgress(String userId, String courseId) {
         return userProgressRepository.findByUserIdAndCourseId(userId, courseId)
@@ -38,12 +38,14 @@ public class UserProgressService {
                     UserProgress up = new UserProgress();
                     up.setUserId(userId);
                     up.setCourseId(courseId);
-                    return userProgressRepository.save(up);
+                    UserProgress created = userProgressRepository.save(up);
+                    // A cached "no progress yet" for this pair is now stale
+                    cacheInvalidation.userProgressChanged(userId, courseId);
+                    return created;
                 });
     }
 
     @Transactional
-    @CacheEvict(value = CacheConfig.USER_PROGRESS_CACHE, allEntries = true)
     public UserProgress markedChapterCompleted(String userId, String courseId, String chapterId) {
         UserProgress progress = getOrCreateProgress(userId, courseId);
         boolean wasAlreadyCompleted = progress.getCompletedChapterIds().contains(chapterId);
@@ -52,6 +54,7 @@ public class UserProgressService {
             progress.getCompletedChapterIds().add(chapterId);
             progress.setLastUpdated(new Date());
             progress = userProgressRepository.save(progress);
+            cacheInvalidation.userProgressChanged(userId, courseId);
             
             // Check if course is now completed
             checkAndNotifyCourseCompletion(userId, courseId);
@@ -95,15 +98,16 @@ public class UserProgressService {
     }
 
     @Transactional
-    @CacheEvict(value = CacheConfig.USER_PROGRESS_CACHE, allEntries = true)
     public UserProgress recoredQuizzScore(String userId, String courseId, String quizzId, int score) {
         UserProgress progress = getOrCreateProgress(userId, courseId);
         progress.getQuizzScore().put(quizzId, score);
         progress.setLastUpdated(new Date());
-        return userProgressRepository.save(progress);
+        UserProgress saved = userProgressRepository.save(progress);
+        cacheInvalidation.userProgressChanged(userId, courseId);
+        return saved;
     }
 
-    @Cacheable(value = CacheConfig.USER_PROGRESS_CACHE, key = "#userId + '_' + #courseId")
+    @Cacheable(value = CacheConfig.USER_PROGRESS_CACHE, key = "T(com.devlcm.lcm.service.CacheInvalidationService).userProgressKey(#userId, #courseId)")
     public Optional<UserProgress> getUserProgress(String userId, String courseId) {
         return userProgressRepository.findByUserIdAndCourseId(userId, courseId);
     }
@@ -8,12 +8,13 @@ import com.devlcm.lcm.exception.CourseNotFoundException;
 import com.devlcm.lcm.exception.EnrollmentException;
 import com.devlcm.lcm.repository.CourseRepository;
 import com.devlcm.lcm.repository.UserRepository;
+import com.devlcm.lcm.security.UserIdentityResolver;
+import com.devlcm.lcm.util.IdListPages;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,6 +37,8 @@ public class UserService {
     
     private final EmailService emailService;
 
+    private final UserIdentityResolver userIdentityResolver;
+
     /**
      * Get all users in the system with pagination.
      * @return page of users
@@ -94,8 +97,12 @@ public class UserService {
                      signupRequest.getEmail(), existingUser.getFirebaseUid(), firebaseUid);
             
             // Update the Firebase UID to support multiple auth providers
+            String previousUid = existingUser.getFirebaseUid();
             existingUser.setFirebaseUid(firebaseUid);
-            return userRepository.save(existingUser);
+            User saved = userRepository.save(existingUser);
+            userIdentityResolver.invalidate(previousUid);
+            userIdentityResolver.invalidate(firebaseUid);
+            return saved;
         }
         
         // Create new user
@@ -106,7 +113,9 @@ public class UserService {
         user.setRole(UserRole.STUDENT);
         user.setEnrolledCourseIds(new ArrayList<>());
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userIdentityResolver.invalidate(firebaseUid);
+        return saved;
     }
 
     /**
@@ -130,7 +139,9 @@ public class UserService {
             if (updatedUser.getEmailPreferences() != null) {
                 existingUser.setEmailPreferences(updatedUser.getEmailPreferences());
             }
-            return userRepository.save(existingUser);
+            User saved = userRepository.save(existingUser);
+            userIdentityResolver.invalidate(saved);
+            return saved;
         }).orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
     }
 
@@ -143,6 +154,7 @@ public class UserService {
         Optional<User> user = userRepository.findByUsername(username);
         if (user.isPresent()) {
             userRepository.deleteByUsername(username);
+            userIdentityResolver.invalidate(user.get());
         } else {
             throw new UserNotFoundException("User not found with username: " + username);
         }
@@ -172,6 +184,7 @@ public class UserService {
 
         user.getEnrolledCourseIds().add(course.getId());
         User savedUser = userRepository.save(user);
+        userIdentityResolver.invalidate(firebaseUid);
         
         // Send enrollment notification email
         if (savedUser.getEmail() != null && !savedUser.getEmail().isEmpty()) {
@@ -207,7 +220,9 @@ public class UserService {
             throw new EnrollmentException("User was not enrolled in course with ID: " + courseId);
         }
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userIdentityResolver.invalidate(firebaseUid);
+        return savedUser;
     }
 
     /**
@@ -216,13 +231,18 @@ public class UserService {
      * @return list of enrolled courses
      */
     public List<Course> getEnrolledCourses(String firebaseUid) {
+        // Most callers have no enrollments; the resolved identity answers that without a user lookup
+        if (userIdentityResolver.require(firebaseUid).enrolledCourseCount() == 0) {
+            return List.of();
+        }
         User user = userRepository.findByFirebaseUid(firebaseUid)
                 .orElseThrow(() -> new UserNotFoundException("User not found with Firebase UID: " + firebaseUid));
 
         if (user.getEnrolledCourseIds() == null || user.getEnrolledCourseIds().isEmpty()) {
             return List.of();
         }
-        return courseRepository.findAllById(user.getEnrolledCourseIds());
+        return IdListPages.inOrder(user.getEnrolledCourseIds(),
+                courseRepository.findAllById(user.getEnrolledCourseIds()), Course::getId);
     }
 
     /**
@@ -232,22 +252,16 @@ public class UserService {
      * @return page of enrolled courses
      */
     public Page<Course> getEnrolledCourses(String firebaseUid, Pageable pageable) {
+        if (userIdentityResolver.require(firebaseUid).enrolledCourseCount() == 0) {
+            return Page.empty(pageable);
+        }
         User user = userRepository.findByFirebaseUid(firebaseUid)
                 .orElseThrow(() -> new UserNotFoundException("User not found with Firebase UID: " + firebaseUid));
 
         if (user.getEnrolledCourseIds() == null || user.getEnrolledCourseIds().isEmpty()) {
             return Page.empty(pageable);
         }
-        
-        List<Course> allCourses = courseRepository.findAllById(user.getEnrolledCourseIds());
-        
-        // Manual pagination from list
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), allCourses.size());
-        
-        List<Course> pageContent = start > allCourses.size() ? 
-            List.of() : allCourses.subList(start, end);
-        
-        return new PageImpl<>(pageContent, pageable, allCourses.size());
+        // Enrollment order; only the requested page of courses is read
+        return IdListPages.page(user.getEnrolledCourseIds(), pageable, courseRepository::findAllById, Course::getId);
     }
 }
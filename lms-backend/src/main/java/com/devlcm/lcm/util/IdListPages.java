@@ -0,0 +1,85 @@
+package com.devlcm.lcm.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Reads children referenced by an owner's id list (a course's {@code chapterIds}, a chapter's
+ * {@code topicIds}, a user's {@code enrolledCourseIds}) in the order of that list.
+ * {@code findAllById} returns documents in storage order, so results are re-sorted here.
+ */
+public final class IdListPages {
+
+    private IdListPages() {
+    }
+
+    /**
+     * Fetch one page of the referenced documents. Only the page's ids are queried, so the database
+     * reads at most {@code pageable.getPageSize()} documents however long the list is.
+     * Ids without a document are skipped, which can make a page shorter than requested.
+     *
+     * @param ids    the owner's id list, in display order; may be null
+     * @param finder query by ids, typically a repository's {@code findAllById}
+     * @param idOf   the id of a fetched document
+     */
+    public static <T> Page<T> page(List<String> ids, Pageable pageable,
+                                   Function<List<String>, ? extends Iterable<T>> finder,
+                                   Function<T, String> idOf) {
+        if (ids == null || ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(inOrder(ids, finder.apply(ids), idOf), pageable, ids.size());
+        }
+        if (pageable.getOffset() >= ids.size()) {
+            return new PageImpl<>(List.of(), pageable, ids.size());
+        }
+        int start = (int) pageable.getOffset();
+        int end = Math.min(start + pageable.getPageSize(), ids.size());
+        List<String> pageIds = List.copyOf(ids.subList(start, end));
+        return new PageImpl<>(inOrder(pageIds, finder.apply(pageIds), idOf), pageable, ids.size());
+    }
+
+    /**
+     * Fetched documents in the order of {@code ids}; ids without a document are skipped.
+     */
+    public static <T> List<T> inOrder(List<String> ids, Iterable<T> documents, Function<T, String> idOf) {
+        return inOrder(ids, byId(documents, idOf));
+    }
+
+    /**
+     * Documents from an id lookup in the order of {@code ids}; ids without a document are skipped.
+     * Use with {@link #byId} when one fetch serves several owners' id lists.
+     */
+    public static <T> List<T> inOrder(List<String> ids, Map<String, T> byId) {
+        if (ids == null) {
+            return new ArrayList<>();
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            T document = byId.get(id);
+            if (document != null) {
+                ordered.add(document);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Fetched documents by id; the first document wins when ids repeat.
+     */
+    public static <T> Map<String, T> byId(Iterable<T> documents, Function<T, String> idOf) {
+        Map<String, T> byId = new HashMap<>();
+        for (T document : documents) {
+            byId.putIfAbsent(idOf.apply(document), document);
+        }
+        return byId;
+    }
+}
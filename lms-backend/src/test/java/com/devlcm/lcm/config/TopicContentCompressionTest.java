@@ -0,0 +1,112 @@
+package com.devlcm.lcm.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.devlcm.lcm.entity.Topic;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TopicContentCompressionTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private TopicContentCompression compression;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		compression = new TopicContentCompression(meterRegistry, DataSize.ofKilobytes(4), 6);
+	}
+
+	@Test
+	void largeBodiesAreStoredDeflatedAndReadBack() {
+		String html = quillHtml(200 * 1024);
+		Topic topic = new Topic();
+		topic.setContent(html);
+		Document document = new Document("content", html);
+
+		compression.onBeforeSave(topic, document, "topics");
+
+		assertFalse(document.containsKey("content"));
+		byte[] stored = ((Binary) document.get(TopicContentCompression.STORED_FIELD)).getData();
+		int rawBytes = html.getBytes(StandardCharsets.UTF_8).length;
+		assertTrue(stored.length < rawBytes / 3, "stored " + stored.length + " of " + rawBytes + " bytes");
+		assertArrayEquals(stored, topic.getCompressedContent());
+
+		Topic read = compression.onAfterConvert(new Topic(), document, "topics");
+		assertEquals(html, read.getContent());
+		assertArrayEquals(stored, read.getCompressedContent());
+		assertEquals(rawBytes, meterRegistry.get("topic.content.size").tag("form", "raw").summary().totalAmount());
+	}
+
+	@Test
+	void smallBodiesStayPlainText() {
+		Topic topic = new Topic();
+		topic.setContent("<p>Short topic</p>");
+		Document document = new Document("content", topic.getContent());
+
+		compression.onBeforeSave(topic, document, "topics");
+
+		assertEquals("<p>Short topic</p>", document.get("content"));
+		assertNull(topic.getCompressedContent());
+		assertNull(compression.onAfterConvert(new Topic(), document, "topics").getCompressedContent());
+	}
+
+	@Test
+	void deflateIsSentOnlyWhenAcceptEncodingAdmitsIt() {
+		assertTrue(TopicContentCompression.acceptsDeflate("gzip, deflate, br"));
+		assertTrue(TopicContentCompression.acceptsDeflate("*"));
+		assertTrue(TopicContentCompression.acceptsDeflate("gzip;q=1.0, *;q=0.5"));
+		assertTrue(TopicContentCompression.acceptsDeflate("deflate;q=0.001"));
+
+		assertFalse(TopicContentCompression.acceptsDeflate(null));
+		assertFalse(TopicContentCompression.acceptsDeflate("gzip, br"));
+		assertFalse(TopicContentCompression.acceptsDeflate("deflate;q=0"));
+		assertFalse(TopicContentCompression.acceptsDeflate("deflate ; Q=0.000"));
+		assertFalse(TopicContentCompression.acceptsDeflate("*;q=0"));
+		// An explicit entry overrides the wildcard either way
+		assertFalse(TopicContentCompression.acceptsDeflate("*, deflate;q=0"));
+		assertTrue(TopicContentCompression.acceptsDeflate("deflate, *;q=0"));
+	}
+
+	/**
+	 * Markup shaped like ReactQuill output: headings, formatted paragraphs, lists and code blocks.
+	 */
+	private static String quillHtml(int size) {
+		String[] words = { "variable", "function", "returns", "the", "array", "loop", "index", "value", "class",
+				"object", "method", "string", "compiler", "memory", "thread", "example", "when", "each", "call" };
+		Random random = new Random(7);
+		StringBuilder html = new StringBuilder(size + 1024);
+		int section = 0;
+		while (html.length() < size) {
+			html.append("<h2>Section ").append(++section).append("</h2>");
+			for (int p = 0; p < 3; p++) {
+				html.append("<p>");
+				for (int w = 0; w < 60; w++) {
+					String word = words[random.nextInt(words.length)];
+					html.append(w % 17 == 5 ? "<strong>" + word + "</strong>" : word).append(' ');
+				}
+				html.append("</p>");
+			}
+			html.append("<ol>");
+			for (int i = 0; i < 4; i++) {
+				html.append("<li>Step ").append(i + 1).append(": ").append(words[random.nextInt(words.length)])
+						.append("</li>");
+			}
+			html.append("</ol><pre class=\"ql-syntax\" spellcheck=\"false\">for (int i = 0; i &lt; n; i++) {\n  total += values[i];\n}\n</pre>");
+		}
+		return html.toString();
+	}
+}
@@ -0,0 +1,94 @@
+package com.devlcm.lcm.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.devlcm.lcm.exception.InvalidTokenException;
+import com.devlcm.lcm.security.TokenVerifier;
+import com.devlcm.lcm.security.UserIdentityResolver;
+import com.devlcm.lcm.security.VerifiedToken;
+import com.devlcm.lcm.security.VerifiedTokenCache;
+
+class FirebaseAuthFilterTest {
+
+	private TokenVerifier tokenVerifier;
+	private VerifiedTokenCache verifiedTokenCache;
+	private FirebaseAuthFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		tokenVerifier = mock(TokenVerifier.class);
+		verifiedTokenCache = new VerifiedTokenCache(100);
+		filter = new FirebaseAuthFilter(verifiedTokenCache, tokenVerifier, mock(UserIdentityResolver.class));
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void verifiesEachTokenOnceUntilItExpires() throws Exception {
+		when(tokenVerifier.verify("token-1")).thenReturn(VerifiedToken.of("uid-1", "admin", inOneHour()));
+
+		filter(request("token-1"));
+		filter(request("token-1"));
+
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		assertEquals("uid-1", authentication.getName());
+		assertEquals(List.of("ROLE_ADMIN"),
+				authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+		verify(tokenVerifier, times(1)).verify("token-1");
+	}
+
+	@Test
+	void keepsNeitherExpiredNorRejectedTokens() throws Exception {
+		when(tokenVerifier.verify("expired")).thenReturn(VerifiedToken.of("uid-1", null, nowInSeconds() - 1));
+		when(tokenVerifier.verify("forged")).thenThrow(new InvalidTokenException("bad signature"));
+
+		filter(request("expired"));
+		filter(request("expired"));
+		verify(tokenVerifier, times(2)).verify("expired");
+
+		MockFilterChain chain = new MockFilterChain();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request("forged"), response, chain);
+		assertEquals(401, response.getStatus());
+		assertNull(chain.getRequest());
+		assertNull(verifiedTokenCache.get(verifiedTokenCache.keyFor("forged")));
+	}
+
+	private void filter(MockHttpServletRequest request) throws Exception {
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+	}
+
+	private static MockHttpServletRequest request(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/courses");
+		request.addHeader("Authorization", "Bearer " + token);
+		return request;
+	}
+
+	private static long inOneHour() {
+		return nowInSeconds() + 3600;
+	}
+
+	private static long nowInSeconds() {
+		return System.currentTimeMillis() / 1000;
+	}
+}
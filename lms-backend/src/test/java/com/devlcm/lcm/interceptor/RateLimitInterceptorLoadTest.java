@@ -0,0 +1,80 @@
+package com.devlcm.lcm.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import com.devlcm.lcm.annotation.RateLimit;
+import com.devlcm.lcm.service.RateLimitService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pushes a stream of distinct client addresses through the interceptor and checks that
+ * the bucket store (and with it the heap) stays bounded.
+ * <p>
+ * Tagged {@code perf}, so it only runs with {@code mvn test -Pperf}: it forces full GCs and takes
+ * a while. Runs 200k keys by default; for the full soak use
+ * {@code mvn test -Pperf -Dtest=RateLimitInterceptorLoadTest -Dratelimit.loadtest.keys=10000000}.
+ */
+@Tag("perf")
+class RateLimitInterceptorLoadTest {
+
+	private static final int MAX_BUCKETS = 10_000;
+	private static final long MAX_HEAP_GROWTH_BYTES = 128L * 1024 * 1024;
+
+	@Test
+	void bucketStoreStaysBoundedUnderKeyRotation() throws Exception {
+		int keys = Integer.getInteger("ratelimit.loadtest.keys", 200_000);
+		RateLimitService rateLimitService = new RateLimitService(new SimpleMeterRegistry(), MAX_BUCKETS, Optional.empty());
+		RateLimitInterceptor interceptor = new RateLimitInterceptor(rateLimitService, new RateLimitPolicyRegistry());
+		HandlerMethod handler = new HandlerMethod(new IpLimitedController(),
+				IpLimitedController.class.getMethod("handle"));
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+		long baselineHeap = usedHeapAfterGc(memory);
+		long peakBuckets = 0;
+		long peakHeap = baselineHeap;
+
+		for (int i = 0; i < keys; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "/load");
+			// Every request claims a different client address, as an IP-rotating crawler would
+			request.addHeader("X-Forwarded-For", "203.0.113." + i);
+			interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+
+			if (i % 50_000 == 0) {
+				peakBuckets = Math.max(peakBuckets, rateLimitService.getBucketCount());
+			}
+			if (i > 0 && i % 1_000_000 == 0) {
+				peakHeap = Math.max(peakHeap, usedHeapAfterGc(memory));
+			}
+		}
+		peakBuckets = Math.max(peakBuckets, rateLimitService.getBucketCount());
+		peakHeap = Math.max(peakHeap, usedHeapAfterGc(memory));
+
+		// Caffeine evicts asynchronously, so allow a little overshoot past the cap
+		assertTrue(peakBuckets <= MAX_BUCKETS + MAX_BUCKETS / 10,
+				"bucket count grew to " + peakBuckets + " with a cap of " + MAX_BUCKETS);
+		assertTrue(peakHeap - baselineHeap < MAX_HEAP_GROWTH_BYTES,
+				"heap grew by " + (peakHeap - baselineHeap) / (1024 * 1024) + " MB over " + keys + " keys");
+	}
+
+	private static long usedHeapAfterGc(MemoryMXBean memory) {
+		System.gc();
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+	@RateLimit(limit = 5, duration = 60, scope = RateLimit.Scope.PER_IP)
+	static class IpLimitedController {
+		public void handle() {
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.devlcm.lcm.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import com.devlcm.lcm.annotation.RateLimit;
+import com.devlcm.lcm.exception.RateLimitExceededException;
+import com.devlcm.lcm.service.RateLimitService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitInterceptorTest {
+
+	private RateLimitInterceptor interceptor;
+	private HandlerMethod handler;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		RateLimitService rateLimitService = new RateLimitService(new SimpleMeterRegistry(), 1000, Optional.empty());
+		interceptor = new RateLimitInterceptor(rateLimitService, new RateLimitPolicyRegistry());
+		handler = new HandlerMethod(new TwicePerMinuteController(), TwicePerMinuteController.class.getMethod("handle"));
+	}
+
+	@Test
+	void sendsRetryAfterOnlyWithTheRejection() {
+		MockHttpServletResponse admitted = call();
+		assertEquals("2", admitted.getHeader("X-RateLimit-Limit"));
+		assertEquals("1", admitted.getHeader("X-RateLimit-Remaining"));
+		assertNull(admitted.getHeader("Retry-After"));
+		call();
+
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		assertThrows(RateLimitExceededException.class,
+				() -> interceptor.preHandle(request(), rejected, handler));
+		assertEquals("0", rejected.getHeader("X-RateLimit-Remaining"));
+		assertEquals(1, rejected.getHeaders("Retry-After").size());
+		assertEquals(rejected.getHeader("Retry-After"), rejected.getHeader("X-RateLimit-Retry-After-Seconds"));
+	}
+
+	@Test
+	void givesEachControllerAndMethodLevelLimitItsOwnBuckets() throws Exception {
+		assertEquals("1", remainingAfterCall(handler));
+		// The class-level limit is shared by the controller's endpoints
+		assertEquals("0", remainingAfterCall(new HandlerMethod(new TwicePerMinuteController(),
+				TwicePerMinuteController.class.getMethod("other"))));
+		assertEquals("1", remainingAfterCall(new HandlerMethod(new TwicePerMinuteController(),
+				TwicePerMinuteController.class.getMethod("own"))));
+		assertEquals("1", remainingAfterCall(new HandlerMethod(new OtherTwicePerMinuteController(),
+				OtherTwicePerMinuteController.class.getMethod("handle"))));
+	}
+
+	private MockHttpServletResponse call() {
+		return call(handler);
+	}
+
+	private MockHttpServletResponse call(HandlerMethod handlerMethod) {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		interceptor.preHandle(request(), response, handlerMethod);
+		return response;
+	}
+
+	private String remainingAfterCall(HandlerMethod handlerMethod) {
+		return call(handlerMethod).getHeader("X-RateLimit-Remaining");
+	}
+
+	private static MockHttpServletRequest request() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/limited");
+		request.setRemoteAddr("198.51.100.7");
+		return request;
+	}
+
+	@RateLimit(limit = 2, duration = 60, scope = RateLimit.Scope.PER_IP)
+	static class TwicePerMinuteController {
+		public void handle() {
+		}
+
+		public void other() {
+		}
+
+		@RateLimit(limit = 2, duration = 60, scope = RateLimit.Scope.PER_IP)
+		public void own() {
+		}
+	}
+
+	@RateLimit(limit = 2, duration = 60, scope = RateLimit.Scope.PER_IP)
+	static class OtherTwicePerMinuteController {
+		public void handle() {
+		}
+	}
+}
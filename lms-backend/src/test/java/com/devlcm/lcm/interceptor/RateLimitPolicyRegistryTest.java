@@ -0,0 +1,92 @@
+package com.devlcm.lcm.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.devlcm.lcm.annotation.RateLimit;
+
+class RateLimitPolicyRegistryTest {
+
+	private RateLimitPolicyRegistry registry;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		RequestMappingHandlerMapping mapping = mock(RequestMappingHandlerMapping.class);
+		when(mapping.getHandlerMethods()).thenReturn(Map.of(
+				RequestMappingInfo.paths("/shared").build(), handler(LimitedController.class, "shared"),
+				RequestMappingInfo.paths("/own").build(), handler(LimitedController.class, "own"),
+				RequestMappingInfo.paths("/open").build(), handler(OpenController.class, "open")));
+		ApplicationContext context = mock(ApplicationContext.class);
+		when(context.getBeansOfType(RequestMappingHandlerMapping.class)).thenReturn(Map.of("mapping", mapping));
+
+		registry = new RateLimitPolicyRegistry();
+		registry.onApplicationEvent(new ContextRefreshedEvent(context));
+	}
+
+	@Test
+	void methodLevelLimitWinsOverTheClassLevelOne() throws Exception {
+		RateLimitPolicy shared = registry.policyFor(handler(LimitedController.class, "shared"));
+		assertEquals(10, shared.limit());
+		assertEquals(RateLimit.Scope.PER_USER, shared.scope());
+		assertEquals("LimitedController|10/60|user:", shared.userPrefix());
+
+		RateLimitPolicy own = registry.policyFor(handler(LimitedController.class, "own"));
+		assertEquals(2, own.limit());
+		assertEquals(RateLimit.Scope.PER_IP, own.scope());
+		assertEquals("LimitedController#own|2/60|ip:", own.ipPrefix());
+	}
+
+	@Test
+	void unannotatedHandlersGetTheNoneMarker() throws Exception {
+		assertSame(RateLimitPolicy.NONE, registry.policyFor(handler(OpenController.class, "open")));
+		assertSame(RateLimitPolicy.NONE, registry.policyFor(handler(OpenController.class, "unmapped")));
+	}
+
+	@Test
+	void resolvesHandlersMissingAtStartupOnceOnFirstUse() throws Exception {
+		// Mapped after the context refreshed, e.g. registered programmatically
+		RateLimitPolicy first = registry.policyFor(handler(LimitedController.class, "late"));
+
+		assertEquals("LimitedController|10/60|user:", first.userPrefix());
+		assertSame(first, registry.policyFor(handler(LimitedController.class, "late")));
+		assertSame(registry.policyFor(handler(LimitedController.class, "shared")),
+				registry.policyFor(handler(LimitedController.class, "shared")));
+	}
+
+	private static HandlerMethod handler(Class<?> controller, String method) throws Exception {
+		return new HandlerMethod(controller.getDeclaredConstructor().newInstance(), controller.getMethod(method));
+	}
+
+	@RateLimit(limit = 10, duration = 60, scope = RateLimit.Scope.PER_USER)
+	static class LimitedController {
+		public void shared() {
+		}
+
+		@RateLimit(limit = 2, duration = 60, scope = RateLimit.Scope.PER_IP)
+		public void own() {
+		}
+
+		public void late() {
+		}
+	}
+
+	static class OpenController {
+		public void open() {
+		}
+
+		public void unmapped() {
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package com.devlcm.lcm.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.devlcm.lcm.entity.ForumCategory;
+import com.devlcm.lcm.entity.ForumPost;
+import com.devlcm.lcm.entity.ForumReply;
+import com.devlcm.lcm.service.CacheInvalidation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ForumSearchIndexTest {
+
+	private MongoTemplate mongoTemplate;
+	private ForumSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate = mock(MongoTemplate.class);
+		index = new ForumSearchIndex(mongoTemplate, event -> {}, new SimpleMeterRegistry(), "index", Duration.ZERO);
+		index.indexPost(post("p1", "NullPointerException in streams", "Calling map on a list fails", "c1",
+				ForumCategory.QUESTION, List.of("Java", "streams")));
+		index.indexPost(post("p2", "Course feedback", "The chapter on lambdas was great", "c1",
+				ForumCategory.FEEDBACK, List.of("java")));
+		index.indexPost(post("p3", "Pandas merge", "How do I join two frames?", "c2", ForumCategory.QUESTION,
+				List.of("python")));
+		index.indexReply(reply("r1", "p3", "Use merge with how='left', or a NullPointerException-free join"));
+	}
+
+	@Test
+	void ranksPostsAboveReplyMatchesAndNamesTheMatchingReply() {
+		List<ForumSearchIndex.Match> matches = index.search("nullpointer", ForumSearchFilter.NONE);
+
+		assertEquals(List.of("p1", "p3"), matches.stream().map(ForumSearchIndex.Match::postId).toList());
+		assertNull(matches.get(0).replyId());
+		assertEquals("r1", matches.get(1).replyId());
+	}
+
+	@Test
+	void filtersByCourseCategoryAndTags() {
+		assertEquals(List.of("p1"), postIds("nullpointer", new ForumSearchFilter("c1", null, null, null)));
+		assertEquals(List.of("p3"),
+				postIds("nullpointer", new ForumSearchFilter(null, null, ForumCategory.QUESTION, List.of("PYTHON"))));
+		assertEquals(List.of("p2"), postIds("lambdas", new ForumSearchFilter(null, null, null, List.of("java"))));
+		assertEquals(List.of(), postIds("lambdas", new ForumSearchFilter(null, null, null, List.of("java", "streams"))));
+	}
+
+	@Test
+	void reflectsEditsAndDeletes() {
+		index.indexPost(post("p2", "Course feedback", "Loved the exercises", "c1", ForumCategory.FEEDBACK, List.of()));
+		assertEquals(List.of(), postIds("lambdas", ForumSearchFilter.NONE));
+
+		index.removeReply("p3", "r1");
+		assertEquals(List.of("p1"), postIds("nullpointer", ForumSearchFilter.NONE));
+
+		index.indexReply(reply("r2", "p1", "Check for null before calling map"));
+		index.removePost("p1");
+		assertEquals(List.of(), postIds("nullpointer", ForumSearchFilter.NONE));
+		assertEquals(List.of(), postIds("check", ForumSearchFilter.NONE));
+	}
+
+	@Test
+	void reReadsPostsAndRepliesChangedOnOtherNodes() {
+		// Another node retitled p1 and deleted r1
+		when(mongoTemplate.find(any(Query.class), eq(ForumPost.class))).thenReturn(List.of(post("p1",
+				"IllegalStateException in streams", "Calling map on a list fails", "c1", ForumCategory.QUESTION,
+				List.of("Java", "streams"))));
+		when(mongoTemplate.find(any(Query.class), eq(ForumReply.class))).thenReturn(List.of());
+
+		index.apply(new CacheInvalidation()
+				.evict(ForumSearchIndex.POST_INVALIDATION_NAME, "p1")
+				.evict(ForumSearchIndex.REPLY_INVALIDATION_NAME, "r1"));
+
+		assertEquals(List.of(), postIds("nullpointer", ForumSearchFilter.NONE));
+		assertEquals(List.of("p1"), postIds("illegalstate", ForumSearchFilter.NONE));
+	}
+
+	@Test
+	void overlappingRebuildsRunOneAfterAnother() throws InterruptedException {
+		List<ForumPost> stored = new CopyOnWriteArrayList<>(List.of(post("p1", "NullPointerException in streams",
+				"Calling map on a list fails", "c1", ForumCategory.QUESTION, List.of())));
+		CountDownLatch reading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger rebuilds = new AtomicInteger();
+		when(mongoTemplate.stream(any(Query.class), eq(ForumPost.class))).thenAnswer(invocation -> {
+			if (rebuilds.incrementAndGet() == 1) {
+				reading.countDown();
+				release.await();
+			}
+			return List.copyOf(stored).stream();
+		});
+		when(mongoTemplate.stream(any(Query.class), eq(ForumReply.class))).thenAnswer(invocation -> Stream.empty());
+		List<Throwable> failures = new CopyOnWriteArrayList<>();
+
+		// The startup rebuild is reading when another node's clear asks for a second one
+		Thread startup = rebuildThread(failures);
+		startup.start();
+		assertTrue(reading.await(5, TimeUnit.SECONDS));
+		Thread clear = rebuildThread(failures);
+		clear.start();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (clear.getState() != Thread.State.BLOCKED) {
+			if (System.nanoTime() > deadline) {
+				fail("The second rebuild did not wait for the first");
+			}
+			Thread.onSpinWait();
+		}
+		ForumPost written = post("p4", "Gradle daemon", "The build hangs", "c1", ForumCategory.QUESTION, List.of());
+		stored.add(written);
+		index.indexPost(written);
+		release.countDown();
+		startup.join(5000);
+		clear.join(5000);
+
+		assertEquals(List.of(), failures);
+		assertEquals(2, rebuilds.get());
+		assertEquals(List.of("p4"), postIds("gradle", ForumSearchFilter.NONE));
+		assertEquals(List.of("p1"), postIds("nullpointer", ForumSearchFilter.NONE));
+	}
+
+	@Test
+	void highlightsMatchesInAnEscapedExcerpt() {
+		assertEquals("Use <mark>merge</mark> with how=&#39;left&#39;," + Highlighter.ELLIPSIS,
+				Highlighter.snippet("Use merge with how='left', or a join", "MERG", 26));
+		String text = "Some long introduction that goes on for quite a while before the question. "
+				+ "Why does <b>merge</b> drop rows?";
+		assertEquals(Highlighter.ELLIPSIS + "while before the question. Why does &lt;b&gt;<mark>merge</mark>&lt;/b&gt; drop rows?",
+				Highlighter.snippet(text, "merge", 200));
+	}
+
+	private Thread rebuildThread(List<Throwable> failures) {
+		Thread thread = new Thread(index::rebuild);
+		thread.setUncaughtExceptionHandler((dead, e) -> failures.add(e));
+		return thread;
+	}
+
+	private List<String> postIds(String query, ForumSearchFilter filter) {
+		return index.search(query, filter).stream().map(ForumSearchIndex.Match::postId).toList();
+	}
+
+	private static ForumPost post(String id, String title, String content, String courseId, ForumCategory category,
+			List<String> tags) {
+		ForumPost post = new ForumPost();
+		post.setId(id);
+		post.setTitle(title);
+		post.setContent(content);
+		post.setCourseId(courseId);
+		post.setCategory(category);
+		post.setTags(tags);
+		return post;
+	}
+
+	private static ForumReply reply(String id, String postId, String content) {
+		ForumReply reply = new ForumReply();
+		reply.setId(id);
+		reply.setPostId(postId);
+		reply.setContent(content);
+		return reply;
+	}
+}
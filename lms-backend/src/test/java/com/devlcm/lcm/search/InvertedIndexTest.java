@@ -0,0 +1,53 @@
+package com.devlcm.lcm.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InvertedIndexTest {
+
+	private InvertedIndex<String> index;
+
+	@BeforeEach
+	void setUp() {
+		index = new InvertedIndex<>(Map.of("title", 3.0, "description", 1.0));
+		index.put("java", Map.of("title", "Java Fundamentals", "description", "Classes, objects and the JVM"));
+		index.put("spring", Map.of("title", "Spring Boot", "description", "Build Java web services"));
+		index.put("python", Map.of("title", "Python for Data Science", "description", "Pandas and NumPy"));
+	}
+
+	@Test
+	void ranksTitleMatchesAboveDescriptionMatches() {
+		assertEquals(List.of("java", "spring"), ids(index.search("java", id -> true)));
+	}
+
+	@Test
+	void matchesPrefixesAndIgnoresCaseAndAccents() {
+		assertEquals(List.of("python"), ids(index.search("PYTH", id -> true)));
+		assertEquals(List.of("python"), ids(index.search("sciénce", id -> true)));
+	}
+
+	@Test
+	void updatesAndRemovalsAreVisibleImmediately() {
+		index.put("spring", Map.of("title", "Spring Framework"));
+		assertEquals(List.of("java"), ids(index.search("java", id -> true)));
+
+		index.remove("java");
+		assertTrue(index.search("jvm", id -> true).isEmpty());
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void filterExcludesDocumentsBeforeRanking() {
+		assertEquals(List.of("spring"), ids(index.search("java", id -> !id.equals("java"))));
+	}
+
+	private static List<String> ids(List<InvertedIndex.Hit<String>> hits) {
+		return hits.stream().map(InvertedIndex.Hit::id).toList();
+	}
+}
@@ -0,0 +1,131 @@
+package com.devlcm.lcm.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.Duration;
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.devlcm.lcm.exception.InvalidTokenException;
+
+class LocalJwtTokenVerifierTest {
+
+	private static final String PROJECT_ID = "lms-test";
+	private static final String KID = "test-key";
+
+	@TempDir
+	Path tempDir;
+
+	private KeyPair keyPair;
+	private LocalJwtTokenVerifier verifier;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		keyPair = generator.generateKeyPair();
+
+		String pem = "-----BEGIN PUBLIC KEY-----\\n"
+				+ Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded())
+				+ "\\n-----END PUBLIC KEY-----\\n";
+		Path keysFile = tempDir.resolve("keys.json");
+		Files.writeString(keysFile, "{\"" + KID + "\":\"" + pem + "\"}");
+
+		SigningKeyStore keyStore = new SigningKeyStore("http://localhost/unused", keysFile.toString(), Duration.ofHours(1));
+		keyStore.refresh();
+		verifier = new LocalJwtTokenVerifier(keyStore, PROJECT_ID);
+	}
+
+	@Test
+	void acceptsValidToken() throws Exception {
+		long now = System.currentTimeMillis() / 1000;
+		String token = sign(KID, payload("user-1", PROJECT_ID, now + 3600, now, "\"role\":\"admin\""));
+
+		VerifiedToken verified = verifier.verify(token);
+
+		assertEquals("user-1", verified.uid());
+		assertEquals("ROLE_ADMIN", verified.authority());
+		assertEquals(now + 3600, verified.expiresAtEpochSecond());
+	}
+
+	@Test
+	void rejectsTamperedPayload() throws Exception {
+		long now = System.currentTimeMillis() / 1000;
+		String token = sign(KID, payload("user-1", PROJECT_ID, now + 3600, now, null));
+		String[] parts = token.split("\\.");
+		String forged = encode(payload("someone-else", PROJECT_ID, now + 3600, now, null));
+
+		assertThrows(InvalidTokenException.class, () -> verifier.verify(parts[0] + "." + forged + "." + parts[2]));
+	}
+
+	@Test
+	void rejectsExpiredToken() throws Exception {
+		long now = System.currentTimeMillis() / 1000;
+		String token = sign(KID, payload("user-1", PROJECT_ID, now - 10, now - 3610, null));
+
+		assertThrows(InvalidTokenException.class, () -> verifier.verify(token));
+	}
+
+	@Test
+	void rejectsWrongAudience() throws Exception {
+		long now = System.currentTimeMillis() / 1000;
+		String token = sign(KID, payload("user-1", "other-project", now + 3600, now, null));
+
+		assertThrows(InvalidTokenException.class, () -> verifier.verify(token));
+	}
+
+	@Test
+	void rejectsUnknownKeyId() throws Exception {
+		long now = System.currentTimeMillis() / 1000;
+		String token = sign("rotated-away", payload("user-1", PROJECT_ID, now + 3600, now, null));
+
+		assertThrows(InvalidTokenException.class, () -> verifier.verify(token));
+	}
+
+	@Test
+	void rejectsTokenWithoutIssuedAtOrAuthTime() throws Exception {
+		long now = System.currentTimeMillis() / 1000;
+		String valid = payload("user-1", PROJECT_ID, now + 3600, now, null);
+		String withoutIat = sign(KID, valid.replace(",\"iat\":" + now, ""));
+		String withoutAuthTime = sign(KID, valid.replace(",\"auth_time\":" + now, ""));
+		String zeroIat = sign(KID, valid.replace("\"iat\":" + now, "\"iat\":0"));
+
+		assertThrows(InvalidTokenException.class, () -> verifier.verify(withoutIat));
+		assertThrows(InvalidTokenException.class, () -> verifier.verify(withoutAuthTime));
+		assertThrows(InvalidTokenException.class, () -> verifier.verify(zeroIat));
+	}
+
+	private static String payload(String sub, String project, long exp, long iat, String extra) {
+		return "{\"iss\":\"https://securetoken.google.com/" + project + "\""
+				+ ",\"aud\":\"" + project + "\""
+				+ ",\"auth_time\":" + iat
+				+ ",\"sub\":\"" + sub + "\""
+				+ ",\"iat\":" + iat
+				+ ",\"exp\":" + exp
+				+ ",\"firebase\":{\"sign_in_provider\":\"password\",\"identities\":{\"email\":[\"a@b.c\"]}}"
+				+ (extra != null ? "," + extra : "")
+				+ "}";
+	}
+
+	private String sign(String kid, String payload) throws Exception {
+		String signingInput = encode("{\"alg\":\"RS256\",\"kid\":\"" + kid + "\",\"typ\":\"JWT\"}") + "." + encode(payload);
+		Signature signature = Signature.getInstance("SHA256withRSA");
+		signature.initSign(keyPair.getPrivate());
+		signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+		return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature.sign());
+	}
+
+	private static String encode(String json) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+	}
+}
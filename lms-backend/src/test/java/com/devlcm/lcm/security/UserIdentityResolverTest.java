@@ -0,0 +1,116 @@
+package com.devlcm.lcm.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.devlcm.lcm.entity.User;
+import com.devlcm.lcm.entity.UserRole;
+import com.devlcm.lcm.repository.UserRepository;
+import com.devlcm.lcm.service.CacheInvalidation;
+
+class UserIdentityResolverTest {
+
+	private UserRepository userRepository;
+	private UserIdentityResolver resolver;
+
+	@BeforeEach
+	void setUp() {
+		userRepository = mock(UserRepository.class);
+		resolver = new UserIdentityResolver(userRepository, event -> {}, 100, Duration.ofMinutes(10));
+	}
+
+	@Test
+	void readsEachUserOnceAndCachesOnlyExistingOnes() {
+		when(userRepository.findByFirebaseUid("uid-1")).thenReturn(Optional.of(user(UserRole.STUDENT)));
+		when(userRepository.findByFirebaseUid("uid-2")).thenReturn(Optional.empty());
+
+		assertEquals("user-1", resolver.require("uid-1").id());
+		assertEquals("user-1", resolver.require("uid-1").id());
+		assertTrue(resolver.resolve("uid-2").isEmpty());
+		// Someone signing up with that UID is seen right away
+		assertTrue(resolver.resolve("uid-2").isEmpty());
+
+		verify(userRepository, times(1)).findByFirebaseUid("uid-1");
+		verify(userRepository, times(2)).findByFirebaseUid("uid-2");
+	}
+
+	@Test
+	void invalidatingTheUidWhileItLoadsDropsTheLoadedIdentity() throws InterruptedException {
+		AuthenticatedUser loaded = loadWhile(() -> {
+			// A promotion to admin committed after the load read the student
+			Thread invalidation = new Thread(() -> resolver.invalidate("uid-1"));
+			invalidation.start();
+			awaitBlockedOrDone(invalidation);
+		});
+
+		assertEquals(UserRole.STUDENT, loaded.role());
+		assertNull(resolver.getNativeCache().getIfPresent("uid-1"));
+	}
+
+	@Test
+	void invalidatingTheUserIdWhileItLoadsDropsTheLoadedIdentity() throws InterruptedException {
+		// Other nodes' user changes may only name the document id
+		loadWhile(() -> resolver.apply(new CacheInvalidation().evict(UserIdentityResolver.CACHE_NAME, "user-1")));
+
+		assertNull(resolver.getNativeCache().getIfPresent("uid-1"));
+	}
+
+	/**
+	 * Resolve uid-1 on another thread and run {@code invalidation} while the database read is in flight.
+	 */
+	private AuthenticatedUser loadWhile(Runnable invalidation) throws InterruptedException {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(userRepository.findByFirebaseUid("uid-1")).thenAnswer(invocation -> {
+			loading.countDown();
+			release.await();
+			return Optional.of(user(UserRole.STUDENT));
+		});
+		AtomicReference<AuthenticatedUser> resolved = new AtomicReference<>();
+		Thread request = new Thread(() -> resolved.set(resolver.require("uid-1")));
+		request.start();
+		assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+		invalidation.run();
+		release.countDown();
+		request.join(5000);
+		return resolved.get();
+	}
+
+	/**
+	 * Wait until the thread finished or blocks on the entry being loaded.
+	 */
+	private static void awaitBlockedOrDone(Thread thread) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread.getState() != Thread.State.BLOCKED && thread.getState() != Thread.State.TERMINATED) {
+			if (System.nanoTime() > deadline) {
+				fail("The invalidation neither finished nor waited for the load");
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	private static User user(UserRole role) {
+		User user = new User();
+		user.setId("user-1");
+		user.setFirebaseUid("uid-1");
+		user.setUsername("ada");
+		user.setRole(role);
+		return user;
+	}
+}
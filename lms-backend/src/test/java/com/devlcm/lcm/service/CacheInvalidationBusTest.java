@@ -0,0 +1,205 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.repository.CourseRepository;
+import com.devlcm.lcm.repository.UserRepository;
+import com.devlcm.lcm.search.CourseSearchIndex;
+import com.devlcm.lcm.search.ForumSearchIndex;
+import com.devlcm.lcm.security.AuthenticatedUser;
+import com.devlcm.lcm.security.UserIdentityResolver;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CacheInvalidationBusTest {
+
+	private CaffeineCacheManager cacheManager;
+	private MongoTemplate mongoTemplate;
+	private UserIdentityResolver identities;
+	private CourseRepository courseRepository;
+	private CourseSearchIndex courseSearch;
+	private CacheInvalidationBus bus;
+
+	@BeforeEach
+	void setUp() {
+		cacheManager = new CaffeineCacheManager();
+		cacheManager.setCacheNames(CacheConfig.CACHE_NAMES);
+		mongoTemplate = mock(MongoTemplate.class);
+		CacheInvalidationService cacheInvalidation = new CacheInvalidationService(cacheManager, event -> {});
+		identities = new UserIdentityResolver(mock(UserRepository.class), event -> {}, 100, Duration.ofMinutes(10));
+		courseRepository = mock(CourseRepository.class);
+		courseSearch = new CourseSearchIndex(courseRepository, event -> {}, new SimpleMeterRegistry(), Duration.ZERO);
+		bus = new CacheInvalidationBus(mongoTemplate, cacheInvalidation, cacheManager, List.of(identities, courseSearch),
+				new SimpleMeterRegistry(),
+				"polling", "invalidations", Duration.ofSeconds(1), Duration.ofHours(1));
+	}
+
+	@Test
+	void pollingAppliesOtherNodesInvalidationsOnce() {
+		Date start = new Date();
+		when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("invalidations")))
+				.thenReturn(new Document("_id", new ObjectId()).append("at", start));
+		bus.poll();
+
+		Document remote = record(new CacheInvalidation()
+				.evict(CacheConfig.TOPIC_BY_ID_CACHE, "t1")
+				.clear(CacheConfig.COURSES_CACHE), "other-node", new Date(start.getTime() + 10));
+		Document own = record(new CacheInvalidation().evict(CacheConfig.TOPIC_BY_ID_CACHE, "t2"),
+				bus.getNodeId(), new Date(start.getTime() + 20));
+		when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("invalidations")))
+				.thenReturn(List.of(remote, own));
+
+		Cache topics = cacheManager.getCache(CacheConfig.TOPIC_BY_ID_CACHE);
+		Cache courses = cacheManager.getCache(CacheConfig.COURSES_CACHE);
+		topics.put("t1", "topic 1");
+		topics.put("t2", "topic 2");
+		courses.put("all", "course list");
+
+		bus.poll();
+
+		assertNull(topics.get("t1"));
+		assertNull(courses.get("all"));
+		// This node already evicted its own entries when it wrote them
+		assertNotNull(topics.get("t2"));
+
+		// Records are re-read within the lookback window but applied only once
+		topics.put("t1", "topic 1 reloaded");
+		bus.poll();
+		assertNotNull(topics.get("t1"));
+	}
+
+	@Test
+	void pollingDropsIdentitiesChangedOnOtherNodes() {
+		Date start = new Date();
+		when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("invalidations")))
+				.thenReturn(new Document("_id", new ObjectId()).append("at", start));
+		bus.poll();
+
+		identities.getNativeCache().put("uid-1", new AuthenticatedUser("user-1", "uid-1", "demoted", null, null, 0));
+		identities.getNativeCache().put("uid-2", new AuthenticatedUser("user-2", "uid-2", "other", null, null, 0));
+		Document remote = record(new CacheInvalidation().evict(UserIdentityResolver.CACHE_NAME, "uid-1"),
+				"other-node", new Date(start.getTime() + 10));
+		when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("invalidations")))
+				.thenReturn(List.of(remote));
+
+		bus.poll();
+
+		assertNull(identities.getNativeCache().getIfPresent("uid-1"));
+		assertNotNull(identities.getNativeCache().getIfPresent("uid-2"));
+	}
+
+	@Test
+	void pollingReindexesCoursesChangedOnOtherNodes() {
+		Date start = new Date();
+		when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("invalidations")))
+				.thenReturn(new Document("_id", new ObjectId()).append("at", start));
+		bus.poll();
+
+		courseSearch.index(course("c1", "Intro to Java"));
+		courseSearch.index(course("c2", "Java streams"));
+		// Another node renamed c1 and deleted c2
+		when(courseRepository.findAllById(Set.of("c1", "c2"))).thenReturn(List.of(course("c1", "Intro to Kotlin")));
+		Document remote = record(new CacheInvalidation().evictAll(CourseSearchIndex.INVALIDATION_NAME, List.of("c1", "c2")),
+				"other-node", new Date(start.getTime() + 10));
+		when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("invalidations")))
+				.thenReturn(List.of(remote));
+
+		bus.poll();
+
+		assertEquals(List.of(), courseSearch.search("java"));
+		assertEquals(List.of("c1"), courseSearch.search("kotlin"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void changeEventsThatFailClearTheCachesInstead() {
+		List<CacheInvalidation> received = new ArrayList<>();
+		InvalidationTarget failing = invalidation -> {
+			received.add(invalidation);
+			if (invalidation.getClears().isEmpty()) {
+				throw new IllegalStateException("index unavailable");
+			}
+		};
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		CacheInvalidationBus failingBus = new CacheInvalidationBus(mongoTemplate,
+				new CacheInvalidationService(cacheManager, event -> {}), cacheManager, List.of(failing),
+				meterRegistry, "change-stream", "invalidations", Duration.ofSeconds(1), Duration.ofHours(1));
+		ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+		when(change.getOperationType()).thenReturn(OperationType.DELETE);
+		when(change.getNamespace()).thenReturn(new MongoNamespace("lms", "courses"));
+		when(change.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonString("c1")));
+		Cache topics = cacheManager.getCache(CacheConfig.TOPIC_BY_ID_CACHE);
+		topics.put("t1", "topic 1");
+
+		failingBus.handleSafely(change);
+
+		assertNull(topics.get("t1"));
+		assertEquals(2, received.size());
+		assertTrue(received.get(1).getClears().contains(CourseSearchIndex.INVALIDATION_NAME));
+		assertEquals(1, meterRegistry.counter("cache.invalidation.failed").count());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void forumEditsReachTheSearchIndexByIdAlone() {
+		List<CacheInvalidation> received = new ArrayList<>();
+		CacheInvalidationBus forumBus = new CacheInvalidationBus(mongoTemplate,
+				new CacheInvalidationService(cacheManager, event -> {}), cacheManager, List.<InvalidationTarget>of(received::add),
+				new SimpleMeterRegistry(), "change-stream", "invalidations", Duration.ofSeconds(1), Duration.ofHours(1));
+		// The forum stream does not look the document up
+		ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+		when(change.getOperationType()).thenReturn(OperationType.UPDATE);
+		when(change.getNamespace()).thenReturn(new MongoNamespace("lms", "forum_posts"));
+		when(change.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonString("p1")));
+
+		forumBus.handle(change);
+
+		assertEquals(List.of(Map.of(ForumSearchIndex.POST_INVALIDATION_NAME, Set.of("p1"))),
+				received.stream().map(CacheInvalidation::getEvictions).toList());
+		assertTrue(received.getFirst().getClears().isEmpty());
+	}
+
+	private static Course course(String id, String title) {
+		Course course = new Course();
+		course.setId(id);
+		course.setTitle(title);
+		return course;
+	}
+
+	private static Document record(CacheInvalidation invalidation, String node, Date at) {
+		return CacheInvalidationBus.toDocument(invalidation)
+				.append("_id", new ObjectId())
+				.append("node", node)
+				.append("at", at);
+	}
+}
@@ -0,0 +1,141 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.entity.Chapter;
+import com.devlcm.lcm.entity.Topic;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+class CacheInvalidationServiceTest {
+
+	private CaffeineCacheManager cacheManager;
+	private CacheInvalidationService cacheInvalidation;
+
+	@BeforeEach
+	void setUp() {
+		cacheManager = new CaffeineCacheManager();
+		cacheManager.setCaffeine(Caffeine.newBuilder().recordStats());
+		cacheManager.setCacheNames(CacheConfig.CACHE_NAMES);
+		cacheInvalidation = new CacheInvalidationService(cacheManager, event -> {});
+	}
+
+	@Test
+	void progressWriteEvictsOnlyThatUsersEntry() {
+		Cache progress = cacheManager.getCache(CacheConfig.USER_PROGRESS_CACHE);
+		progress.put(CacheInvalidationService.userProgressKey("u1", "c1"), "p1");
+		progress.put(CacheInvalidationService.userProgressKey("u2", "c1"), "p2");
+
+		cacheInvalidation.userProgressChanged("u1", "c1");
+
+		assertNull(progress.get("u1_c1"));
+		assertNotNull(progress.get("u2_c1"));
+	}
+
+	@Test
+	void topicDeleteEvictsItsChapterButNotSiblings() {
+		Chapter chapter = new Chapter();
+		chapter.setId("ch1");
+		chapter.setCourseId("c1");
+		Topic topic = new Topic();
+		topic.setId("t1");
+		topic.setChapterId("ch1");
+
+		cacheManager.getCache(CacheConfig.TOPIC_BY_ID_CACHE).put("t1", "topic");
+		cacheManager.getCache(CacheConfig.TOPIC_BY_ID_CACHE).put("t2", "sibling");
+		cacheManager.getCache(CacheConfig.TOPICS_CACHE).put("ch1", "topics");
+		cacheManager.getCache(CacheConfig.TOPICS_CACHE).put("ch2", "other topics");
+		cacheManager.getCache(CacheConfig.CHAPTER_BY_ID_CACHE).put("ch1", "chapter");
+		cacheManager.getCache(CacheConfig.CHAPTERS_CACHE).put("c1", "chapters");
+		cacheManager.getCache(CacheConfig.COURSE_BY_ID_CACHE).put("c1", "course");
+
+		cacheInvalidation.topicDeleted(topic, chapter);
+
+		assertNull(cacheManager.getCache(CacheConfig.TOPIC_BY_ID_CACHE).get("t1"));
+		assertNull(cacheManager.getCache(CacheConfig.TOPICS_CACHE).get("ch1"));
+		assertNull(cacheManager.getCache(CacheConfig.CHAPTER_BY_ID_CACHE).get("ch1"));
+		assertNull(cacheManager.getCache(CacheConfig.CHAPTERS_CACHE).get("c1"));
+		assertNotNull(cacheManager.getCache(CacheConfig.TOPIC_BY_ID_CACHE).get("t2"));
+		assertNotNull(cacheManager.getCache(CacheConfig.TOPICS_CACHE).get("ch2"));
+		// The course only lists chapterIds, which a topic write leaves alone
+		assertNotNull(cacheManager.getCache(CacheConfig.COURSE_BY_ID_CACHE).get("c1"));
+	}
+
+	@Test
+	void topicUpdateEvictsOnlyItsCourseTree() {
+		Chapter chapter = new Chapter();
+		chapter.setId("ch1");
+		chapter.setCourseId("c1");
+		Topic topic = new Topic();
+		topic.setId("t1");
+		topic.setChapterId("ch1");
+
+		cacheManager.getCache(CacheConfig.CHAPTER_BY_ID_CACHE).put("ch1", chapter);
+		cacheManager.getCache(CacheConfig.COURSE_TREE_CACHE).put("c1", "tree");
+		cacheManager.getCache(CacheConfig.COURSE_TREE_CACHE).put("c2", "other tree");
+
+		cacheInvalidation.topicUpdated(topic);
+
+		assertNull(cacheManager.getCache(CacheConfig.COURSE_TREE_CACHE).get("c1"));
+		assertNotNull(cacheManager.getCache(CacheConfig.COURSE_TREE_CACHE).get("c2"));
+	}
+
+	/**
+	 * Mixed progress reads and writes (1 in 20) over 500 users: hit rate with a full
+	 * clear per write, as {@code allEntries = true} did, against per-key eviction.
+	 */
+	@Test
+	void targetedEvictionKeepsProgressHitRateUnderMixedLoad() {
+		Cache progress = cacheManager.getCache(CacheConfig.USER_PROGRESS_CACHE);
+		double clearAll = runMixedLoad(progress, (userId, courseId) -> progress.clear());
+		double targeted = runMixedLoad(progress, cacheInvalidation::userProgressChanged);
+
+		assertTrue(targeted > 0.85, "targeted hit rate " + targeted);
+		assertTrue(clearAll < 0.5, "clear-all hit rate " + clearAll);
+	}
+
+	private double runMixedLoad(Cache progress, ProgressWrite write) {
+		progress.clear();
+		com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = ((CaffeineCache) progress).getNativeCache();
+		long hitsBefore = nativeCache.stats().hitCount();
+		long requestsBefore = nativeCache.stats().requestCount();
+
+		List<String> users = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			users.add("user-" + i);
+		}
+		Random random = new Random(42);
+		for (int op = 0; op < 20_000; op++) {
+			String userId = users.get(random.nextInt(users.size()));
+			if (random.nextInt(20) == 0) {
+				write.apply(userId, "course-1");
+			} else {
+				String key = CacheInvalidationService.userProgressKey(userId, "course-1");
+				if (progress.get(key) == null) {
+					progress.put(key, "progress of " + userId);
+				}
+			}
+		}
+
+		long hits = nativeCache.stats().hitCount() - hitsBefore;
+		long requests = nativeCache.stats().requestCount() - requestsBefore;
+		return hits / (double) requests;
+	}
+
+	@FunctionalInterface
+	private interface ProgressWrite {
+		void apply(String userId, String courseId);
+	}
+}
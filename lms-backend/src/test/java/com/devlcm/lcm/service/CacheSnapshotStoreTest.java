@@ -0,0 +1,87 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.entity.Chapter;
+import com.devlcm.lcm.entity.Course;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CacheSnapshotStoreTest {
+
+	@TempDir
+	Path dir;
+
+	private MappingMongoConverter converter;
+
+	@BeforeEach
+	void setUp() {
+		converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+		converter.afterPropertiesSet();
+	}
+
+	@Test
+	void restoresWhatWasSavedOnShutdown() {
+		Course course = new Course("c1", "Course", "About", "Java", new ArrayList<>(List.of("ch2", "ch1")));
+		Chapter chapter1 = new Chapter("ch1", "One", null, "c1", new ArrayList<>(List.of("t1")));
+		Chapter chapter2 = new Chapter("ch2", "Two", null, "c1", new ArrayList<>());
+
+		CaffeineCacheManager before = cacheManager();
+		before.getCache(CacheConfig.COURSES_CACHE).put(SimpleKey.EMPTY, List.of(course));
+		before.getCache(CacheConfig.COURSE_BY_ID_CACHE).put("c1", course);
+		before.getCache(CacheConfig.CHAPTERS_CACHE).put("c1", List.of(chapter2, chapter1));
+		before.getCache(CacheConfig.CHAPTER_BY_ID_CACHE).put("missing", null);
+		store(before).save();
+
+		CaffeineCacheManager after = cacheManager();
+		assertTrue(store(after).restore());
+
+		assertEquals(List.of(course), after.getCache(CacheConfig.COURSES_CACHE).get(SimpleKey.EMPTY).get());
+		assertEquals(course, after.getCache(CacheConfig.COURSE_BY_ID_CACHE).get("c1").get());
+		assertEquals(List.of(chapter2, chapter1), after.getCache(CacheConfig.CHAPTERS_CACHE).get("c1").get());
+		assertNull(after.getCache(CacheConfig.CHAPTER_BY_ID_CACHE).get("missing").get());
+	}
+
+	@Test
+	void ignoresUnreadableSnapshot() throws Exception {
+		Files.write(dir.resolve("snapshot.bin"), new byte[] { 'L', 'M', 'S', 'C', 0, 1, 2 });
+
+		CaffeineCacheManager cacheManager = cacheManager();
+		assertFalse(store(cacheManager).restore());
+		assertNull(cacheManager.getCache(CacheConfig.COURSES_CACHE).get(SimpleKey.EMPTY));
+	}
+
+	private CacheSnapshotStore store(CaffeineCacheManager cacheManager) {
+		return new CacheSnapshotStore(cacheManager, converter,
+				new DefaultListableBeanFactory().getBeanProvider(CacheInvalidationBus.class), new SimpleMeterRegistry(),
+				dir.resolve("snapshot.bin"), List.of(CacheConfig.COURSES_CACHE, CacheConfig.COURSE_BY_ID_CACHE,
+						CacheConfig.CHAPTERS_CACHE, CacheConfig.CHAPTER_BY_ID_CACHE),
+				Duration.ofMinutes(10));
+	}
+
+	private static CaffeineCacheManager cacheManager() {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+		cacheManager.setCacheNames(CacheConfig.CACHE_NAMES);
+		return cacheManager;
+	}
+}
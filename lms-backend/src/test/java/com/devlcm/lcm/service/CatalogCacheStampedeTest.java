@@ -0,0 +1,131 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.mapper.AllMapper;
+import com.devlcm.lcm.repository.ChapterRepository;
+import com.devlcm.lcm.repository.CourseRepository;
+import com.devlcm.lcm.repository.QuizRepository;
+import com.devlcm.lcm.repository.TopicRepository;
+import com.devlcm.lcm.repository.UserRepository;
+import com.devlcm.lcm.search.CourseSearchIndex;
+import com.devlcm.lcm.security.UserIdentityResolver;
+
+/**
+ * Concurrent misses on a catalog cache must be coalesced into a single repository call.
+ */
+@SpringJUnitConfig({ CacheConfig.class, CourseService.class })
+class CatalogCacheStampedeTest {
+
+	private static final int CALLERS = 32;
+
+	@MockitoBean
+	private CourseRepository courseRepository;
+	@MockitoBean
+	private ChapterRepository chapterRepository;
+	@MockitoBean
+	private TopicRepository topicRepository;
+	@MockitoBean
+	private QuizRepository quizRepository;
+	@MockitoBean
+	private UserRepository userRepository;
+	@MockitoBean
+	private UserIdentityResolver userIdentityResolver;
+	@MockitoBean
+	private CacheInvalidationService cacheInvalidation;
+	@MockitoBean
+	private AllMapper allMapper;
+	@MockitoBean
+	private CourseSearchIndex courseSearchIndex;
+
+	@Autowired
+	private CourseService courseService;
+
+	@Test
+	void parallelMissesOnCourseListQueryMongoOnce() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(courseRepository.findAll()).thenAnswer(invocation -> {
+			loading.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return List.of(new Course());
+		});
+
+		List<Future<List<Course>>> results = callConcurrently(loading, release, courseService::getAllCourses);
+
+		for (Future<List<Course>> result : results) {
+			assertEquals(1, result.get(5, TimeUnit.SECONDS).size());
+		}
+		verify(courseRepository, times(1)).findAll();
+	}
+
+	@Test
+	void parallelMissesOnOneCourseQueryMongoOnce() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(courseRepository.findById("c1")).thenAnswer(invocation -> {
+			loading.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return Optional.of(new Course());
+		});
+
+		List<Future<Optional<Course>>> results = callConcurrently(loading, release, () -> courseService.getCourseById("c1"));
+
+		for (Future<Optional<Course>> result : results) {
+			assertTrue(result.get(5, TimeUnit.SECONDS).isPresent());
+		}
+		verify(courseRepository, times(1)).findById("c1");
+	}
+
+	/**
+	 * Start all callers, wait until the first load is running and every caller is parked behind it,
+	 * then let the load finish.
+	 */
+	private <T> List<Future<T>> callConcurrently(CountDownLatch loading, CountDownLatch release, Callable<T> call)
+			throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+		Set<Thread> callers = ConcurrentHashMap.newKeySet();
+		List<Future<T>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < CALLERS; i++) {
+				results.add(pool.submit(() -> {
+					callers.add(Thread.currentThread());
+					return call.call();
+				}));
+			}
+			assertTrue(loading.await(5, TimeUnit.SECONDS));
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (callers.size() < CALLERS || callers.stream().anyMatch(thread -> thread.getState() == Thread.State.RUNNABLE)) {
+				assertTrue(System.nanoTime() < deadline, "callers did not wait for the running load");
+				Thread.onSpinWait();
+			}
+			release.countDown();
+			return results;
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
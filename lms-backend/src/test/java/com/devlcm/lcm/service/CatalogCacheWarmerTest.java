@@ -0,0 +1,65 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.dto.TopicPreviewDTO;
+import com.devlcm.lcm.entity.Chapter;
+import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.entity.Topic;
+import com.devlcm.lcm.repository.ChapterRepository;
+import com.devlcm.lcm.repository.CourseRepository;
+import com.devlcm.lcm.repository.TopicRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CatalogCacheWarmerTest {
+
+	@Test
+	void loadsTreeWithOneQueryPerLevelAndKeepsIdOrder() {
+		Course course = new Course("c1", "Course", null, null, new ArrayList<>(List.of("ch2", "ch1")));
+		Chapter chapter1 = new Chapter("ch1", "One", null, "c1", new ArrayList<>(List.of("t1")));
+		Chapter chapter2 = new Chapter("ch2", "Two", null, "c1", new ArrayList<>());
+		Topic topic = new Topic();
+		topic.setId("t1");
+		topic.setChapterId("ch1");
+
+		CourseRepository courseRepository = mock(CourseRepository.class);
+		ChapterRepository chapterRepository = mock(ChapterRepository.class);
+		TopicRepository topicRepository = mock(TopicRepository.class);
+		when(courseRepository.findAll()).thenReturn(List.of(course));
+		when(chapterRepository.findAllById(anyIterable())).thenReturn(List.of(chapter1, chapter2));
+		when(topicRepository.findAllById(anyIterable())).thenReturn(List.of(topic));
+
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+		cacheManager.setCacheNames(CacheConfig.CACHE_NAMES);
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		new CatalogCacheWarmer(courseRepository, chapterRepository, topicRepository, cacheManager, meterRegistry,
+				Duration.ofSeconds(10), 2).run(null);
+
+		assertEquals(List.of(course), cacheManager.getCache(CacheConfig.COURSES_CACHE).get(SimpleKey.EMPTY).get());
+		assertSame(course, cacheManager.getCache(CacheConfig.COURSE_BY_ID_CACHE).get("c1").get());
+		assertEquals(List.of(chapter2, chapter1), cacheManager.getCache(CacheConfig.CHAPTERS_CACHE).get("c1").get());
+		assertEquals(List.of(new TopicPreviewDTO("t1", null, "ch1")),
+				cacheManager.getCache(CacheConfig.TOPICS_CACHE).get("ch1").get());
+		assertEquals(List.of(), cacheManager.getCache(CacheConfig.TOPICS_CACHE).get("ch2").get());
+		verify(chapterRepository, times(1)).findAllById(anyIterable());
+		verify(topicRepository, times(1)).findAllById(anyIterable());
+		assertEquals(2.0, meterRegistry.get("cache.warmup.entries").tag("cache", CacheConfig.TOPICS_CACHE).counter().count());
+	}
+}
@@ -0,0 +1,281 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.devlcm.lcm.dto.CreateForumReplyRequest;
+import com.devlcm.lcm.dto.VoteRequest;
+import com.devlcm.lcm.entity.ForumPost;
+import com.devlcm.lcm.entity.ForumReply;
+import com.devlcm.lcm.entity.ForumVote;
+import com.devlcm.lcm.entity.VoteType;
+import com.devlcm.lcm.repository.ChapterRepository;
+import com.devlcm.lcm.repository.CourseRepository;
+import com.devlcm.lcm.repository.ForumPostRepository;
+import com.devlcm.lcm.repository.ForumReplyRepository;
+import com.devlcm.lcm.repository.ForumVoteRepository;
+import com.devlcm.lcm.search.ForumSearchIndex;
+import com.devlcm.lcm.security.AuthenticatedUser;
+import com.devlcm.lcm.security.UserIdentityResolver;
+
+/**
+ * Hammers votes, reply creation/deletion and moderation toggles on one post from many threads
+ * against in-memory stand-ins for the collections that apply each single-document operation
+ * atomically, as Mongo does, and checks that the post agrees with the operations applied.
+ */
+class ForumConcurrencyStressTest {
+
+	private static final String POST_ID = "p1";
+	private static final int THREADS = 16;
+	private static final int USERS = 8;
+	private static final int OPERATIONS = 2_000;
+
+	/** forum_votes: "targetId/userId" to vote type */
+	private final Map<String, VoteType> votes = new ConcurrentHashMap<>();
+	/** forum_replies */
+	private final Map<String, ForumReply> replies = new ConcurrentHashMap<>();
+	private final ForumPost post = new ForumPost();
+
+	private ForumService forumService;
+	private ExecutorService pool;
+
+	@BeforeEach
+	void setUp() {
+		post.setId(POST_ID);
+		pool = Executors.newFixedThreadPool(THREADS);
+
+		MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+		when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+				eq(ForumVote.class))).thenAnswer(invocation -> {
+					Document set = (Document) ((UpdateDefinition) invocation.getArgument(1)).getUpdateObject().get("$set");
+					VoteType previous = votes.put(voteKey(invocation.getArgument(0)), (VoteType) set.get("type"));
+					return previous == null ? null : new ForumVote(null, POST_ID, null, previous, null, null);
+				});
+		when(mongoTemplate.findAndRemove(any(Query.class), eq(ForumVote.class))).thenAnswer(invocation -> {
+			VoteType previous = votes.remove(voteKey(invocation.getArgument(0)));
+			return previous == null ? null : new ForumVote(null, POST_ID, null, previous, null, null);
+		});
+		when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+				eq(ForumPost.class))).thenAnswer(invocation -> {
+					if (invocation.getArgument(1) instanceof AggregationUpdate pipeline) {
+						return toggle(pipeline);
+					}
+					Document inc = (Document) ((UpdateDefinition) invocation.getArgument(1)).getUpdateObject().get("$inc");
+					synchronized (post) {
+						post.setUpvotes(post.getUpvotes() + ((Number) inc.getOrDefault("upvotes", 0)).intValue());
+						post.setDownvotes(post.getDownvotes() + ((Number) inc.getOrDefault("downvotes", 0)).intValue());
+						return copyOfPost();
+					}
+				});
+		when(mongoTemplate.findOne(any(Query.class), eq(ForumPost.class))).thenAnswer(invocation -> copyOfPost());
+
+		ForumPostRepository forumPostRepository = mock(ForumPostRepository.class);
+		when(forumPostRepository.incrementReplyCount(eq(POST_ID), any(LocalDateTime.class))).thenAnswer(invocation -> {
+			synchronized (post) {
+				post.setReplyCount(post.getReplyCount() + 1);
+				return 1L;
+			}
+		});
+		when(forumPostRepository.decrementReplyCount(eq(POST_ID), any(LocalDateTime.class))).thenAnswer(invocation -> {
+			synchronized (post) {
+				if (post.getReplyCount() == 0) {
+					return 0L;
+				}
+				post.setReplyCount(post.getReplyCount() - 1);
+				return 1L;
+			}
+		});
+
+		ForumReplyRepository forumReplyRepository = mock(ForumReplyRepository.class);
+		when(forumReplyRepository.save(any(ForumReply.class))).thenAnswer(invocation -> {
+			ForumReply reply = invocation.getArgument(0);
+			reply.setId(UUID.randomUUID().toString());
+			replies.put(reply.getId(), reply);
+			return reply;
+		});
+		when(forumReplyRepository.findById(anyString()))
+				.thenAnswer(invocation -> Optional.ofNullable(replies.get(invocation.<String>getArgument(0))));
+		when(forumReplyRepository.removeById(anyString()))
+				.thenAnswer(invocation -> replies.remove(invocation.<String>getArgument(0)) == null ? 0L : 1L);
+
+		UserIdentityResolver userIdentityResolver = mock(UserIdentityResolver.class);
+		when(userIdentityResolver.require(anyString())).thenAnswer(invocation -> {
+			String uid = invocation.getArgument(0);
+			return new AuthenticatedUser(uid, uid, uid, null, null, 0);
+		});
+
+		ForumTrending forumTrending = mock(ForumTrending.class);
+		ForumVoteService forumVoteService = new ForumVoteService(mongoTemplate, mock(ForumVoteRepository.class),
+				forumTrending);
+		forumService = new ForumService(forumPostRepository, forumReplyRepository, mock(CourseRepository.class),
+				mock(ChapterRepository.class), userIdentityResolver, mock(ForumSearchIndex.class),
+				mock(ForumPostAssembler.class), mock(ForumViewCounter.class), forumVoteService, forumTrending,
+				mongoTemplate);
+	}
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void countersMatchStoredVotesAfterConcurrentVoting() throws Exception {
+		VoteType[] types = VoteType.values();
+		runConcurrently(thread -> {
+			// Two threads per user, so a user's own votes race as well
+			String user = "user" + (thread % USERS);
+			for (int i = 0; i < OPERATIONS; i++) {
+				VoteRequest vote = new VoteRequest();
+				vote.setVoteType(types[ThreadLocalRandom.current().nextInt(types.length)].name());
+				forumService.voteOnPost(POST_ID, vote, user);
+			}
+		});
+
+		assertEquals(count(VoteType.UPVOTE), post.getUpvotes());
+		assertEquals(count(VoteType.DOWNVOTE), post.getDownvotes());
+	}
+
+	@Test
+	void replyCountMatchesStoredRepliesAfterConcurrentCreatesAndDeletes() throws Exception {
+		runConcurrently(thread -> {
+			String user = "user" + thread;
+			for (int i = 0; i < OPERATIONS; i++) {
+				CreateForumReplyRequest request = new CreateForumReplyRequest();
+				request.setPostId(POST_ID);
+				request.setContent("Reply " + i);
+				String replyId = forumService.createReply(request, user).getId();
+				if (i % 2 == 0) {
+					forumService.deleteReply(replyId, user, false);
+				}
+			}
+		});
+		assertEquals(THREADS * OPERATIONS / 2, replies.size());
+		assertEquals(replies.size(), post.getReplyCount());
+
+		// Two admins delete every remaining reply at once: only one delete of each may uncount it
+		List<String> remaining = new ArrayList<>(replies.keySet());
+		runConcurrently(thread -> {
+			for (int i = thread / 2; i < remaining.size(); i += THREADS / 2) {
+				try {
+					forumService.deleteReply(remaining.get(i), "admin", true);
+				} catch (RuntimeException e) {
+					// The other admin's delete finished first
+				}
+			}
+		});
+
+		assertEquals(0, replies.size());
+		assertEquals(0, post.getReplyCount());
+	}
+
+	@Test
+	void everyConcurrentToggleTakesEffect() throws Exception {
+		runConcurrently(thread -> {
+			// One extra pin, so the post ends up pinned and unlocked
+			int pins = thread == 0 ? OPERATIONS + 1 : OPERATIONS;
+			for (int i = 0; i < pins; i++) {
+				forumService.togglePinPost(POST_ID, "admin" + thread);
+			}
+			for (int i = 0; i < OPERATIONS; i++) {
+				forumService.toggleLockPost(POST_ID, "admin" + thread);
+			}
+		});
+
+		assertTrue(post.isPinned());
+		assertFalse(post.isLocked());
+	}
+
+	private interface Worker {
+		void run(int thread) throws Exception;
+	}
+
+	private void runConcurrently(Worker worker) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Void>> results = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			int id = thread;
+			Callable<Void> task = () -> {
+				start.await();
+				worker.run(id);
+				return null;
+			};
+			results.add(pool.submit(task));
+		}
+		start.countDown();
+		for (Future<Void> result : results) {
+			result.get(60, TimeUnit.SECONDS);
+		}
+	}
+
+	private long count(VoteType type) {
+		return votes.values().stream().filter(type::equals).count();
+	}
+
+	private ForumPost copyOfPost() {
+		synchronized (post) {
+			ForumPost copy = new ForumPost();
+			copy.setId(POST_ID);
+			copy.setUpvotes(post.getUpvotes());
+			copy.setDownvotes(post.getDownvotes());
+			copy.setReplyCount(post.getReplyCount());
+			copy.setPinned(post.isPinned());
+			copy.setLocked(post.isLocked());
+			return copy;
+		}
+	}
+
+	/**
+	 * Apply a pipeline update that sets a flag to its own negation, the only kind the service sends.
+	 */
+	private ForumPost toggle(AggregationUpdate pipeline) {
+		Document set = (Document) pipeline.toPipeline(Aggregation.DEFAULT_CONTEXT).getFirst().get("$set");
+		synchronized (post) {
+			for (String field : set.keySet()) {
+				assertEquals(new Document("$not", List.of("$" + field)), set.get(field));
+				switch (field) {
+					case "isPinned" -> post.setPinned(!post.isPinned());
+					case "isLocked" -> post.setLocked(!post.isLocked());
+					default -> throw new IllegalArgumentException(field);
+				}
+			}
+			return copyOfPost();
+		}
+	}
+
+	private static String voteKey(Query query) {
+		Document filter = query.getQueryObject();
+		return filter.get("targetId") + "/" + filter.get("userId");
+	}
+}
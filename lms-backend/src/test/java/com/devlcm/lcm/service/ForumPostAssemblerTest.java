@@ -0,0 +1,140 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.devlcm.lcm.config.CacheConfig;
+import com.devlcm.lcm.dto.ForumPostDTO;
+import com.devlcm.lcm.entity.Chapter;
+import com.devlcm.lcm.entity.Course;
+import com.devlcm.lcm.entity.ForumPost;
+import com.devlcm.lcm.repository.ChapterRepository;
+import com.devlcm.lcm.repository.CourseRepository;
+import com.devlcm.lcm.repository.ForumPostRepository;
+import com.devlcm.lcm.repository.ForumReplyRepository;
+import com.devlcm.lcm.search.ForumSearchIndex;
+import com.devlcm.lcm.security.AuthenticatedUser;
+import com.devlcm.lcm.security.UserIdentityResolver;
+
+/**
+ * Listing forum posts costs a fixed number of queries per page, whatever the page size.
+ */
+@SpringJUnitConfig({ CacheConfig.class, ForumService.class, ForumPostAssembler.class })
+class ForumPostAssemblerTest {
+
+	private static final int COURSES = 10;
+	private static final int CHAPTERS_PER_COURSE = 3;
+
+	@MockitoBean
+	private ForumPostRepository forumPostRepository;
+	@MockitoBean
+	private ForumReplyRepository forumReplyRepository;
+	@MockitoBean
+	private CourseRepository courseRepository;
+	@MockitoBean
+	private ChapterRepository chapterRepository;
+	@MockitoBean
+	private UserIdentityResolver userIdentityResolver;
+	@MockitoBean
+	private ForumSearchIndex forumSearchIndex;
+	@MockitoBean
+	private ForumViewCounter forumViewCounter;
+	@MockitoBean
+	private ForumVoteService forumVoteService;
+	@MockitoBean
+	private ForumTrending forumTrending;
+	@MockitoBean
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private ForumService forumService;
+	@Autowired
+	private CacheManager cacheManager;
+
+	@BeforeEach
+	void setUp() {
+		cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+		when(userIdentityResolver.require("uid"))
+				.thenReturn(new AuthenticatedUser("user", "uid", "user", null, null, 0));
+		when(courseRepository.findAllById(any())).thenAnswer(invocation -> ids(invocation.getArgument(0)).stream()
+				.map(id -> new Course(id, "Course " + id, null, null, new ArrayList<>()))
+				.toList());
+		when(chapterRepository.findAllById(any())).thenAnswer(invocation -> ids(invocation.getArgument(0)).stream()
+				.map(id -> new Chapter(id, "Chapter " + id, null, null, new ArrayList<>()))
+				.toList());
+	}
+
+	@Test
+	void resolvesNamesWithOneQueryPerCollectionWhateverThePageSize() {
+		for (int size : new int[] { 5, 50 }) {
+			clearInvocations(courseRepository, chapterRepository, forumVoteService);
+			Page<ForumPostDTO> page = listPage(size);
+
+			assertEquals(size, page.getNumberOfElements());
+			ForumPostDTO last = page.getContent().get(size - 1);
+			assertEquals("Course " + last.getCourseId(), last.getCourseName());
+			assertEquals("Chapter " + last.getChapterId(), last.getChapterName());
+			verify(courseRepository, times(1)).findAllById(any());
+			verify(chapterRepository, times(1)).findAllById(any());
+			verify(forumVoteService, times(1)).votesOf(eq("user"), any());
+			verify(courseRepository, never()).findById(anyString());
+			verify(chapterRepository, never()).findById(anyString());
+		}
+	}
+
+	@Test
+	void takesCachedCoursesFromTheCatalogCache() {
+		cacheManager.getCache(CacheConfig.COURSE_BY_ID_CACHE)
+				.put("c0", new Course("c0", "Cached course", null, null, new ArrayList<>()));
+
+		Page<ForumPostDTO> page = listPage(50);
+
+		assertEquals("Cached course", page.getContent().get(0).getCourseName());
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Iterable<String>> queried = ArgumentCaptor.forClass(Iterable.class);
+		verify(courseRepository).findAllById(queried.capture());
+		assertEquals(COURSES - 1, ids(queried.getValue()).size());
+	}
+
+	private Page<ForumPostDTO> listPage(int size) {
+		List<ForumPost> posts = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			ForumPost post = new ForumPost();
+			post.setTitle("Post " + i);
+			post.setCourseId("c" + (i % COURSES));
+			post.setChapterId("c" + (i % COURSES) + "-ch" + (i % CHAPTERS_PER_COURSE));
+			posts.add(post);
+		}
+		Pageable pageable = PageRequest.of(0, size);
+		when(forumPostRepository.findAll(pageable)).thenReturn(new PageImpl<>(posts, pageable, 1000));
+		return forumService.getAllPosts("uid", pageable);
+	}
+
+	private static List<String> ids(Iterable<String> ids) {
+		return StreamSupport.stream(ids.spliterator(), false).toList();
+	}
+}
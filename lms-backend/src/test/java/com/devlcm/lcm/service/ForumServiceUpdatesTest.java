@@ -0,0 +1,162 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.devlcm.lcm.dto.CreateForumPostRequest;
+import com.devlcm.lcm.entity.ForumPost;
+import com.devlcm.lcm.entity.ForumReply;
+import com.devlcm.lcm.repository.ChapterRepository;
+import com.devlcm.lcm.repository.CourseRepository;
+import com.devlcm.lcm.repository.ForumPostRepository;
+import com.devlcm.lcm.repository.ForumReplyRepository;
+import com.devlcm.lcm.search.ForumSearchIndex;
+import com.devlcm.lcm.security.AuthenticatedUser;
+import com.devlcm.lcm.security.UserIdentityResolver;
+
+/**
+ * Edits of posts and replies must write only the edited fields, since counters and the trending
+ * score are changed concurrently with {@code $inc}. Checks the update documents the service sends;
+ * {@link ForumConcurrencyStressTest} runs them side by side.
+ */
+class ForumServiceUpdatesTest {
+
+	private final ForumPost post = new ForumPost();
+	private final ForumReply reply = new ForumReply();
+	private MongoTemplate mongoTemplate;
+	private ForumPostRepository forumPostRepository;
+	private ForumReplyRepository forumReplyRepository;
+	private ForumService forumService;
+
+	@BeforeEach
+	void setUp() {
+		post.setId("p1");
+		post.setAuthorId("user");
+		reply.setId("r1");
+		reply.setPostId("p1");
+		reply.setAuthorId("user");
+
+		mongoTemplate = mock(MongoTemplate.class);
+		when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+				eq(ForumPost.class))).thenReturn(post);
+		when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+				eq(ForumReply.class))).thenReturn(reply);
+		forumPostRepository = mock(ForumPostRepository.class);
+		when(forumPostRepository.findById("p1")).thenReturn(Optional.of(post));
+		forumReplyRepository = mock(ForumReplyRepository.class);
+		when(forumReplyRepository.findById("r1")).thenReturn(Optional.of(reply));
+		UserIdentityResolver userIdentityResolver = mock(UserIdentityResolver.class);
+		when(userIdentityResolver.require("uid")).thenReturn(new AuthenticatedUser("user", "uid", "user", null, null, 0));
+
+		forumService = new ForumService(forumPostRepository, forumReplyRepository, mock(CourseRepository.class),
+				mock(ChapterRepository.class), userIdentityResolver, mock(ForumSearchIndex.class),
+				mock(ForumPostAssembler.class), mock(ForumViewCounter.class), mock(ForumVoteService.class),
+				mock(ForumTrending.class), mongoTemplate);
+	}
+
+	@Test
+	void editingAPostSetsOnlyTheEditedFields() {
+		CreateForumPostRequest request = new CreateForumPostRequest();
+		request.setTitle("Streams question");
+		request.setContent("Why does map return nothing?");
+		request.setTags(List.of("java"));
+
+		forumService.updatePost("p1", request, "uid", false);
+
+		assertEquals(Set.of("title", "content", "category", "tags", "updatedAt"),
+				onlySet(lastUpdate(ForumPost.class)).keySet());
+	}
+
+	@Test
+	void pinningAndLockingFlipOnlyTheirFlagWithoutReadingIt() {
+		forumService.togglePinPost("p1", "uid");
+		assertEquals(List.of(flip("isPinned")), pipeline(lastUpdate(ForumPost.class)));
+
+		forumService.toggleLockPost("p1", "uid");
+		assertEquals(List.of(flip("isLocked")), pipeline(lastUpdate(ForumPost.class)));
+		verify(forumPostRepository, never()).findById("p1");
+	}
+
+	@Test
+	void editingAReplySetsOnlyItsContent() {
+		forumService.updateReply("r1", "Use flatMap instead", "uid", false);
+
+		assertEquals(Set.of("content", "updatedAt"), onlySet(lastUpdate(ForumReply.class)).keySet());
+	}
+
+	@Test
+	void acceptingAnAnswerSetsOnlyTheFlags() {
+		forumService.markAsAcceptedAnswer("r1", "uid", false);
+
+		ArgumentCaptor<Query> others = ArgumentCaptor.forClass(Query.class);
+		ArgumentCaptor<UpdateDefinition> unaccepted = ArgumentCaptor.forClass(UpdateDefinition.class);
+		verify(mongoTemplate).updateMulti(others.capture(), unaccepted.capture(), eq(ForumReply.class));
+		assertEquals(new Document("postId", "p1").append("isAcceptedAnswer", true).append("_id", new Document("$ne", "r1")),
+				others.getValue().getQueryObject());
+		assertEquals(new Document("isAcceptedAnswer", false), onlySet(unaccepted.getValue()));
+
+		assertEquals(new Document("isAcceptedAnswer", true), onlySet(lastUpdate(ForumReply.class)));
+
+		ArgumentCaptor<UpdateDefinition> resolved = ArgumentCaptor.forClass(UpdateDefinition.class);
+		verify(mongoTemplate).updateFirst(any(Query.class), resolved.capture(), eq(ForumPost.class));
+		assertEquals(new Document("isResolved", true), onlySet(resolved.getValue()));
+	}
+
+	@Test
+	void onlyTheRequestThatDeletedAReplyUncountsIt() {
+		// Two admins delete the same reply at once
+		when(forumReplyRepository.removeById("r1")).thenReturn(1L, 0L);
+
+		forumService.deleteReply("r1", "uid", true);
+		forumService.deleteReply("r1", "uid", true);
+
+		verify(forumPostRepository, times(1)).decrementReplyCount(eq("p1"), any(LocalDateTime.class));
+	}
+
+	private UpdateDefinition lastUpdate(Class<?> type) {
+		ArgumentCaptor<UpdateDefinition> updates = ArgumentCaptor.forClass(UpdateDefinition.class);
+		verify(mongoTemplate, atLeastOnce()).findAndModify(any(Query.class), updates.capture(),
+				any(FindAndModifyOptions.class), eq(type));
+		return updates.getValue();
+	}
+
+	private static List<Document> pipeline(UpdateDefinition update) {
+		return ((AggregationUpdate) update).toPipeline(Aggregation.DEFAULT_CONTEXT);
+	}
+
+	private static Document flip(String field) {
+		return new Document("$set", new Document(field, new Document("$not", List.of("$" + field))));
+	}
+
+	/**
+	 * The update's {@code $set} document, asserting it has no other operators.
+	 */
+	private static Document onlySet(UpdateDefinition update) {
+		Document document = update.getUpdateObject();
+		assertEquals(Set.of("$set"), document.keySet());
+		return (Document) document.get("$set");
+	}
+}
@@ -0,0 +1,222 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.devlcm.lcm.entity.ForumPost;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The stored scores live in a map; the pipeline updates writing them are evaluated here the way
+ * Mongo would.
+ */
+class ForumTrendingTest {
+
+	private static final Duration HALF_LIFE = Duration.ofHours(12);
+	private static final Object REMOVE = new Object();
+
+	private final Map<String, Double> stored = new HashMap<>();
+	private final Map<String, String> courses = new HashMap<>();
+	private MongoTemplate mongoTemplate;
+	private ForumTrending trending;
+	private long now;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate = mock(MongoTemplate.class);
+		BulkOperations bulk = mock(BulkOperations.class);
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ForumPost.class)).thenReturn(bulk);
+		when(bulk.updateOne(any(Query.class), any(UpdateDefinition.class))).thenAnswer(invocation -> {
+			String postId = (String) ((Query) invocation.getArgument(0)).getQueryObject().get("_id");
+			List<Document> pipeline = ((AggregationUpdate) invocation.getArgument(1)).toPipeline(Aggregation.DEFAULT_CONTEXT);
+			Document set = (Document) pipeline.getFirst().get("$set");
+			Object score = evaluate(set.get(ForumTrending.TRENDING_SCORE), Map.of(), stored.get(postId));
+			if (score == REMOVE) {
+				stored.remove(postId);
+			} else {
+				stored.put(postId, (Double) score);
+			}
+			return bulk;
+		});
+		when(mongoTemplate.stream(any(Query.class), eq(ForumPost.class))).thenAnswer(invocation -> List
+				.copyOf(stored.entrySet())
+				.stream()
+				.map(score -> {
+					ForumPost post = new ForumPost();
+					post.setId(score.getKey());
+					post.setCourseId(courses.getOrDefault(score.getKey(), "c1"));
+					post.setTrendingScore(score.getValue());
+					return post;
+				}));
+		trending = newTrending();
+		now = System.currentTimeMillis();
+	}
+
+	@Test
+	void olderActivityWeighsLess() {
+		trending.record("old", "c1", 10 * ForumTrending.VIEW_WEIGHT, now - HALF_LIFE.toMillis());
+		trending.record("new", "c1", 6 * ForumTrending.VIEW_WEIGHT, now);
+
+		// 10 views a half-life ago now count as 5
+		assertEquals(List.of("new", "old"), trending.trending("c1"));
+	}
+
+	@Test
+	void keepsTheBestPostsPerCourseAndOverall() {
+		for (int i = 1; i <= 5; i++) {
+			trending.record("a" + i, "c1", i, now);
+			trending.record("b" + i, "c2", i + 0.5, now);
+		}
+		trending.record("general", null, 100, now);
+
+		assertEquals(List.of("a5", "a4", "a3"), trending.trending("c1"));
+		assertEquals(List.of("b5", "b4", "b3"), trending.trending("c2"));
+		assertEquals(List.of("general", "b5", "a5"), trending.trending(null));
+		assertEquals(List.of(), trending.trending("c3"));
+	}
+
+	@Test
+	void downvotesMoveAPostDownAndCanDropIt() {
+		trending.record("p1", "c1", 2 * ForumTrending.VOTE_WEIGHT, now);
+		trending.record("p2", "c1", ForumTrending.VOTE_WEIGHT, now);
+
+		trending.record("p1", "c1", -1.5 * ForumTrending.VOTE_WEIGHT, now);
+		assertEquals(List.of("p2", "p1"), trending.trending("c1"));
+
+		trending.record("p2", "c1", -2 * ForumTrending.VOTE_WEIGHT, now);
+		assertEquals(List.of("p1"), trending.trending("c1"));
+	}
+
+	@Test
+	void postsLeftOutOfTheSetsComeBackWhenAMemberFalls() {
+		for (int i = 1; i <= 4; i++) {
+			trending.record("p" + i, "c1", i, now);
+		}
+		trending.record("p4", "c1", -3.8, now);
+
+		trending.refresh(now);
+
+		assertEquals(List.of("p3", "p2", "p1"), trending.trending("c1"));
+	}
+
+	@Test
+	void quietPostsAreDroppedAndTheirStoredScoreCleared() {
+		trending.record("quiet", "c1", ForumTrending.VIEW_WEIGHT, now);
+		trending.record("busy", "c1", 100 * ForumTrending.VIEW_WEIGHT, now);
+		trending.persist(now);
+		assertEquals(2, stored.size());
+		double busy = stored.get("busy");
+
+		trending.persist(now + 4 * HALF_LIFE.toMillis());
+
+		assertEquals(List.of("busy"), trending.trending("c1"));
+		assertFalse(stored.containsKey("quiet"));
+		assertEquals(busy, stored.get("busy"));
+	}
+
+	@Test
+	void instancesAddUpEachOthersActivity() {
+		ForumTrending other = newTrending();
+		trending.record("p1", "c1", 6, now);
+		other.record("p1", "c1", 3, now);
+		other.record("p2", "c1", 5, now);
+		other.record("p2", "c1", -1, now);
+		assertEquals(List.of("p2", "p1"), other.trending("c1"));
+
+		trending.persist(now);
+		other.persist(now);
+		trending.persist(now);
+
+		// p1 scores 9 across both instances and p2 scores 4; neither write overwrote the other
+		assertEquals(List.of("p1", "p2"), trending.trending("c1"));
+		assertEquals(List.of("p1", "p2"), other.trending("c1"));
+		assertEquals(9.0 / 4, Math.exp(stored.get("p1") - stored.get("p2")), 1e-9);
+	}
+
+	@Test
+	void storedScoresRestoreTheRankingAfterARestart() {
+		courses.put("p3", "c2");
+		trending.record("p1", "c1", 3, now - HALF_LIFE.toMillis());
+		trending.record("p2", "c1", 2, now);
+		trending.record("p3", "c2", 1, now);
+		trending.persist(now);
+		assertEquals(3, stored.size());
+
+		ForumTrending restarted = newTrending();
+		restarted.load(now);
+
+		assertEquals(List.of("p2", "p1"), restarted.trending("c1"));
+		assertEquals(List.of("p2", "p1", "p3"), restarted.trending(null));
+	}
+
+	private ForumTrending newTrending() {
+		return new ForumTrending(mongoTemplate, new SimpleMeterRegistry(), HALF_LIFE, 3, Duration.ZERO);
+	}
+
+	/**
+	 * Evaluate the aggregation expressions the updates use against a post whose only field is
+	 * {@code trendingScore}.
+	 */
+	private static Object evaluate(Object expression, Map<String, Object> variables, Double field) {
+		if (expression instanceof String reference) {
+			if (reference.equals("$$REMOVE")) {
+				return REMOVE;
+			}
+			return reference.startsWith("$$") ? variables.get(reference.substring(2)) : field;
+		}
+		if (expression instanceof Number number) {
+			return number.doubleValue();
+		}
+		Document document = (Document) expression;
+		String operator = document.keySet().iterator().next();
+		Object operands = document.get(operator);
+		if (operator.equals("$let")) {
+			Map<String, Object> scope = new HashMap<>(variables);
+			((Document) ((Document) operands).get("vars"))
+					.forEach((name, value) -> scope.put(name, evaluate(value, variables, field)));
+			return evaluate(((Document) operands).get("in"), scope, field);
+		}
+		if (!(operands instanceof List<?> arguments)) {
+			double argument = (Double) evaluate(operands, variables, field);
+			return operator.equals("$ln") ? Math.log(argument) : Math.exp(argument);
+		}
+		Object first = evaluate(arguments.get(0), variables, field);
+		if (operator.equals("$ifNull")) {
+			return first != null ? first : evaluate(arguments.get(1), variables, field);
+		}
+		if (operator.equals("$cond")) {
+			return evaluate(arguments.get((Boolean) first ? 1 : 2), variables, field);
+		}
+		double a = (Double) first;
+		double b = (Double) evaluate(arguments.get(1), variables, field);
+		return switch (operator) {
+			case "$add" -> a + b;
+			case "$subtract" -> a - b;
+			case "$max" -> Math.max(a, b);
+			case "$min" -> Math.min(a, b);
+			case "$gt" -> a > b;
+			case "$gte" -> a >= b;
+			default -> throw new IllegalArgumentException(operator);
+		};
+	}
+}
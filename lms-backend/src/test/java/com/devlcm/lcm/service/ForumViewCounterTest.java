@@ -0,0 +1,89 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.devlcm.lcm.entity.ForumPost;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ForumViewCounterTest {
+
+	private final Map<String, Long> written = new ConcurrentHashMap<>();
+	private MongoTemplate mongoTemplate;
+	private SimpleMeterRegistry meterRegistry;
+	private ForumViewCounter counter;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate = mock(MongoTemplate.class);
+		BulkOperations bulk = mock(BulkOperations.class);
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ForumPost.class)).thenReturn(bulk);
+		when(bulk.updateOne(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+			Query query = invocation.getArgument(0);
+			Update update = invocation.getArgument(1);
+			Document inc = (Document) update.getUpdateObject().get("$inc");
+			written.merge((String) query.getQueryObject().get("_id"), ((Number) inc.get("viewCount")).longValue(),
+					Long::sum);
+			return bulk;
+		});
+		meterRegistry = new SimpleMeterRegistry();
+		counter = new ForumViewCounter(mongoTemplate, meterRegistry, Duration.ofHours(1), 10);
+	}
+
+	@AfterEach
+	void tearDown() {
+		counter.stop();
+	}
+
+	@Test
+	void concurrentViewsAreAllWrittenByTheFlush() throws Exception {
+		ExecutorService viewers = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 8; i++) {
+			viewers.execute(() -> {
+				for (int view = 0; view < 10_000; view++) {
+					counter.record("p" + (view % 3));
+				}
+			});
+		}
+		viewers.shutdown();
+		viewers.awaitTermination(30, TimeUnit.SECONDS);
+
+		assertEquals(80_000, meterRegistry.get("forum.views.pending").gauge().value());
+		counter.flush();
+
+		assertEquals(Map.of("p0", 26_672L, "p1", 26_664L, "p2", 26_664L), written);
+		assertEquals(0, meterRegistry.get("forum.views.pending").gauge().value());
+	}
+
+	@Test
+	void writesViewsDirectlyOnceTheBufferIsFull() {
+		for (int i = 0; i < 10; i++) {
+			counter.record("p" + i);
+		}
+		counter.record("p10");
+
+		verify(mongoTemplate).updateFirst(any(Query.class), eq(new Update().inc("viewCount", 1L)), eq(ForumPost.class));
+		assertEquals(0, counter.pending("p10"));
+	}
+}
@@ -0,0 +1,117 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.devlcm.lcm.entity.ForumPost;
+import com.devlcm.lcm.entity.ForumReply;
+import com.devlcm.lcm.entity.ForumVote;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * Checks the updates the migration sends; the guards they carry are evaluated by Mongo.
+ */
+class ForumVoteMigrationTest {
+
+	private static final UpdateResult MATCHED = UpdateResult.acknowledged(1, 1L, null);
+	private static final UpdateResult MISSED = UpdateResult.acknowledged(0, 0L, null);
+
+	private MongoTemplate mongoTemplate;
+	private BulkOperations bulk;
+	private ForumVoteMigration migration;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate = mock(MongoTemplate.class);
+		bulk = mock(BulkOperations.class);
+		when(mongoTemplate.getCollectionName(ForumPost.class)).thenReturn("forum_posts");
+		when(mongoTemplate.getCollectionName(ForumReply.class)).thenReturn("forum_replies");
+		when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("forum_posts")))
+				.thenReturn(Stream.of(post(List.of("a", "b"), List.of("c"))));
+		when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("forum_replies"))).thenReturn(Stream.empty());
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ForumVote.class)).thenReturn(bulk);
+		when(bulk.upsert(any(Query.class), any(Update.class))).thenReturn(bulk);
+		// "b" had already voted through a new node, so only "a" and "c" are inserted; on a retry after an
+		// old node added "d", the copies of "a" and "c" were removed again and are inserted anew with "d"
+		BulkWriteResult first = inserted(0, 2);
+		BulkWriteResult retry = inserted(0, 2, 3);
+		when(bulk.execute()).thenReturn(first, retry);
+		migration = new ForumVoteMigration(mongoTemplate);
+	}
+
+	@Test
+	void adjustsCountersWithIncInsteadOfOverwritingThem() {
+		when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq("forum_posts")))
+				.thenReturn(MATCHED);
+
+		migration.run(null);
+
+		List<Document> updates = updates(2);
+		assertEquals(List.of(ForumVoteMigration.CLAIM), List.copyOf(set(updates.get(0)).keySet()));
+		Document finished = updates.get(1);
+		assertFalse(finished.containsKey("$set"));
+		// "b" is counted by the embedded set and again by the new node's vote
+		assertEquals(new Document("upvotes", -1).append("downvotes", 0), finished.get("$inc"));
+	}
+
+	@Test
+	void undoesCopiedVotesWhenTheSetsChangedMeanwhile() {
+		when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq("forum_posts")))
+				.thenReturn(MATCHED, MISSED, MATCHED, MATCHED, MATCHED);
+		when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("forum_posts")))
+				.thenReturn(post(List.of("a", "b", "d"), List.of("c")));
+
+		migration.run(null);
+
+		verify(mongoTemplate).remove(any(Query.class), eq(ForumVote.class));
+		// Claim, missed finish, release, then claim and finish on the re-read document
+		List<Document> updates = updates(5);
+		assertEquals(new Document(ForumVoteMigration.CLAIM, 1), updates.get(2).get("$unset"));
+		assertEquals(new Document("upvotes", -1).append("downvotes", 0), updates.get(4).get("$inc"));
+	}
+
+	private List<Document> updates(int count) {
+		ArgumentCaptor<UpdateDefinition> updates = ArgumentCaptor.forClass(UpdateDefinition.class);
+		verify(mongoTemplate, times(count)).updateFirst(any(Query.class), updates.capture(), eq("forum_posts"));
+		return updates.getAllValues().stream().map(UpdateDefinition::getUpdateObject).toList();
+	}
+
+	private static BulkWriteResult inserted(int... indexes) {
+		BulkWriteResult result = mock(BulkWriteResult.class);
+		when(result.getUpserts()).thenReturn(Arrays.stream(indexes)
+				.mapToObj(index -> new BulkWriteUpsert(index, new BsonString("v" + index)))
+				.toList());
+		return result;
+	}
+
+	private static Document set(Document update) {
+		return (Document) update.get("$set");
+	}
+
+	private static Document post(List<String> upvotedBy, List<String> downvotedBy) {
+		return new Document("_id", "p1").append("upvotedBy", upvotedBy).append("downvotedBy", downvotedBy);
+	}
+}
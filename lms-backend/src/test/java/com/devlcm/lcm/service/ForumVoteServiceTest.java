@@ -0,0 +1,127 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.devlcm.lcm.entity.ForumPost;
+import com.devlcm.lcm.entity.ForumVote;
+import com.devlcm.lcm.entity.VoteType;
+import com.devlcm.lcm.repository.ForumVoteRepository;
+
+class ForumVoteServiceTest {
+
+	private MongoTemplate mongoTemplate;
+	private ForumVoteService voteService;
+
+	@BeforeEach
+	void setUp() {
+		mongoTemplate = mock(MongoTemplate.class);
+		voteService = new ForumVoteService(mongoTemplate, mock(ForumVoteRepository.class), mock(ForumTrending.class));
+	}
+
+	@Test
+	void firstVoteIncrementsItsCounter() {
+		previousVote(null);
+
+		voteService.vote(ForumPost.class, "p1", "u1", VoteType.UPVOTE);
+
+		assertEquals(new Document("upvotes", 1), counterUpdate().getUpdateObject().get("$inc"));
+	}
+
+	@Test
+	void switchingVoteMovesBothCounters() {
+		previousVote(VoteType.UPVOTE);
+
+		voteService.vote(ForumPost.class, "p1", "u1", VoteType.DOWNVOTE);
+
+		assertEquals(new Document("upvotes", -1).append("downvotes", 1), counterUpdate().getUpdateObject().get("$inc"));
+	}
+
+	@Test
+	void removingVoteDeletesItAndDecrementsItsCounter() {
+		when(mongoTemplate.findAndRemove(any(Query.class), eq(ForumVote.class)))
+				.thenReturn(new ForumVote("v1", "p1", "u1", VoteType.DOWNVOTE, null, null));
+
+		voteService.vote(ForumPost.class, "p1", "u1", VoteType.REMOVE);
+
+		assertEquals(new Document("downvotes", -1), counterUpdate().getUpdateObject().get("$inc"));
+	}
+
+	@Test
+	void repeatedVoteLeavesCountersAlone() {
+		previousVote(VoteType.UPVOTE);
+
+		voteService.vote(ForumPost.class, "p1", "u1", VoteType.UPVOTE);
+
+		verify(mongoTemplate, never()).findAndModify(any(Query.class), any(UpdateDefinition.class),
+				any(FindAndModifyOptions.class), eq(ForumPost.class));
+		verify(mongoTemplate).findOne(any(Query.class), eq(ForumPost.class));
+	}
+
+	/**
+	 * A post with 100k voters: about 4.8 MB of BSON rewritten on every vote with embedded voter
+	 * sets (a third of the 16 MB document limit), against a few hundred bytes now.
+	 */
+	@Test
+	void postDocumentSizeNoLongerGrowsWithVotes() {
+		MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE,
+				new MongoMappingContext());
+		converter.afterPropertiesSet();
+		ForumPost post = new ForumPost();
+		post.setTitle("Popular post");
+		post.setContent("Body");
+		post.setUpvotes(100_000);
+		Document stored = new Document();
+		converter.write(post, stored);
+
+		List<String> voters = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++) {
+			voters.add(UUID.randomUUID().toString());
+		}
+		Document embedded = new Document(stored).append("upvotedBy", voters);
+
+		assertTrue(bsonSize(stored) < 1024, "post is " + bsonSize(stored) + " bytes");
+		assertTrue(bsonSize(embedded) > 4_000_000, "embedded voters are " + bsonSize(embedded) + " bytes");
+	}
+
+	private void previousVote(VoteType type) {
+		when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+				eq(ForumVote.class))).thenReturn(type == null ? null : new ForumVote("v1", "p1", "u1", type, null, null));
+	}
+
+	private Update counterUpdate() {
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+				eq(ForumPost.class));
+		return update.getValue();
+	}
+
+	private static int bsonSize(Document document) {
+		return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+	}
+}
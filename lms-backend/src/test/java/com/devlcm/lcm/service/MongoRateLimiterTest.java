@@ -0,0 +1,157 @@
+package com.devlcm.lcm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the lease protocol against an in-memory stand-in for the counter collection
+ * that applies each {@code $inc} atomically, as Mongo's findAndModify does.
+ */
+class MongoRateLimiterTest {
+
+	private final Map<Object, Long> counters = new HashMap<>();
+	private MongoOperations mongoOperations;
+
+	@BeforeEach
+	void setUp() {
+		mongoOperations = mock(MongoOperations.class);
+		when(mongoOperations.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+				eq(Document.class), anyString())).thenAnswer(invocation -> increment(invocation.getArgument(0),
+						invocation.getArgument(1)));
+	}
+
+	@Test
+	void replicasTogetherAdmitExactlyTheLimit() {
+		MongoRateLimiter replicaA = limiter(0.1);
+		MongoRateLimiter replicaB = limiter(0.1);
+
+		int admitted = 0;
+		for (int i = 0; i < 200; i++) {
+			MongoRateLimiter replica = i % 2 == 0 ? replicaA : replicaB;
+			if (replica.tryConsume("Test|50/3600|user:u1", 50, 3600).allowed()) {
+				admitted++;
+			}
+		}
+
+		assertEquals(50, admitted);
+		// Ten leases of five tokens, plus one refused lease per replica once the window is used up
+		assertEquals(12, replicaA.getLeaseRequestCount() + replicaB.getLeaseRequestCount());
+	}
+
+	@Test
+	void takesOneRoundTripPerLease() {
+		MongoRateLimiter limiter = limiter(0.1);
+
+		for (int i = 0; i < 30; i++) {
+			assertTrue(limiter.tryConsume("Test|100/3600|user:u2", 100, 3600).allowed());
+		}
+
+		assertEquals(3, limiter.getLeaseRequestCount());
+	}
+
+	@Test
+	void keysAreIndependent() {
+		MongoRateLimiter limiter = limiter(0.5);
+
+		assertTrue(limiter.tryConsume("Test|1/3600|user:a", 1, 3600).allowed());
+		assertTrue(limiter.tryConsume("Test|1/3600|user:b", 1, 3600).allowed());
+		assertFalse(limiter.tryConsume("Test|1/3600|user:a", 1, 3600).allowed());
+	}
+
+	@Test
+	void otherCallersForTheKeyDoNotWaitForALeaseRoundTrip() throws InterruptedException {
+		CountDownLatch leasing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		doAnswer(invocation -> {
+			if (calls.incrementAndGet() == 1) {
+				leasing.countDown();
+				release.await();
+			}
+			return increment(invocation.getArgument(0), invocation.getArgument(1));
+		}).when(mongoOperations).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+				eq(Document.class), anyString());
+		MongoRateLimiter limiter = limiter(0.1);
+		AtomicBoolean slowAdmitted = new AtomicBoolean();
+		Thread slow = new Thread(() -> slowAdmitted.set(limiter.tryConsume("Test|100/3600|user:u3", 100, 3600).allowed()));
+		slow.start();
+		assertTrue(leasing.await(5, TimeUnit.SECONDS));
+
+		// Mongo is still answering the first caller
+		assertTrue(limiter.tryConsume("Test|100/3600|user:u3", 100, 3600).allowed());
+		release.countDown();
+		slow.join(5000);
+
+		assertTrue(slowAdmitted.get());
+		assertEquals(2, limiter.getLeaseRequestCount());
+	}
+
+	@Test
+	void usesLocalBucketsForAWhileAfterAFailure() {
+		doThrow(new DataAccessResourceFailureException("timed out")).when(mongoOperations).findAndModify(any(Query.class),
+				any(Update.class), any(FindAndModifyOptions.class), eq(Document.class), anyString());
+		MongoRateLimiter limiter = new MongoRateLimiter(mongoOperations, "rate_limits", 0.1, Duration.ofHours(1), 1000);
+		RateLimitService rateLimitService = new RateLimitService(new SimpleMeterRegistry(), 1000, Optional.of(limiter));
+
+		assertTrue(rateLimitService.tryConsume("Test|2/3600|user:u4", 2, 3600).allowed());
+		assertTrue(rateLimitService.tryConsume("Test|2/3600|user:u4", 2, 3600).allowed());
+		assertFalse(rateLimitService.tryConsume("Test|2/3600|user:u4", 2, 3600).allowed());
+
+		// Only the first request waited for Mongo
+		assertEquals(1, limiter.getLeaseRequestCount());
+		assertFalse(limiter.isAvailable());
+	}
+
+	@Test
+	void startsWhileMongoIsDown() {
+		when(mongoOperations.indexOps("rate_limits")).thenThrow(new DataAccessResourceFailureException("no server"));
+
+		limiter(0.1).run(null);
+
+		verify(mongoOperations, times(1)).indexOps("rate_limits");
+	}
+
+	private MongoRateLimiter limiter(double leaseFraction) {
+		return new MongoRateLimiter(mongoOperations, "rate_limits", leaseFraction, Duration.ofSeconds(5), 1000);
+	}
+
+	private Document increment(Query query, Update update) {
+		Object id = query.getQueryObject().get("_id");
+		Document inc = (Document) update.getUpdateObject().get("$inc");
+		long delta = ((Number) inc.get("count")).longValue();
+		synchronized (counters) {
+			long total = counters.merge(id, delta, Long::sum);
+			return new Document("_id", id).append("count", total);
+		}
+	}
+}
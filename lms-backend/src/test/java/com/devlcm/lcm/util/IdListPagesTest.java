@@ -0,0 +1,41 @@
+package com.devlcm.lcm.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+class IdListPagesTest {
+
+	@Test
+	void readsOnlyThePageAndKeepsListOrder() {
+		List<String> ids = IntStream.range(0, 500).mapToObj(i -> "t" + i).toList();
+		List<List<String>> queried = new ArrayList<>();
+		// Storage order differs from list order
+		Function<List<String>, List<String>> finder = pageIds -> {
+			queried.add(pageIds);
+			return pageIds.reversed();
+		};
+
+		Page<String> page = IdListPages.page(ids, PageRequest.of(1, 20), finder, Function.identity());
+
+		assertEquals(ids.subList(20, 40), page.getContent());
+		assertEquals(500, page.getTotalElements());
+		assertEquals(List.of(ids.subList(20, 40)), queried);
+	}
+
+	@Test
+	void skipsDanglingIdsAndPagesPastTheEnd() {
+		List<String> ids = List.of("a", "missing", "b");
+		Function<List<String>, List<String>> finder = pageIds -> List.of("b", "a");
+
+		assertEquals(List.of("a", "b"), IdListPages.page(ids, PageRequest.of(0, 10), finder, Function.identity()).getContent());
+		assertEquals(List.of(), IdListPages.page(ids, PageRequest.of(1, 10), finder, Function.identity()).getContent());
+	}
+}